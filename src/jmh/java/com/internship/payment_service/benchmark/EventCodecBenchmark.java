@@ -0,0 +1,108 @@
+package com.internship.payment_service.benchmark;
+
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.kafka.codec.NegotiatingDeserializer;
+import com.internship.payment_service.kafka.codec.NegotiatingSerializer;
+import com.internship.payment_service.kafka.codec.OrderEventCodec;
+import com.internship.payment_service.kafka.codec.OrderEventJsonDeserializer;
+import com.internship.payment_service.kafka.codec.PaymentEventCodec;
+import com.internship.payment_service.kafka.codec.WireFormat;
+import com.internship.payment_service.kafka.dto.OrderEvent;
+import com.internship.payment_service.kafka.dto.PaymentEvent;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Serializer/deserializer cost per record for each wire format, wired as in KafkaConfig so header handling is
+// included. Payload sizes are printed once per fork from setup().
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    private static final String TOPIC = "bench";
+
+    @Param({"JSON", "BINARY"})
+    private WireFormat format;
+
+    private NegotiatingSerializer<OrderEvent> orderSerializer;
+    private NegotiatingDeserializer<OrderEvent> orderDeserializer;
+    private NegotiatingSerializer<PaymentEvent> paymentSerializer;
+    private NegotiatingDeserializer<PaymentEvent> paymentDeserializer;
+
+    private OrderEvent order;
+    private PaymentEvent payment;
+    private RecordHeaders orderHeaders;
+    private byte[] orderBytes;
+    private RecordHeaders paymentHeaders;
+    private byte[] paymentBytes;
+
+    @Setup
+    public void setup() {
+        JsonDeserializer<PaymentEvent> paymentJson = new JsonDeserializer<>(PaymentEvent.class, false);
+        paymentJson.addTrustedPackages("*");
+
+        orderSerializer = new NegotiatingSerializer<>(format, new OrderEventCodec(), new JsonSerializer<>());
+        orderDeserializer = new NegotiatingDeserializer<>(new OrderEventCodec(), new OrderEventJsonDeserializer());
+        paymentSerializer = new NegotiatingSerializer<>(format, new PaymentEventCodec(), new JsonSerializer<>());
+        paymentDeserializer = new NegotiatingDeserializer<>(new PaymentEventCodec(), paymentJson);
+
+        order = OrderEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .orderId(123_456_789L)
+                .userId(987_654L)
+                .paymentAmount(new BigDecimal("1499.90"))
+                .build();
+        payment = PaymentEvent.builder()
+                .eventId(order.getEventId())
+                .orderId(order.getOrderId())
+                .paymentId("66f1c0a2e4b0a1b2c3d4e5f6")
+                .status(PaymentStatus.SUCCESS)
+                .build();
+
+        orderHeaders = new RecordHeaders();
+        orderBytes = orderSerializer.serialize(TOPIC, orderHeaders, order);
+        paymentHeaders = new RecordHeaders();
+        paymentBytes = paymentSerializer.serialize(TOPIC, paymentHeaders, payment);
+        System.out.printf("%n%s payload: OrderEvent %d bytes, PaymentEvent %d bytes%n",
+                format, orderBytes.length, paymentBytes.length);
+    }
+
+    @Benchmark
+    public byte[] serializeOrderEvent() {
+        return orderSerializer.serialize(TOPIC, new RecordHeaders(), order);
+    }
+
+    @Benchmark
+    public OrderEvent deserializeOrderEvent() {
+        return orderDeserializer.deserialize(TOPIC, orderHeaders, orderBytes);
+    }
+
+    @Benchmark
+    public byte[] serializePaymentEvent() {
+        return paymentSerializer.serialize(TOPIC, new RecordHeaders(), payment);
+    }
+
+    @Benchmark
+    public PaymentEvent deserializePaymentEvent() {
+        return paymentDeserializer.deserialize(TOPIC, paymentHeaders, paymentBytes);
+    }
+}
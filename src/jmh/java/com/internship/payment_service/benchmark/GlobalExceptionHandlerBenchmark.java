@@ -0,0 +1,67 @@
+package com.internship.payment_service.benchmark;
+
+import com.internship.payment_service.dto.PaymentRequest;
+import com.internship.payment_service.exception.ApiError;
+import com.internship.payment_service.exception.GlobalExceptionHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.concurrent.TimeUnit;
+
+// Error responses built by GlobalExceptionHandler, exception construction excluded: the exceptions are created once,
+// so the numbers are the ApiError, its timestamp and the ResponseEntity around it.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GlobalExceptionHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private MockHttpServletRequest request;
+    private IllegalArgumentException badRequest;
+    private MethodArgumentNotValidException invalid;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        handler = new GlobalExceptionHandler();
+        request = new MockHttpServletRequest("POST", "/api/v1/payments");
+        badRequest = new IllegalArgumentException("Invalid payment status: PAID");
+
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new PaymentRequest(), "paymentRequest");
+        bindingResult.addError(new FieldError("paymentRequest", "orderId", "Order id is required"));
+        bindingResult.addError(new FieldError("paymentRequest", "paymentAmount", "Payment amount must be positive"));
+        MethodParameter parameter = new MethodParameter(
+                GlobalExceptionHandlerBenchmark.class.getDeclaredMethod("target", PaymentRequest.class), 0);
+        invalid = new MethodArgumentNotValidException(parameter, bindingResult);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> badRequest() {
+        return handler.handleBadRequest(badRequest, request);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> validationError() {
+        return handler.handleValidation(invalid, request);
+    }
+
+    @SuppressWarnings("unused")
+    private void target(PaymentRequest request) {
+    }
+}
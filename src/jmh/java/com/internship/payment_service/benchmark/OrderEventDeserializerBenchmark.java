@@ -0,0 +1,65 @@
+package com.internship.payment_service.benchmark;
+
+import com.internship.payment_service.kafka.codec.OrderEventJsonDeserializer;
+import com.internship.payment_service.kafka.dto.OrderEvent;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Per-record cost of turning an OrderEvent JSON payload into the DTO; gc.alloc.rate.norm is bytes per record.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderEventDeserializerBenchmark {
+
+    private static final String TOPIC = "bench";
+
+    private JsonDeserializer<OrderEvent> jackson;
+    private OrderEventJsonDeserializer streaming;
+    private RecordHeaders headers;
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        jackson = new JsonDeserializer<>(OrderEvent.class, false);
+        jackson.addTrustedPackages("*");
+        streaming = new OrderEventJsonDeserializer();
+        headers = new RecordHeaders();
+
+        JsonSerializer<OrderEvent> serializer = new JsonSerializer<>();
+        serializer.setAddTypeInfo(false);
+        payload = serializer.serialize(TOPIC, OrderEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .orderId(123_456_789L)
+                .userId(987_654L)
+                .paymentAmount(new BigDecimal("1499.90"))
+                .build());
+    }
+
+    @Benchmark
+    public OrderEvent jackson() {
+        return jackson.deserialize(TOPIC, headers, payload);
+    }
+
+    @Benchmark
+    public OrderEvent streaming() {
+        return streaming.deserialize(TOPIC, headers, payload);
+    }
+}
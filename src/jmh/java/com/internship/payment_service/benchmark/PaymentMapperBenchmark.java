@@ -0,0 +1,61 @@
+package com.internship.payment_service.benchmark;
+
+import com.internship.payment_service.dto.PaymentRequest;
+import com.internship.payment_service.dto.PaymentResponse;
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.mapper.PaymentMapper;
+import com.internship.payment_service.mapper.PaymentMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentMapperBenchmark {
+
+    private PaymentMapper mapper;
+    private PaymentRequest request;
+    private Payment payment;
+
+    @Setup
+    public void setup() {
+        mapper = new PaymentMapperImpl();
+        request = PaymentRequest.builder()
+                .orderId(123_456L)
+                .userId(42L)
+                .paymentAmount(new BigDecimal("199.99"))
+                .eventId(UUID.randomUUID().toString())
+                .build();
+        payment = mapper.toEntity(request);
+        payment.setId("66f1c0a2e4b0a1b2c3d4e5f6");
+        payment.setStatus(PaymentStatus.SUCCESS);
+        payment.setTimestamp(Instant.now());
+    }
+
+    @Benchmark
+    public Payment toEntity() {
+        return mapper.toEntity(request);
+    }
+
+    @Benchmark
+    public PaymentResponse toResponse() {
+        return mapper.toResponse(payment);
+    }
+}
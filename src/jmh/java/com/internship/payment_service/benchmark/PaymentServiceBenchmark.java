@@ -0,0 +1,123 @@
+package com.internship.payment_service.benchmark;
+
+import com.internship.payment_service.cache.PaymentReadCache;
+import com.internship.payment_service.config.IdempotencyProperties;
+import com.internship.payment_service.config.PaymentCacheProperties;
+import com.internship.payment_service.config.RollupProperties;
+import com.internship.payment_service.dto.PaymentRequest;
+import com.internship.payment_service.dto.PaymentResponse;
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.idempotency.IdempotencyFilter;
+import com.internship.payment_service.idempotency.InFlightCreates;
+import com.internship.payment_service.mapper.PaymentMapperImpl;
+import com.internship.payment_service.metrics.PaymentMetrics;
+import com.internship.payment_service.repository.PaymentRepository;
+import com.internship.payment_service.rollup.PaymentRollupService;
+import com.internship.payment_service.rollup.PaymentTotalsIndex;
+import com.internship.payment_service.rollup.UserPaymentSummaryService;
+import com.internship.payment_service.service.impl.PaymentServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// PaymentServiceImpl.create on the CPU alone: the repository is a Proxy that assigns an id and returns at once, the
+// random API answers from memory, rollups and the in-memory index are off. Events go to Kafka through the outbox
+// relay, not from create(), so there is no producer on this path.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentServiceBenchmark {
+
+    // more than IdempotencyProperties.recentCapacity, so new events never hit the recent-response cache
+    private static final int EVENT_IDS = 1 << 16;
+
+    private PaymentServiceImpl service;
+    private PaymentRequest[] requests;
+    private PaymentRequest duplicate;
+    private int next;
+
+    @Setup
+    public void setup() {
+        PaymentRepository repository = stubRepository();
+        RollupProperties rollups = new RollupProperties();
+        rollups.setEnabled(false);
+
+        int[] random = {0};
+        service = new PaymentServiceImpl(
+                repository,
+                new PaymentMapperImpl(),
+                () -> random[0]++,
+                new IdempotencyFilter(new IdempotencyProperties(), new SimpleMeterRegistry()),
+                new InFlightCreates(new SimpleMeterRegistry()),
+                new PaymentRollupService(null, repository, rollups),
+                new PaymentTotalsIndex(repository, rollups),
+                new UserPaymentSummaryService(null, rollups),
+                new PaymentMetrics(new SimpleMeterRegistry()),
+                new PaymentReadCache(new PaymentCacheProperties(), new SimpleMeterRegistry()));
+
+        requests = new PaymentRequest[EVENT_IDS];
+        for (int i = 0; i < EVENT_IDS; i++) {
+            requests[i] = request(i, UUID.randomUUID().toString());
+        }
+        duplicate = request(-1, UUID.randomUUID().toString());
+        service.create(duplicate);
+    }
+
+    @Benchmark
+    public PaymentResponse createNewEvent() {
+        PaymentRequest request = requests[next];
+        next = (next + 1) & (EVENT_IDS - 1);
+        return service.create(request);
+    }
+
+    // redelivered event answered from the recent-response cache
+    @Benchmark
+    public PaymentResponse createDuplicateEvent() {
+        return service.create(duplicate);
+    }
+
+    private static PaymentRequest request(long orderId, String eventId) {
+        return PaymentRequest.builder()
+                .orderId(orderId)
+                .userId(42L)
+                .paymentAmount(new BigDecimal("199.99"))
+                .eventId(eventId)
+                .build();
+    }
+
+    private static PaymentRepository stubRepository() {
+        return (PaymentRepository) Proxy.newProxyInstance(
+                PaymentRepository.class.getClassLoader(),
+                new Class<?>[]{PaymentRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByEventId" -> Optional.empty();
+                    case "insert", "save" -> {
+                        Payment payment = (Payment) args[0];
+                        payment.setId(new ObjectId().toHexString());
+                        yield payment;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "PaymentRepository stub";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -1,12 +1,25 @@
 package com.internship.payment_service;
 
+import com.internship.payment_service.config.AdmissionProperties;
+import com.internship.payment_service.config.IdempotencyProperties;
 import com.internship.payment_service.config.KafkaTopicsProperties;
+import com.internship.payment_service.config.OutboxProperties;
+import com.internship.payment_service.config.PaymentCacheProperties;
+import com.internship.payment_service.config.RandomApiProperties;
+import com.internship.payment_service.config.RollupProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.mongo.MongoReactiveRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.mongo.MongoReactiveAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
-@SpringBootApplication
-@EnableConfigurationProperties(KafkaTopicsProperties.class)
+// reactive Mongo is imported by ReactiveMongoConfig in the reactive mode only
+@SpringBootApplication(exclude = {MongoReactiveAutoConfiguration.class, MongoReactiveDataAutoConfiguration.class,
+		MongoReactiveRepositoriesAutoConfiguration.class})
+@EnableConfigurationProperties({KafkaTopicsProperties.class, RandomApiProperties.class, IdempotencyProperties.class,
+		RollupProperties.class, OutboxProperties.class, PaymentCacheProperties.class,
+		AdmissionProperties.class})
 public class PaymentServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,126 @@
+package com.internship.payment_service.admission;
+
+import com.internship.payment_service.config.AdmissionProperties;
+import com.internship.payment_service.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+
+// Sheds load before it reaches a Tomcat thread's worth of work: POST /api/v1/payments draws on the create budget and
+// GETs on the read budget, so a degraded Mongo or random API slowing creates down does not starve the reads. A
+// rejected request fails fast with AdmissionRejectedException, which GlobalExceptionHandler turns into a 429.
+public class AdmissionInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final Budget create;
+    private final Budget read;
+    private final Duration retryAfter;
+
+    public AdmissionInterceptor(AdmissionProperties props, MeterRegistry meterRegistry) {
+        this.create = new Budget("create", props.getCreate(), meterRegistry);
+        this.read = new Budget("read", props.getRead(), meterRegistry);
+        this.retryAfter = props.getRetryAfter();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // the async re-dispatch of a streaming response was admitted (and released) on the original dispatch
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        Budget budget = budgetFor(request);
+        if (budget == null) {
+            return true;
+        }
+        if (!budget.limiter.tryAcquire()) {
+            budget.rejected.increment();
+            throw new AdmissionRejectedException(budget.name, retryAfter);
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(budget, System.nanoTime()));
+        return true;
+    }
+
+    // NDJSON streams go async; their duration tracks the result size rather than load, so they free the slot unsampled
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        Permit permit = takePermit(request);
+        if (permit != null) {
+            permit.budget.limiter.onIgnore();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Permit permit = takePermit(request);
+        if (permit != null) {
+            boolean failed = ex != null || response.getStatus() >= 500;
+            permit.budget.limiter.onComplete(System.nanoTime() - permit.startNanos, failed);
+        }
+    }
+
+    public AimdLimiter createLimiter() {
+        return create.limiter;
+    }
+
+    public AimdLimiter readLimiter() {
+        return read.limiter;
+    }
+
+    private Budget budgetFor(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (HttpMethod.POST.matches(method)) {
+            return create;
+        }
+        if (HttpMethod.GET.matches(method)) {
+            return read;
+        }
+        return null;
+    }
+
+    private static Permit takePermit(HttpServletRequest request) {
+        Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+        }
+        return permit;
+    }
+
+    private record Permit(Budget budget, long startNanos) {
+    }
+
+    private static final class Budget {
+
+        private final String name;
+        private final AimdLimiter limiter;
+        private final Counter rejected;
+
+        Budget(String name, AdmissionProperties.Budget settings, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.limiter = new AimdLimiter(settings.getInitialLimit(), settings.getMinLimit(), settings.getMaxLimit(),
+                    settings.getLatencyThreshold().toNanos(), settings.getBackoffRatio(), System::nanoTime);
+
+            Gauge.builder("admission.limit", limiter, AimdLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .tag("budget", name)
+                    .register(meterRegistry);
+            Gauge.builder("admission.in_flight", limiter, AimdLimiter::getInFlight)
+                    .description("Requests currently admitted")
+                    .tag("budget", name)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("admission.rejected")
+                    .description("Requests shed with 429")
+                    .tag("budget", name)
+                    .register(meterRegistry);
+        }
+    }
+}
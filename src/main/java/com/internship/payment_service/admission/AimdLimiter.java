@@ -0,0 +1,100 @@
+package com.internship.payment_service.admission;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// Adaptive concurrency limit: a request is admitted while fewer than limit are in flight. Each completion is a
+// latency sample; a fast one raises the limit by one (only when at least half of it is in use, so an idle service
+// does not drift to maxLimit), a slow or failed one multiplies it by backoffRatio. Back-offs are spaced at least
+// latencyThreshold apart, otherwise the whole in-flight batch of a single slow spell would cut the limit n times.
+// Guarded by a ReentrantLock rather than synchronized so contended callers do not pin virtual-thread carriers.
+public class AimdLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private double limit;
+    private int inFlight;
+    private long lastBackoffNanos;
+    private boolean backedOff;
+
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio,
+                       LongSupplier nanoClock) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= min <= max, got " + minLimit + ".." + maxLimit);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be in (0, 1), got " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.nanoClock = nanoClock;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+    }
+
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onComplete(long latencyNanos, boolean failed) {
+        lock.lock();
+        try {
+            int used = inFlight--;
+            if (failed || latencyNanos > latencyThresholdNanos) {
+                long now = nanoClock.getAsLong();
+                if (!backedOff || now - lastBackoffNanos >= latencyThresholdNanos) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastBackoffNanos = now;
+                    backedOff = true;
+                }
+            } else if (used * 2 >= (int) limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the request ended without a usable latency sample (e.g. it went async), so only its slot is returned
+    public void onIgnore() {
+        lock.lock();
+        try {
+            inFlight--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.internship.payment_service.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.internship.payment_service.config.PaymentCacheProperties;
+import com.internship.payment_service.dto.PaymentResponse;
+import com.internship.payment_service.entity.Payment;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+// Read-through cache for the payments of an order and of a user. Concurrent misses on a key share one load, and the
+// load runs outside the cache's locks: only its pending future is put into the map, so a slow Mongo read neither
+// blocks other keys nor invalidate(), nor pins a virtual thread's carrier. invalidate() drops a pending future as
+// well, and a load that completes after its future was dropped is not put back, so a load that read Mongo before a
+// concurrent insert can never outlive the invalidation that follows the insert. Empty results are not cached: a
+// poller waiting for the first payment of an order sees it as soon as it is stored, whichever instance stored it.
+@Component
+public class PaymentReadCache {
+
+    private final boolean enabled;
+    private final AsyncCache<Long, List<PaymentResponse>> byOrderId;
+    private final AsyncCache<Long, List<PaymentResponse>> byUserId;
+
+    public PaymentReadCache(PaymentCacheProperties props, MeterRegistry meterRegistry) {
+        this.enabled = props.isEnabled();
+        this.byOrderId = CaffeineCacheMetrics.monitor(meterRegistry, build(props), "payments.by-order");
+        this.byUserId = CaffeineCacheMetrics.monitor(meterRegistry, build(props), "payments.by-user");
+    }
+
+    public List<PaymentResponse> byOrderId(Long orderId, Function<Long, List<PaymentResponse>> loader) {
+        return get(byOrderId, orderId, loader);
+    }
+
+    public List<PaymentResponse> byUserId(Long userId, Function<Long, List<PaymentResponse>> loader) {
+        return get(byUserId, userId, loader);
+    }
+
+    // called after the payment is stored, never before: a reader between the two would cache the old list again
+    public void invalidate(Payment payment) {
+        if (payment.getOrderId() != null) {
+            byOrderId.synchronous().invalidate(payment.getOrderId());
+        }
+        if (payment.getUserId() != null) {
+            byUserId.synchronous().invalidate(payment.getUserId());
+        }
+    }
+
+    private List<PaymentResponse> get(AsyncCache<Long, List<PaymentResponse>> cache, Long key,
+                                      Function<Long, List<PaymentResponse>> loader) {
+        if (!enabled || key == null) {
+            return loader.apply(key);
+        }
+        CompletableFuture<List<PaymentResponse>> mine = new CompletableFuture<>();
+        CompletableFuture<List<PaymentResponse>> future = cache.get(key, (k, executor) -> mine);
+        if (future == mine) {
+            // completing with null (empty result) or an exception makes the cache drop the entry
+            try {
+                List<PaymentResponse> loaded = loader.apply(key);
+                mine.complete(loaded.isEmpty() ? null : loaded);
+                return loaded;
+            } catch (RuntimeException | Error ex) {
+                mine.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+
+        List<PaymentResponse> cached;
+        try {
+            cached = future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        return cached != null ? cached : List.of();
+    }
+
+    private static AsyncCache<Long, List<PaymentResponse>> build(PaymentCacheProperties props) {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(props.getTtl())
+                .maximumWeight(props.getMaxPayments())
+                .<Long, List<PaymentResponse>>weigher((key, payments) -> payments.size())
+                .recordStats()
+                .buildAsync();
+    }
+}
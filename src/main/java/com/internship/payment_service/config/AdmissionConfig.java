@@ -0,0 +1,34 @@
+package com.internship.payment_service.config;
+
+import com.internship.payment_service.admission.AdmissionInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "app.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    private final AdmissionInterceptor admissionInterceptor;
+
+    public AdmissionConfig(AdmissionProperties props, MeterRegistry meterRegistry) {
+        this.admissionInterceptor = new AdmissionInterceptor(props, meterRegistry);
+    }
+
+    @Bean
+    public AdmissionInterceptor admissionInterceptor() {
+        return admissionInterceptor;
+    }
+
+    // actuator stays outside both budgets so health checks and scrapes still answer while requests are being shed
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(admissionInterceptor)
+                .addPathPatterns("/api/v1/payments", "/api/v1/payments/**");
+    }
+}
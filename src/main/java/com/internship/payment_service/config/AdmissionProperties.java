@@ -0,0 +1,50 @@
+package com.internship.payment_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    // sent back as Retry-After (whole seconds, at least 1) with every 429
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    private Budget create = new Budget(20, 4, 200, Duration.ofMillis(500));
+
+    // reads are cheap and must keep working while creates are being shed, so they get a budget of their own
+    private Budget read = new Budget(50, 10, 400, Duration.ofMillis(200));
+
+    // AIMD: the limit grows by one while requests finish under latencyThreshold and the limit is actually used,
+    // and is multiplied by backoffRatio (at most once per latencyThreshold) on a slow or failed request
+    @Getter
+    @Setter
+    public static class Budget {
+
+        private int initialLimit;
+
+        private int minLimit;
+
+        private int maxLimit;
+
+        private Duration latencyThreshold;
+
+        private double backoffRatio = 0.9;
+
+        public Budget() {
+        }
+
+        Budget(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.latencyThreshold = latencyThreshold;
+        }
+    }
+}
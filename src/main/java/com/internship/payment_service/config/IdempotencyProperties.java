@@ -0,0 +1,20 @@
+package com.internship.payment_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    // when false the filter is never warmed and every eventId goes to Mongo, as before
+    private boolean enabled = true;
+
+    private long expectedInsertions = 1_000_000;
+
+    private double falsePositiveRate = 0.01;
+
+    private int recentCapacity = 10_000;
+}
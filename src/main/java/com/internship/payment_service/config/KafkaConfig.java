@@ -1,28 +1,42 @@
 package com.internship.payment_service.config;
 
+import com.internship.payment_service.kafka.codec.NegotiatingDeserializer;
+import com.internship.payment_service.kafka.codec.NegotiatingSerializer;
+import com.internship.payment_service.kafka.codec.OrderEventCodec;
+import com.internship.payment_service.kafka.codec.OrderEventJsonDeserializer;
+import com.internship.payment_service.kafka.codec.PaymentEventCodec;
 import com.internship.payment_service.kafka.dto.OrderEvent;
 import com.internship.payment_service.kafka.dto.PaymentEvent;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
+@Slf4j
 @Configuration
 @EnableKafka
 @RequiredArgsConstructor
@@ -30,6 +44,8 @@ public class KafkaConfig {
 
     private final KafkaProperties springKafkaProps;
     private final KafkaTopicsProperties topicsProps;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
 
     @Bean
     public ConsumerFactory<String, OrderEvent> orderEventConsumerFactory() {
@@ -40,14 +56,25 @@ public class KafkaConfig {
         props.put(ConsumerConfig.GROUP_ID_CONFIG, topicsProps.getConsumerGroup());
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, springKafkaProps.getConsumer().getAutoOffsetReset()); // earliest
 
-        JsonDeserializer<OrderEvent> valueDeserializer = new JsonDeserializer<>(OrderEvent.class, false);
-        valueDeserializer.addTrustedPackages("*");
+        if (isBatchListener()) {
+            KafkaTopicsProperties.Batch batch = topicsProps.getBatch();
+            props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+            props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batch.getMaxSize());
+            props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, batch.getLingerMs());
+            props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, batch.getMinBytes());
+        }
+        if (isKeyOrderedListener()) {
+            props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        }
 
-        return new DefaultKafkaConsumerFactory<>(
+        DefaultKafkaConsumerFactory<String, OrderEvent> factory = new DefaultKafkaConsumerFactory<>(
                 props,
                 new StringDeserializer(),
-                valueDeserializer
+                new NegotiatingDeserializer<>(new OrderEventCodec(), new OrderEventJsonDeserializer())
         );
+        // the factories are ours, so Boot's Kafka client metrics (incl. records-lag per partition) must be bound here
+        factory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
@@ -56,6 +83,35 @@ public class KafkaConfig {
         ConcurrentKafkaListenerContainerFactory<String, OrderEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(orderEventConsumerFactory());
+
+        int concurrency = topicsProps.getConcurrency();
+        int partitions = topicsProps.getTopics().getOrders().getPartitions();
+        if (concurrency > partitions) {
+            log.warn("app.kafka.concurrency={} exceeds the {} partitions of {}, the extra consumers will stay idle",
+                    concurrency, partitions, topicsProps.getOrdersTopic());
+        }
+        factory.setConcurrency(concurrency);
+
+        if (isBatchListener()) {
+            factory.setBatchListener(true);
+            // offsets of the whole poll are committed only after the listener returned, i.e. after the bulk write
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        }
+        if (isKeyOrderedListener()) {
+            // workers ack out of order; the container commits only up to the lowest unacked offset of each partition
+            // and pauses the consumer until the previous poll is fully acked. Acks from workers are only seen between
+            // polls, so a paused poll must return quickly or every batch waits out the 100ms default.
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+            factory.getContainerProperties().setAsyncAcks(true);
+            factory.getContainerProperties().setPollTimeoutWhilePaused(Duration.ofMillis(5));
+        }
+
+        // spring.threads.virtual.enabled only reaches Boot's own listener factory, so apply it to ours as well
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor listenerExecutor = new SimpleAsyncTaskExecutor("order-events-listener-");
+            listenerExecutor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(listenerExecutor);
+        }
         return factory;
     }
 
@@ -63,14 +119,40 @@ public class KafkaConfig {
     public ProducerFactory<String, PaymentEvent> paymentEventProducerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, springKafkaProps.getBootstrapServers());
-        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.putAll(producerTuning(topicsProps.getProducer()));
 
-        return new DefaultKafkaProducerFactory<>(props);
+        DefaultKafkaProducerFactory<String, PaymentEvent> factory = new DefaultKafkaProducerFactory<>(props,
+                new StringSerializer(),
+                new NegotiatingSerializer<>(topicsProps.getWireFormat(), new PaymentEventCodec(), new JsonSerializer<>()));
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
     }
 
     @Bean
     public KafkaTemplate<String, PaymentEvent> paymentEventKafkaTemplate() {
         return new KafkaTemplate<>(paymentEventProducerFactory());
     }
+
+    public static Map<String, Object> producerTuning(KafkaTopicsProperties.Producer producer) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.ACKS_CONFIG, producer.getAcks());
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, producer.isIdempotence());
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, producer.getMaxInFlightRequestsPerConnection());
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, producer.getBatchSizeBytes());
+        props.put(ProducerConfig.LINGER_MS_CONFIG, producer.getLingerMs());
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, producer.getCompressionType());
+        props.put(ProducerConfig.BUFFER_MEMORY_CONFIG, producer.getBufferMemoryBytes());
+        props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, producer.getRequestTimeoutMs());
+        props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, producer.getDeliveryTimeoutMs());
+        props.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, producer.getMaxBlockMs());
+        return props;
+    }
+
+    private boolean isBatchListener() {
+        return topicsProps.getListenerMode() == KafkaTopicsProperties.ListenerMode.BATCH;
+    }
+
+    private boolean isKeyOrderedListener() {
+        return topicsProps.getListenerMode() == KafkaTopicsProperties.ListenerMode.KEY_ORDERED;
+    }
 }
@@ -1,11 +1,19 @@
 package com.internship.payment_service.config;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.KafkaAdmin;
 
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
 @Configuration
 @RequiredArgsConstructor
 public class KafkaTopicsConfig {
@@ -13,10 +21,69 @@ public class KafkaTopicsConfig {
     private final KafkaTopicsProperties topics;
 
     @Bean
-    public KafkaAdmin.NewTopics appTopics() {
-        return new KafkaAdmin.NewTopics(
-                TopicBuilder.name(topics.getOrdersTopic()).partitions(1).replicas(1).build(),
-                TopicBuilder.name(topics.getPaymentsTopic()).partitions(1).replicas(1).build()
-        );
+    public KafkaAdmin.NewTopics appTopics(KafkaAdmin kafkaAdmin) {
+        return new KafkaAdmin.NewTopics(newTopics(kafkaAdmin).toArray(NewTopic[]::new));
+    }
+
+    List<NewTopic> newTopics(KafkaAdmin kafkaAdmin) {
+        List<NewTopic> newTopics = new ArrayList<>(2);
+        addTopic(newTopics, kafkaAdmin, topics.getOrdersTopic(), topics.getTopics().getOrders());
+        addTopic(newTopics, kafkaAdmin, topics.getPaymentsTopic(), topics.getTopics().getPayments());
+        return newTopics;
+    }
+
+    // KafkaAdmin creates missing topics and adds partitions to existing ones that have fewer; it never shrinks them.
+    // Adding partitions remaps keys, so records of one orderId produced around the change may be read out of order;
+    // an existing topic therefore only grows with app.kafka.topics.allow-partition-increase.
+    private void addTopic(List<NewTopic> out, KafkaAdmin kafkaAdmin, String name, KafkaTopicsProperties.Topic topic) {
+        if (topic.getPartitions() < 1 || topic.getReplicas() < 1) {
+            throw new IllegalArgumentException("Topic " + name + " needs at least one partition and one replica");
+        }
+
+        int partitions = topic.getPartitions();
+        if (partitions == 1) {
+            // nothing an existing topic could grow to, so spare the broker round trip
+            out.add(TopicBuilder.name(name).partitions(1).replicas(topic.getReplicas()).build());
+            return;
+        }
+
+        Integer current;
+        try {
+            current = currentPartitions(kafkaAdmin, name);
+        } catch (RuntimeException ex) {
+            if (!topics.getTopics().isAllowPartitionIncrease()) {
+                // without the current count KafkaAdmin could grow the topic, so leave it alone this time
+                log.warn("Topic {} could not be described, it is neither created nor modified: {}", name, ex.getMessage());
+                return;
+            }
+            current = null;
+        }
+
+        if (current != null && partitions > current) {
+            if (topics.getTopics().isAllowPartitionIncrease()) {
+                log.warn("Increasing partitions of topic {} from {} to {}; orderIds move to other partitions, so "
+                        + "their records produced around the change may be consumed out of order", name, current, partitions);
+            } else {
+                log.warn("Topic {} has {} partitions, {} configured; keeping {} until "
+                        + "app.kafka.topics.allow-partition-increase is set", name, current, partitions, current);
+                partitions = current;
+            }
+        }
+        out.add(TopicBuilder.name(name).partitions(partitions).replicas(topic.getReplicas()).build());
+    }
+
+    // null for a topic that does not exist yet
+    private static Integer currentPartitions(KafkaAdmin kafkaAdmin, String name) {
+        try {
+            TopicDescription description = kafkaAdmin.describeTopics(name).get(name);
+            return description == null ? null : description.partitions().size();
+        } catch (RuntimeException ex) {
+            for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+                if (cause instanceof UnknownTopicOrPartitionException) {
+                    return null;
+                }
+            }
+            throw ex;
+        }
     }
 }
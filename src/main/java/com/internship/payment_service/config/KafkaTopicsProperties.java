@@ -1,5 +1,6 @@
 package com.internship.payment_service.config;
 
+import com.internship.payment_service.kafka.codec.WireFormat;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -14,4 +15,108 @@ public class KafkaTopicsProperties {
     private String paymentsTopic;
 
     private String consumerGroup;
+
+    private ListenerMode listenerMode = ListenerMode.RECORD;
+
+    // consumer threads per instance for the orders topic; threads beyond its partition count stay idle
+    private int concurrency = 1;
+
+    private Topics topics = new Topics();
+
+    // format this service produces; consumers read both, so switch to BINARY once every consumer is upgraded
+    private WireFormat wireFormat = WireFormat.JSON;
+
+    private Batch batch = new Batch();
+
+    private KeyOrdered keyOrdered = new KeyOrdered();
+
+    private Producer producer = new Producer();
+
+    public enum ListenerMode {
+        RECORD,
+        BATCH,
+        KEY_ORDERED
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+
+        private int maxSize = 500;
+
+        // broker-side fetch.max.wait.ms: only waited out while less than minBytes is available
+        private int lingerMs = 100;
+
+        // fetch.min.bytes, roughly one full batch of JSON OrderEvents (~130 bytes each); at 1 the broker answers as
+        // soon as a single record arrives and lingerMs never applies
+        private int minBytes = 64 * 1024;
+    }
+
+    // key-ordered mode: records of one poll are spread over single-thread workers by orderId hash
+    @Getter
+    @Setter
+    public static class KeyOrdered {
+
+        // 0 means one worker per available processor
+        private int workers = 0;
+
+        // a record still failing after this many attempts is logged and skipped, as the default error handler does
+        private int maxAttempts = 10;
+
+        private long retryBackoffMs = 100;
+    }
+
+    @Getter
+    @Setter
+    public static class Topics {
+
+        // when false a topic that already exists keeps its partition count even if more are configured
+        private boolean allowPartitionIncrease = false;
+
+        private Topic orders = new Topic();
+
+        private Topic payments = new Topic();
+    }
+
+    // partitions can only grow: a larger value is applied to an existing topic at startup only with
+    // allowPartitionIncrease, a smaller one is ignored
+    @Getter
+    @Setter
+    public static class Topic {
+
+        private int partitions = 1;
+
+        private short replicas = 1;
+    }
+
+    // payments-topic producer; the defaults trade a few ms of linger for large compressed batches
+    @Getter
+    @Setter
+    public static class Producer {
+
+        private String acks = "all";
+
+        private boolean idempotence = true;
+
+        // at most 5 keeps per-partition ordering with the idempotent producer
+        private int maxInFlightRequestsPerConnection = 5;
+
+        private int batchSizeBytes = 64 * 1024;
+
+        private int lingerMs = 10;
+
+        // none, gzip, snappy, lz4 or zstd
+        private String compressionType = "lz4";
+
+        private long bufferMemoryBytes = 64L * 1024 * 1024;
+
+        // how long a record can stay in the producer: send() blocks at most maxBlockMs for metadata or buffer space,
+        // then the record is acked or failed within deliveryTimeoutMs, which must be >= lingerMs + requestTimeoutMs.
+        // PaymentOutboxRelay requires app.outbox.send-timeout plus both to fit in its lease
+        private int requestTimeoutMs = 2000;
+
+        private int deliveryTimeoutMs = 3000;
+
+        private int maxBlockMs = 1000;
+    }
 }
@@ -0,0 +1,28 @@
+package com.internship.payment_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    private boolean relayEnabled = true;
+
+    private int batchSize = 500;
+
+    // sleep between polls when the outbox was empty or the lease is held by another instance
+    private Duration pollInterval = Duration.ofMillis(200);
+
+    // only the lease holder relays; another instance takes over once it expired
+    private Duration lease = Duration.ofSeconds(10);
+
+    // how long a round keeps sending and waiting for acks. A batch is sent under the lease taken at the start of the
+    // round, so sendTimeout plus the producer's max-block-ms and delivery-timeout-ms, after which a record sent last
+    // is acked or failed, must stay below lease
+    private Duration sendTimeout = Duration.ofSeconds(5);
+}
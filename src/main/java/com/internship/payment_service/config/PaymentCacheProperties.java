@@ -0,0 +1,22 @@
+package com.internship.payment_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.payments.cache")
+public class PaymentCacheProperties {
+
+    // when false getByOrderId/getByUserId read Mongo on every call, as before
+    private boolean enabled = true;
+
+    // writes on this instance invalidate precisely; the ttl bounds how long a write made by another instance goes unseen
+    private Duration ttl = Duration.ofSeconds(5);
+
+    // per cache, counted in payments rather than keys, so a few users with long histories cannot crowd out the rest
+    private long maxPayments = 100_000;
+}
@@ -0,0 +1,72 @@
+package com.internship.payment_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "random-api")
+public class RandomApiProperties {
+
+    private Mode mode = Mode.BLOCKING;
+
+    private String baseUrl;
+
+    private String path = "/api/v1.0/random";
+
+    private int min = 1;
+
+    private int max = 100;
+
+    private int count = 1;
+
+    private long timeoutMs = 2000;
+
+    private Resilient resilient = new Resilient();
+
+    public enum Mode {
+        BLOCKING,
+        RESILIENT
+    }
+
+    @Getter
+    @Setter
+    public static class Resilient {
+
+        private int maxConnections = 50;
+
+        private int pendingAcquireMaxCount = 500;
+
+        private long pendingAcquireTimeoutMs = 500;
+
+        private int connectTimeoutMs = 500;
+
+        private long maxIdleTimeMs = 30_000;
+
+        private int latencyWindow = 1000;
+
+        private int minSamples = 50;
+
+        private double timeoutMultiplier = 3.0;
+
+        private long minTimeoutMs = 100;
+
+        private boolean hedgeEnabled = true;
+
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+
+        private int windowSize = 50;
+
+        private int minimumCalls = 20;
+
+        private int failureRateThreshold = 50;
+
+        private long openDurationMs = 5000;
+    }
+}
@@ -0,0 +1,43 @@
+package com.internship.payment_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.rollups")
+public class RollupProperties {
+
+    // when false nothing is written to payment_rollups and total_sum always scans payments
+    private boolean enabled = true;
+
+    // delay between the first start with rollups and the point from which writes are counted, so instances
+    // of the previous version can drain; the backfill waits the same time again for in-flight inserts
+    private Duration grace = Duration.ofMinutes(2);
+
+    private boolean backfillOnStartup = true;
+
+    // how often buckets and user summaries marked dirty by a failed increment are looked for and recomputed
+    private Duration repairInterval = Duration.ofMinutes(1);
+
+    private InMemory inMemory = new InMemory();
+
+    @Getter
+    @Setter
+    public static class InMemory {
+
+        // the index only sees payments created by this instance after startup, so it suits deployments where
+        // a single instance takes the writes
+        private boolean enabled = false;
+
+        private Duration window = Duration.ofDays(1);
+
+        private Duration slot = Duration.ofSeconds(1);
+
+        // amounts are held as minor units; an amount with more fraction digits disables the index
+        private int scale = 2;
+    }
+}
@@ -1,8 +1,15 @@
 package com.internship.payment_service.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
@@ -11,4 +18,25 @@ public class WebClientConfig {
     public WebClient.Builder webClientBuilder() {
         return WebClient.builder();
     }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "random-api", name = "mode", havingValue = "resilient")
+    public WebClient randomApiWebClient(WebClient.Builder webClientBuilder, RandomApiProperties props) {
+        RandomApiProperties.Resilient resilient = props.getResilient();
+
+        ConnectionProvider provider = ConnectionProvider.builder("random-api")
+                .maxConnections(resilient.getMaxConnections())
+                .pendingAcquireMaxCount(resilient.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(Duration.ofMillis(resilient.getPendingAcquireTimeoutMs()))
+                .maxIdleTime(Duration.ofMillis(resilient.getMaxIdleTimeMs()))
+                .build();
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, resilient.getConnectTimeoutMs());
+
+        return webClientBuilder.clone()
+                .baseUrl(props.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
 }
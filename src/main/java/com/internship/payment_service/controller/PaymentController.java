@@ -1,27 +1,42 @@
 package com.internship.payment_service.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.internship.payment_service.dto.PaymentPageResponse;
 import com.internship.payment_service.dto.PaymentRequest;
 import com.internship.payment_service.dto.PaymentResponse;
 import com.internship.payment_service.dto.PaymentTotalSumResponse;
+import com.internship.payment_service.dto.UserPaymentSummaryResponse;
 import com.internship.payment_service.entity.PaymentStatus;
 import com.internship.payment_service.service.PaymentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/v1/payments")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PaymentController {
 
+    private static final int NDJSON_FLUSH_EVERY = 100;
+
     private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<PaymentResponse> create(@Valid @RequestBody PaymentRequest request) {
@@ -39,11 +54,52 @@ public class PaymentController {
         return ResponseEntity.ok(paymentService.getByUserId(userId));
     }
 
+    @GetMapping("/user/{userId}/summary")
+    public ResponseEntity<UserPaymentSummaryResponse> userSummary(@PathVariable Long userId) {
+        return ResponseEntity.ok(paymentService.getUserSummary(userId));
+    }
+
     @GetMapping("/statuses")
     public ResponseEntity<List<PaymentResponse>> byStatuses(@RequestParam Set<PaymentStatus> statuses) {
         return ResponseEntity.ok(paymentService.getByStatuses(statuses));
     }
 
+    @GetMapping(value = "/order/{orderId}", params = "limit")
+    public ResponseEntity<PaymentPageResponse> pageByOrder(@PathVariable Long orderId,
+                                                           @RequestParam int limit,
+                                                           @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(paymentService.getPageByOrderId(orderId, cursor, limit));
+    }
+
+    @GetMapping(value = "/user/{userId}", params = "limit")
+    public ResponseEntity<PaymentPageResponse> pageByUser(@PathVariable Long userId,
+                                                          @RequestParam int limit,
+                                                          @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(paymentService.getPageByUserId(userId, cursor, limit));
+    }
+
+    @GetMapping(value = "/statuses", params = "limit")
+    public ResponseEntity<PaymentPageResponse> pageByStatuses(@RequestParam Set<PaymentStatus> statuses,
+                                                              @RequestParam int limit,
+                                                              @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(paymentService.getPageByStatuses(statuses, cursor, limit));
+    }
+
+    @GetMapping(value = "/order/{orderId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamByOrder(@PathVariable Long orderId) {
+        return ndjson(() -> paymentService.streamByOrderId(orderId));
+    }
+
+    @GetMapping(value = "/user/{userId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamByUser(@PathVariable Long userId) {
+        return ndjson(() -> paymentService.streamByUserId(userId));
+    }
+
+    @GetMapping(value = "/statuses", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamByStatuses(@RequestParam Set<PaymentStatus> statuses) {
+        return ndjson(() -> paymentService.streamByStatuses(statuses));
+    }
+
     @GetMapping("/total_sum")
     public ResponseEntity<PaymentTotalSumResponse> total(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
@@ -51,4 +107,28 @@ public class PaymentController {
     ) {
         return ResponseEntity.ok(paymentService.getTotalBetween(from, to));
     }
+
+    // the cursor is opened on the async thread that writes the body and closed when it finishes or the client goes away
+    private ResponseEntity<StreamingResponseBody> ndjson(Supplier<Stream<PaymentResponse>> source) {
+        ObjectWriter writer = objectMapper.writerFor(PaymentResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (Stream<PaymentResponse> payments = source.get();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                int written = 0;
+                for (PaymentResponse payment : (Iterable<PaymentResponse>) payments::iterator) {
+                    writer.writeValue(generator, payment);
+                    generator.writeRaw('\n');
+                    if (++written == 1 || written % NDJSON_FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 }
@@ -0,0 +1,131 @@
+package com.internship.payment_service.diagnostics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.locks.ReentrantLock;
+
+// GET /actuator/jfr shows the recording, POST starts one (settings: default or profile), DELETE stops it and dumps it
+// to app.jfr.directory. The payment events are enabled in both settings and cost nothing while no recording runs.
+@Slf4j
+@Component
+@Endpoint(id = "jfr")
+public class FlightRecordingEndpoint {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final Path directory;
+    private final String defaultSettings;
+    private final Duration defaultMaxAge;
+
+    // not synchronized: a dump writes to disk and would pin a virtual thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private Recording recording;
+
+    public FlightRecordingEndpoint(@Value("${app.jfr.directory:${java.io.tmpdir}}") String directory,
+                                   @Value("${app.jfr.settings:default}") String defaultSettings,
+                                   @Value("${app.jfr.max-age-minutes:30}") long defaultMaxAgeMinutes) {
+        this.directory = Path.of(directory);
+        this.defaultSettings = defaultSettings;
+        this.defaultMaxAge = Duration.ofMinutes(defaultMaxAgeMinutes);
+    }
+
+    @ReadOperation
+    public RecordingStatus status() {
+        lock.lock();
+        try {
+            return RecordingStatus.of(recording);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // starting while a recording runs leaves it as it is
+    @WriteOperation
+    public RecordingStatus start(@Nullable String settings, @Nullable Long maxAgeMinutes) {
+        lock.lock();
+        try {
+            if (recording == null) {
+                String settingsName = settings != null ? settings : defaultSettings;
+                Recording started = new Recording(configuration(settingsName));
+                started.setName("payment-service");
+                started.setToDisk(true);
+                started.setMaxAge(maxAgeMinutes != null ? Duration.ofMinutes(maxAgeMinutes) : defaultMaxAge);
+                started.start();
+                recording = started;
+                log.info("JFR recording started, settings={}, maxAge={}", settingsName, started.getMaxAge());
+            }
+            return RecordingStatus.of(recording);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // null, i.e. 404, when nothing is recording
+    @DeleteOperation
+    public RecordingDump stop() {
+        lock.lock();
+        try {
+            if (recording == null) {
+                return null;
+            }
+            Recording stopped = recording;
+            recording = null;
+            try {
+                stopped.stop();
+                Files.createDirectories(directory);
+                Path file = directory.resolve("payment-service-" + FILE_TIMESTAMP.format(Instant.now()) + ".jfr");
+                stopped.dump(file);
+                log.info("JFR recording dumped to {}", file);
+                return new RecordingDump(file.toAbsolutePath().toString(), Files.size(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to dump the JFR recording", e);
+            } finally {
+                stopped.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Configuration configuration(String name) {
+        try {
+            return Configuration.getConfiguration(name);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown JFR settings '" + name + "', use default or profile", e);
+        }
+    }
+
+    public record RecordingStatus(boolean recording, String state, Instant startTime, Duration maxAge, long sizeBytes) {
+
+        static RecordingStatus of(Recording recording) {
+            if (recording == null || recording.getState() != RecordingState.RUNNING) {
+                return new RecordingStatus(false, null, null, null, 0);
+            }
+            return new RecordingStatus(true, recording.getState().name(), recording.getStartTime(),
+                    recording.getMaxAge(), recording.getSize());
+        }
+    }
+
+    public record RecordingDump(String file, long sizeBytes) {
+    }
+}
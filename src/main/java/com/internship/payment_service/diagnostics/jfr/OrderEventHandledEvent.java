@@ -0,0 +1,26 @@
+package com.internship.payment_service.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.internship.payment.OrderEventHandled")
+@Label("OrderEvent Handled")
+@Category({"Payment Service", "Kafka"})
+@Description("One OrderEvent processed by the record listener")
+@StackTrace(false)
+public class OrderEventHandledEvent extends TimedEvent {
+
+    @Label("Order Id")
+    long orderId;
+
+    @Label("Event Id")
+    String eventId;
+
+    public OrderEventHandledEvent(long orderId, String eventId) {
+        this.orderId = orderId;
+        this.eventId = eventId;
+    }
+}
@@ -0,0 +1,26 @@
+package com.internship.payment_service.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.internship.payment.Create")
+@Label("Payment Create")
+@Category({"Payment Service", "Payments"})
+@Description("PaymentService.create end to end")
+@StackTrace(false)
+public class PaymentCreateEvent extends TimedEvent {
+
+    @Label("Order Id")
+    long orderId;
+
+    @Label("Event Id")
+    String eventId;
+
+    public PaymentCreateEvent(long orderId, String eventId) {
+        this.orderId = orderId;
+        this.eventId = eventId;
+    }
+}
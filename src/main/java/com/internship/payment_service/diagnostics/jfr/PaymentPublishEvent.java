@@ -0,0 +1,22 @@
+package com.internship.payment_service.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.internship.payment.Publish")
+@Label("PaymentEvent Publish")
+@Category({"Payment Service", "Kafka"})
+@Description("From send() of a PaymentEvent to the broker acknowledgement")
+@StackTrace(false)
+public class PaymentPublishEvent extends TimedEvent {
+
+    @Label("Order Id")
+    long orderId;
+
+    public PaymentPublishEvent(long orderId) {
+        this.orderId = orderId;
+    }
+}
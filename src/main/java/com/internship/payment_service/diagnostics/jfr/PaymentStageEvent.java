@@ -0,0 +1,26 @@
+package com.internship.payment_service.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.internship.payment.Stage")
+@Label("Payment Stage")
+@Category({"Payment Service", "Payments"})
+@Description("One stage of PaymentService.create")
+@StackTrace(false)
+public class PaymentStageEvent extends TimedEvent {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Order Id")
+    long orderId;
+
+    public PaymentStageEvent(String stage, long orderId) {
+        this.stage = stage;
+        this.orderId = orderId;
+    }
+}
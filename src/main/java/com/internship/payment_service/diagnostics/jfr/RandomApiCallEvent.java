@@ -0,0 +1,22 @@
+package com.internship.payment_service.diagnostics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.internship.payment.RandomApiCall")
+@Label("Random API Call")
+@Category({"Payment Service", "Random API"})
+@Description("One blocking call to the random number API")
+@StackTrace(false)
+public class RandomApiCallEvent extends TimedEvent {
+
+    @Label("Numbers Requested")
+    int count;
+
+    public RandomApiCallEvent(int count) {
+        this.count = count;
+    }
+}
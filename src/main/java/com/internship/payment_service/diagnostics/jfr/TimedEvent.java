@@ -0,0 +1,44 @@
+package com.internship.payment_service.diagnostics.jfr;
+
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+import java.util.concurrent.TimeUnit;
+
+// Base of the service's JFR events. Most spans also feed a Micrometer timer, so the event keeps the nanoTime of its
+// begin() for that timer instead of timing the work twice; transient fields are not written to the recording.
+// Without a running recording shouldCommit() is false and the event never leaves the stack.
+public abstract class TimedEvent extends Event {
+
+    @Label("Outcome")
+    String outcome;
+
+    private transient Timer timer;
+    private transient long startNanos;
+
+    public void start() {
+        start(null);
+    }
+
+    public void start(Timer timer) {
+        this.timer = timer;
+        this.startNanos = System.nanoTime();
+        begin();
+    }
+
+    public void finish(String outcome) {
+        finish(timer, outcome);
+    }
+
+    public void finish(Timer timer, String outcome) {
+        if (timer != null) {
+            timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.internship.payment_service.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+// position of the last payment on a page, in the (timestamp desc, _id desc) order every page is sorted by
+public record PageCursor(Instant timestamp, String id) {
+
+    public String encode() {
+        String raw = timestamp.toEpochMilli() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            if (sep <= 0 || sep == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new PageCursor(Instant.ofEpochMilli(Long.parseLong(raw.substring(0, sep))), raw.substring(sep + 1));
+        } catch (IllegalArgumentException ex) {
+            // NumberFormatException and Base64 decoding errors included
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.internship.payment_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentPageResponse {
+
+    private List<PaymentResponse> items;
+
+    // null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,36 @@
+package com.internship.payment_service.dto;
+
+import com.internship.payment_service.entity.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserPaymentSummaryResponse {
+
+    private Long userId;
+    private long count;
+    private Map<PaymentStatus, StatusSummary> byStatus;
+    private Instant firstPaymentAt;
+    private Instant lastPaymentAt;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatusSummary {
+
+        private long count;
+        private BigDecimal total;
+    }
+}
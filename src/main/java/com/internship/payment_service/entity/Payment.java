@@ -39,4 +39,8 @@ public class Payment {
 
     @Field(name = "payment_amount", targetType = FieldType.DECIMAL128)
     private BigDecimal paymentAmount;
+
+    // outbox marker: true until the PaymentEvent for this payment was acknowledged by Kafka, then removed
+    @Field("event_pending")
+    private Boolean eventPending;
 }
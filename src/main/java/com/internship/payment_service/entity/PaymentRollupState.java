@@ -0,0 +1,36 @@
+package com.internship.payment_service.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+
+// one document per rollup, shared by all instances: payments from writes_since on are counted by $inc,
+// older ones by the backfill, and reads use the rollup once backfilled_at is set
+@Document(collection = "payment_rollup_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentRollupState {
+
+    public static final String ID = "payments";
+
+    public static final String USER_SUMMARIES_ID = "user_summaries";
+
+    @Id
+    private String id;
+
+    @Field("writes_since")
+    private Instant writesSince;
+
+    @Field("backfilled_at")
+    private Instant backfilledAt;
+}
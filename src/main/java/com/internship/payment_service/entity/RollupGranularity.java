@@ -0,0 +1,35 @@
+package com.internship.payment_service.entity;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+// bucket sizes of payment_rollups; all buckets are aligned to UTC
+public enum RollupGranularity {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    RollupGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public Instant floor(Instant instant) {
+        return instant.truncatedTo(unit);
+    }
+
+    public Instant ceil(Instant instant) {
+        Instant floor = floor(instant);
+        return floor.equals(instant) ? floor : floor.plus(1, unit);
+    }
+
+    public Instant end(Instant bucketStart) {
+        return bucketStart.plus(1, unit);
+    }
+
+    // unit name understood by $dateTrunc
+    public String mongoUnit() {
+        return unit == ChronoUnit.MINUTES ? "minute" : unit == ChronoUnit.HOURS ? "hour" : "day";
+    }
+}
@@ -0,0 +1,58 @@
+package com.internship.payment_service.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+// one document per user: statuses is kept up to date by $inc on every write, backfill is set by the backfill job
+// for payments stored before the summaries existed; first_at and last_at take $min/$max from both. dirty counts
+// increments that may not have been applied, while it is set statuses is not read
+@Document(collection = "user_payment_summaries")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserPaymentSummary {
+
+    @Id
+    private Long userId;
+
+    private Map<PaymentStatus, StatusTotals> statuses;
+
+    private Map<PaymentStatus, StatusTotals> backfill;
+
+    @Field("first_at")
+    private Instant firstAt;
+
+    @Field("last_at")
+    private Instant lastAt;
+
+    private Long dirty;
+
+    public boolean isDirty() {
+        return dirty != null;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatusTotals {
+
+        private long count;
+
+        @Field(targetType = FieldType.DECIMAL128)
+        private BigDecimal total;
+    }
+}
@@ -0,0 +1,23 @@
+package com.internship.payment_service.exception;
+
+import java.time.Duration;
+
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(String budget, Duration retryAfter) {
+        super("Too many concurrent " + budget + " requests, retry later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    // thrown for every shed request while overloaded, so skip the stack walk
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -3,7 +3,9 @@ package com.internship.payment_service.exception;
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -14,6 +16,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
     private ApiError build(HttpStatus status, String msg, String path, List<String> errors) {
@@ -63,6 +66,15 @@ public class GlobalExceptionHandler {
                 .body(build(HttpStatus.BAD_GATEWAY, ex.getMessage(), req.getRequestURI()));
     }
 
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<ApiError> handleAdmissionRejected(AdmissionRejectedException ex, HttpServletRequest req) {
+        // Retry-After takes whole seconds; rounding down to 0 would invite an immediate retry storm
+        long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .body(build(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), req.getRequestURI()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleOther(Exception ex, HttpServletRequest req) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
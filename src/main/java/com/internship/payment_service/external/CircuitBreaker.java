@@ -0,0 +1,127 @@
+package com.internship.payment_service.external;
+
+import java.time.Clock;
+import java.util.concurrent.locks.ReentrantLock;
+
+// count-based breaker: opens when the failure rate over the last windowSize calls reaches the threshold,
+// lets a single trial call through after openDuration and closes again if it succeeds.
+// Guarded by a ReentrantLock rather than synchronized so contended callers do not pin virtual-thread carriers.
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final boolean[] outcomes;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openDurationMs;
+    private final Clock clock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private State state = State.CLOSED;
+    private int next;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, long openDurationMs, Clock clock) {
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDurationMs = openDurationMs;
+        this.clock = clock;
+    }
+
+    public boolean tryAcquirePermission() {
+        lock.lock();
+        try {
+            if (state == State.OPEN && clock.millis() - openedAt >= openDurationMs) {
+                state = State.HALF_OPEN;
+                trialInFlight = false;
+            }
+            return switch (state) {
+                case CLOSED -> true;
+                case OPEN -> false;
+                case HALF_OPEN -> {
+                    if (trialInFlight) {
+                        yield false;
+                    }
+                    trialInFlight = true;
+                    yield true;
+                }
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                reset(State.CLOSED);
+                return;
+            }
+            record(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            if (state == State.HALF_OPEN) {
+                open();
+                return;
+            }
+            record(true);
+            if (calls >= minimumCalls && failures * 100 >= failureRateThreshold * calls) {
+                open();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failed) {
+        if (calls == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        outcomes[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    private void open() {
+        reset(State.OPEN);
+        openedAt = clock.millis();
+    }
+
+    private void reset(State newState) {
+        state = newState;
+        next = 0;
+        calls = 0;
+        failures = 0;
+        trialInFlight = false;
+    }
+}
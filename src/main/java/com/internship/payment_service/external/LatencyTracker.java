@@ -0,0 +1,59 @@
+package com.internship.payment_service.external;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+// sliding window of the last N latencies; percentiles are recomputed every few samples, not on each read
+public class LatencyTracker {
+
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples;
+    private final int minSamples;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private int next;
+    private long recorded;
+
+    private volatile long p95Nanos = -1;
+    private volatile long p99Nanos = -1;
+
+    public LatencyTracker(int window, int minSamples) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Latency window must be positive");
+        }
+        this.samples = new long[window];
+        this.minSamples = Math.min(Math.max(1, minSamples), window);
+    }
+
+    public void record(long nanos) {
+        lock.lock();
+        try {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            recorded++;
+            if (recorded >= minSamples && (recorded % RECOMPUTE_EVERY == 0 || recorded == minSamples)) {
+                recompute();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // -1 until minSamples latencies have been recorded
+    public long p95Nanos() {
+        return p95Nanos;
+    }
+
+    public long p99Nanos() {
+        return p99Nanos;
+    }
+
+    private void recompute() {
+        int size = (int) Math.min(recorded, samples.length);
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        p95Nanos = sorted[Math.min(size - 1, (int) Math.ceil(size * 0.95) - 1)];
+        p99Nanos = sorted[Math.min(size - 1, (int) Math.ceil(size * 0.99) - 1)];
+    }
+}
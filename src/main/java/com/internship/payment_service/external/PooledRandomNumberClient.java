@@ -0,0 +1,170 @@
+package com.internship.payment_service.external;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "random-api.pool", name = "enabled", havingValue = "true")
+public class PooledRandomNumberClient implements RandomNumberClient {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final RandomNumberClient delegate;
+    private final int[] buffer;
+    private final int mask;
+    private final int blockSize;
+    private final int lowWaterMark;
+
+    // readers claim slots with a CAS on head; the single refill thread publishes slots by advancing tail
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final ExecutorService refiller = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "random-pool-refill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Timer refillTimer;
+    private final Counter exhaustedCounter;
+
+    public PooledRandomNumberClient(@Qualifier("randomNumberHttpClient") RandomNumberClient delegate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${random-api.pool.capacity:4096}") int capacity,
+                                    @Value("${random-api.pool.block-size:500}") int blockSize,
+                                    @Value("${random-api.pool.low-water-mark:1024}") int lowWaterMark) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        if (blockSize <= 0 || blockSize > size) {
+            throw new IllegalArgumentException("random-api.pool.block-size must be in (0, " + size + "]");
+        }
+
+        this.delegate = delegate;
+        this.buffer = new int[size];
+        this.mask = size - 1;
+        this.blockSize = blockSize;
+        this.lowWaterMark = Math.min(lowWaterMark, size - blockSize);
+
+        Gauge.builder("random.pool.depth", this, PooledRandomNumberClient::depth)
+                .description("Random numbers currently buffered")
+                .register(meterRegistry);
+        this.refillTimer = Timer.builder("random.pool.refill")
+                .description("Latency of fetching one block from the random API")
+                .register(meterRegistry);
+        this.exhaustedCounter = Counter.builder("random.pool.exhausted")
+                .description("Calls that found the pool empty and went to the random API directly")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void warmUp() {
+        triggerRefill();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refiller.shutdownNow();
+    }
+
+    @Override
+    public int get() {
+        long value = poll();
+        if (value != EMPTY) {
+            if (depth() <= lowWaterMark) {
+                triggerRefill();
+            }
+            return (int) value;
+        }
+
+        exhaustedCounter.increment();
+        triggerRefill();
+        return delegate.get();
+    }
+
+    @Override
+    public Mono<Integer> getAsync() {
+        long value = poll();
+        if (value != EMPTY) {
+            if (depth() <= lowWaterMark) {
+                triggerRefill();
+            }
+            return Mono.just((int) value);
+        }
+
+        exhaustedCounter.increment();
+        triggerRefill();
+        return delegate.getAsync();
+    }
+
+    public int depth() {
+        return (int) (tail.get() - head.get());
+    }
+
+    private long poll() {
+        while (true) {
+            long h = head.get();
+            if (h >= tail.get()) {
+                return EMPTY;
+            }
+            int value = buffer[(int) (h & mask)];
+            if (head.compareAndSet(h, h + 1)) {
+                return value;
+            }
+        }
+    }
+
+    private void triggerRefill() {
+        if (refilling.compareAndSet(false, true)) {
+            try {
+                refiller.execute(this::refill);
+            } catch (RuntimeException ex) {
+                refilling.set(false);
+                log.warn("Random pool refill was not scheduled: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private void refill() {
+        try {
+            while (buffer.length - depth() >= blockSize) {
+                long start = System.nanoTime();
+                int[] block = delegate.getBatch(blockSize);
+                refillTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                publish(block);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Random pool refill failed, depth={}: {}", depth(), ex.getMessage());
+        } finally {
+            refilling.set(false);
+        }
+    }
+
+    // only called from the refill thread, so tail has a single writer
+    private void publish(int[] block) {
+        long t = tail.get();
+        int free = buffer.length - (int) (t - head.get());
+        int n = Math.min(block.length, free);
+        for (int i = 0; i < n; i++) {
+            buffer[(int) ((t + i) & mask)] = block[i];
+        }
+        tail.set(t + n);
+    }
+}
@@ -1,6 +1,22 @@
 package com.internship.payment_service.external;
 
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
 public interface RandomNumberClient {
 
     int get();
+
+    default int[] getBatch(int count) {
+        int[] numbers = new int[count];
+        for (int i = 0; i < count; i++) {
+            numbers[i] = get();
+        }
+        return numbers;
+    }
+
+    default Mono<Integer> getAsync() {
+        return Mono.fromCallable(this::get)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
 }
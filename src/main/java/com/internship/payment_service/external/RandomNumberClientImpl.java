@@ -1,62 +1,114 @@
 package com.internship.payment_service.external;
 
+import com.internship.payment_service.config.RandomApiProperties;
+import com.internship.payment_service.diagnostics.jfr.RandomApiCallEvent;
 import com.internship.payment_service.exception.RandomApiUnavailableException;
-import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
-@Component
-@RequiredArgsConstructor
+@Component("randomNumberHttpClient")
+@ConditionalOnProperty(prefix = "random-api", name = "mode", havingValue = "blocking", matchIfMissing = true)
 public class RandomNumberClientImpl implements RandomNumberClient {
 
     private final WebClient.Builder webClientBuilder;
+    private final RandomApiProperties props;
+    private final Timer successTimer;
+    private final Timer errorTimer;
 
-    @Value("${random-api.path:/api/v1.0/random}")
-    private String path;
+    public RandomNumberClientImpl(WebClient.Builder webClientBuilder,
+                                  RandomApiProperties props,
+                                  MeterRegistry meterRegistry) {
+        this.webClientBuilder = webClientBuilder;
+        this.props = props;
+        this.successTimer = requestTimer(meterRegistry, "success");
+        this.errorTimer = requestTimer(meterRegistry, "error");
+    }
 
-    @Value("${random-api.min:1}")
-    private int min;
+    @Override
+    public int get() {
+        return fetch(props.getCount())[0];
+    }
 
-    @Value("${random-api.max:100}")
-    private int max;
+    @Override
+    public int[] getBatch(int batchSize) {
+        int[] numbers = fetch(batchSize);
+        if (numbers.length < batchSize) {
+            throw new RandomApiUnavailableException(
+                    "Random API returned " + numbers.length + " numbers instead of " + batchSize);
+        }
+        return numbers;
+    }
 
-    @Value("${random-api.count:1}")
-    private int count;
+    @Override
+    public Mono<Integer> getAsync() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request(props.getCount())
+                    .timeout(Duration.ofMillis(props.getTimeoutMs()))
+                    .map(numbers -> numbers[0])
+                    .doOnSuccess(number -> successTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnError(e -> errorTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .onErrorMap(e -> !(e instanceof RandomApiUnavailableException),
+                            e -> new RandomApiUnavailableException("Random API call failed: " + e.getMessage(), e));
+        });
+    }
 
-    @Value("${random-api.base-url}")
-    private String baseUrl;
+    private int[] fetch(int amount) {
+        RandomApiCallEvent event = new RandomApiCallEvent(amount);
+        event.start();
+        try {
+            int[] numbers = request(amount).block(Duration.ofMillis(props.getTimeoutMs()));
+            event.finish(successTimer, "success");
+            return numbers;
+        } catch (Exception e) {
+            event.finish(errorTimer, "error");
+            throw new RandomApiUnavailableException("Random API call failed: " + e.getMessage(), e);
+        }
+    }
 
-    @Value("${random-api.timeout-ms:2000}")
-    private long timeoutMs;
+    private static Timer requestTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("random.api.request")
+                .description("Random API calls from the blocking client, including timeouts")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 
-    @Override
-    public int get() {
-        try {
-            Integer[] arr = webClientBuilder
-                    .baseUrl(baseUrl)
-                    .build()
-                    .get()
-                    .uri(uriBuilder -> uriBuilder
-                            .path(path)
-                            .queryParam("min", min)
-                            .queryParam("max", max)
-                            .queryParam("count", count)
-                            .build())
-                    .retrieve()
-                    .bodyToMono(Integer[].class)
-                    .block(Duration.ofMillis(timeoutMs));
-
-            if (arr == null || arr.length == 0 || arr[0] == null) {
-                throw new RandomApiUnavailableException("Random API returned empty array");
-            }
+    private Mono<int[]> request(int amount) {
+        return webClientBuilder
+                .baseUrl(props.getBaseUrl())
+                .build()
+                .get()
+                .uri(uriBuilder -> uriBuilder
+                        .path(props.getPath())
+                        .queryParam("min", props.getMin())
+                        .queryParam("max", props.getMax())
+                        .queryParam("count", amount)
+                        .build())
+                .retrieve()
+                .bodyToMono(Integer[].class)
+                .switchIfEmpty(Mono.error(() -> new RandomApiUnavailableException("Random API returned empty array")))
+                .map(RandomNumberClientImpl::toInts);
+    }
 
-            return arr[0];
+    private static int[] toInts(Integer[] arr) {
+        if (arr.length == 0 || arr[0] == null) {
+            throw new RandomApiUnavailableException("Random API returned empty array");
+        }
 
-        } catch (Exception e) {
-            throw new RandomApiUnavailableException("Random API call failed: " + e.getMessage(), e);
+        int[] numbers = new int[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+            if (arr[i] == null) {
+                throw new RandomApiUnavailableException("Random API returned null element");
+            }
+            numbers[i] = arr[i];
         }
+        return numbers;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,166 @@
+package com.internship.payment_service.external;
+
+import com.internship.payment_service.config.RandomApiProperties;
+import com.internship.payment_service.exception.RandomApiUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+@Component("randomNumberHttpClient")
+@ConditionalOnProperty(prefix = "random-api", name = "mode", havingValue = "resilient")
+public class ResilientRandomNumberClient implements RandomNumberClient {
+
+    private final WebClient webClient;
+    private final RandomApiProperties props;
+    private final RandomApiProperties.Resilient resilient;
+    private final CircuitBreaker circuitBreaker;
+    private final LatencyTracker latency;
+
+    private final Counter hedgedCounter;
+    private final Counter rejectedCounter;
+
+    public ResilientRandomNumberClient(@Qualifier("randomApiWebClient") WebClient webClient,
+                                       RandomApiProperties props,
+                                       MeterRegistry meterRegistry) {
+        this.webClient = webClient;
+        this.props = props;
+        this.resilient = props.getResilient();
+
+        RandomApiProperties.CircuitBreaker cb = resilient.getCircuitBreaker();
+        this.circuitBreaker = new CircuitBreaker(cb.getWindowSize(), cb.getMinimumCalls(),
+                cb.getFailureRateThreshold(), cb.getOpenDurationMs(), Clock.systemUTC());
+        this.latency = new LatencyTracker(resilient.getLatencyWindow(), resilient.getMinSamples());
+
+        Gauge.builder("random.api.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("Random API circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+        Gauge.builder("random.api.timeout", this, client -> client.currentTimeout().toMillis())
+                .description("Current adaptive random API timeout in ms")
+                .register(meterRegistry);
+        this.hedgedCounter = Counter.builder("random.api.hedged")
+                .description("Random API calls that sent a hedged duplicate request")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("random.api.rejected")
+                .description("Random API calls rejected by the open circuit breaker")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int get() {
+        return fetch(props.getCount())[0];
+    }
+
+    @Override
+    public int[] getBatch(int count) {
+        int[] numbers = fetch(count);
+        if (numbers.length < count) {
+            throw new RandomApiUnavailableException(
+                    "Random API returned " + numbers.length + " numbers instead of " + count);
+        }
+        return numbers;
+    }
+
+    @Override
+    public Mono<Integer> getAsync() {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                rejectedCounter.increment();
+                return Mono.error(new RandomApiUnavailableException("Random API circuit breaker is open"));
+            }
+            return request(props.getCount())
+                    .map(numbers -> numbers[0])
+                    .doOnNext(number -> circuitBreaker.onSuccess())
+                    .switchIfEmpty(Mono.error(() -> new RandomApiUnavailableException("Random API returned empty array")))
+                    .doOnError(e -> circuitBreaker.onFailure())
+                    .onErrorMap(e -> !(e instanceof RandomApiUnavailableException),
+                            e -> new RandomApiUnavailableException("Random API call failed: " + e.getMessage(), e));
+        });
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.getState();
+    }
+
+    Duration currentTimeout() {
+        long p99 = latency.p99Nanos();
+        if (p99 < 0) {
+            return Duration.ofMillis(props.getTimeoutMs());
+        }
+        long derivedMs = (long) Math.ceil(p99 * resilient.getTimeoutMultiplier() / 1_000_000d);
+        return Duration.ofMillis(Math.max(resilient.getMinTimeoutMs(), Math.min(derivedMs, props.getTimeoutMs())));
+    }
+
+    private int[] fetch(int amount) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            rejectedCounter.increment();
+            throw new RandomApiUnavailableException("Random API circuit breaker is open");
+        }
+
+        try {
+            int[] numbers = request(amount).block();
+            if (numbers == null || numbers.length == 0) {
+                throw new RandomApiUnavailableException("Random API returned empty array");
+            }
+            circuitBreaker.onSuccess();
+            return numbers;
+        } catch (Exception e) {
+            circuitBreaker.onFailure();
+            throw new RandomApiUnavailableException("Random API call failed: " + e.getMessage(), e);
+        }
+    }
+
+    private Mono<int[]> request(int amount) {
+        Mono<int[]> primary = call(amount);
+        long p95 = latency.p95Nanos();
+
+        Mono<int[]> attempt = primary;
+        if (resilient.isHedgeEnabled() && p95 > 0) {
+            Mono<int[]> hedge = Mono.delay(Duration.ofNanos(p95))
+                    .doOnNext(tick -> hedgedCounter.increment())
+                    .then(call(amount));
+            attempt = Mono.firstWithValue(primary, hedge);
+        }
+        Duration timeout = currentTimeout();
+        // a timed-out call counts as a sample at the timeout, so the derived timeout can grow back when the API slows down
+        return attempt.timeout(timeout)
+                .doOnError(TimeoutException.class, ex -> latency.record(timeout.toNanos()));
+    }
+
+    private Mono<int[]> call(int amount) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return webClient.get()
+                    .uri(uriBuilder -> uriBuilder
+                            .path(props.getPath())
+                            .queryParam("min", props.getMin())
+                            .queryParam("max", props.getMax())
+                            .queryParam("count", amount)
+                            .build())
+                    .retrieve()
+                    .bodyToMono(Integer[].class)
+                    .filter(arr -> arr.length > 0)
+                    .map(ResilientRandomNumberClient::toInts)
+                    .doOnNext(numbers -> latency.record(System.nanoTime() - start));
+        });
+    }
+
+    private static int[] toInts(Integer[] arr) {
+        int[] numbers = new int[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+            if (arr[i] == null) {
+                throw new RandomApiUnavailableException("Random API returned null element");
+            }
+            numbers[i] = arr[i];
+        }
+        return numbers;
+    }
+}
@@ -0,0 +1,116 @@
+package com.internship.payment_service.idempotency;
+
+import com.internship.payment_service.config.IdempotencyProperties;
+import com.internship.payment_service.dto.PaymentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Sits in front of findByEventId. A Bloom-filter negative means the eventId was never stored, so the lookup can be
+// skipped; recently stored payments are answered from an LRU. Until warmUp() has loaded the stored event ids every
+// eventId is reported as possibly present, which degrades to the plain Mongo lookup.
+@Slf4j
+@Component
+public class IdempotencyFilter {
+
+    private final ScalableBloomFilter seen;
+    private final Map<String, PaymentResponse> recent;
+    private final ReentrantLock recentLock = new ReentrantLock();
+    private volatile boolean warmed;
+
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter falsePositiveCounter;
+
+    public IdempotencyFilter(IdempotencyProperties props, MeterRegistry meterRegistry) {
+        this.seen = new ScalableBloomFilter(props.getExpectedInsertions(), props.getFalsePositiveRate());
+        int recentCapacity = props.getRecentCapacity();
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PaymentResponse> eldest) {
+                return size() > recentCapacity;
+            }
+        };
+
+        this.hitCounter = lookupCounter(meterRegistry, "hit", "eventId answered from the recent-payments cache");
+        this.missCounter = lookupCounter(meterRegistry, "miss", "eventId known to be new, Mongo lookup skipped");
+        this.falsePositiveCounter = lookupCounter(meterRegistry, "false_positive",
+                "eventId reported as possibly seen but not found in Mongo");
+        Gauge.builder("idempotency.bloom.bits", seen, ScalableBloomFilter::bitSize)
+                .description("Bits allocated by the eventId Bloom filter")
+                .register(meterRegistry);
+    }
+
+    public PaymentResponse recent(String eventId) {
+        PaymentResponse response;
+        recentLock.lock();
+        try {
+            response = recent.get(eventId);
+        } finally {
+            recentLock.unlock();
+        }
+        if (response != null) {
+            hitCounter.increment();
+        }
+        return response;
+    }
+
+    public boolean mightContain(String eventId) {
+        if (!warmed || seen.mightContain(eventId)) {
+            return true;
+        }
+        missCounter.increment();
+        return false;
+    }
+
+    // mightContain said yes but Mongo had nothing
+    public void confirmAbsent(String eventId) {
+        if (warmed) {
+            falsePositiveCounter.increment();
+        }
+    }
+
+    public void remember(String eventId, PaymentResponse response) {
+        seen.put(eventId);
+        recentLock.lock();
+        try {
+            recent.put(eventId, response);
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    public void warmUp(Stream<String> storedEventIds) {
+        long start = System.nanoTime();
+        long loaded = 0;
+        try (storedEventIds) {
+            Iterator<String> eventIds = storedEventIds.iterator();
+            while (eventIds.hasNext()) {
+                seen.put(eventIds.next());
+                loaded++;
+            }
+        }
+        warmed = true;
+        log.info("Idempotency filter warmed with {} event ids in {} ms, {} stage(s), {} bits",
+                loaded, (System.nanoTime() - start) / 1_000_000, seen.stageCount(), seen.bitSize());
+    }
+
+    public boolean isWarmed() {
+        return warmed;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder("idempotency.lookup")
+                .tag("result", result)
+                .description(description)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,31 @@
+package com.internship.payment_service.idempotency;
+
+import com.internship.payment_service.repository.PaymentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// loads stored event ids off the startup path; until it finishes the filter sends every eventId to Mongo
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyFilterWarmUp {
+
+    private final IdempotencyFilter idempotencyFilter;
+    private final PaymentRepository repository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Thread.ofVirtual().name("idempotency-warm-up").start(() -> {
+            try {
+                idempotencyFilter.warmUp(repository.streamEventIds());
+            } catch (RuntimeException ex) {
+                log.warn("Idempotency filter warm-up failed, eventId lookups keep going to Mongo: {}", ex.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package com.internship.payment_service.idempotency;
+
+import com.internship.payment_service.dto.PaymentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Single-flight for create(): while a create for an eventId is running on this instance, further calls with the same
+// eventId (a Kafka redelivery racing a client retry) wait for it and share its response, or its exception, instead of
+// each drawing a random number only to lose the unique-index race. The entry is removed as soon as the first call
+// finishes either way, so later calls go through the IdempotencyFilter as usual.
+@Component
+public class InFlightCreates {
+
+    private final ConcurrentHashMap<String, CompletableFuture<PaymentResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalescedCounter;
+
+    public InFlightCreates(MeterRegistry meterRegistry) {
+        this.coalescedCounter = Counter.builder("idempotency.coalesced")
+                .description("create calls that shared the result of a concurrent create with the same eventId")
+                .register(meterRegistry);
+        Gauge.builder("idempotency.in_flight", inFlight, ConcurrentHashMap::size)
+                .description("eventIds with a create currently running")
+                .register(meterRegistry);
+    }
+
+    public PaymentResponse execute(String eventId, Supplier<PaymentResponse> create) {
+        CompletableFuture<PaymentResponse> mine = new CompletableFuture<>();
+        CompletableFuture<PaymentResponse> leader = inFlight.putIfAbsent(eventId, mine);
+        if (leader != null) {
+            coalescedCounter.increment();
+            return await(leader);
+        }
+
+        try {
+            PaymentResponse response = create.get();
+            mine.complete(response);
+            return response;
+        } catch (RuntimeException | Error ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(eventId, mine);
+        }
+    }
+
+    private static PaymentResponse await(CompletableFuture<PaymentResponse> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
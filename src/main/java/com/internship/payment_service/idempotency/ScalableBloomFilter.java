@@ -0,0 +1,148 @@
+package com.internship.payment_service.idempotency;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Scalable Bloom filter (Almeida et al.): when the newest stage reaches its capacity a stage twice as large with a
+// halved error rate is appended, so the compound false-positive rate stays below the configured one however many
+// keys arrive. Bits are set with CAS, lookups take no lock; only appending a stage is serialized.
+public class ScalableBloomFilter {
+
+    private static final int GROWTH = 2;
+    private static final double TIGHTENING = 0.5;
+
+    private final ReentrantLock growLock = new ReentrantLock();
+    private volatile Stage[] stages;
+
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveRate) {
+        if (initialCapacity <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("capacity must be positive and false positive rate in (0, 1)");
+        }
+        // stage i gets p * (1 - r) * r^i, which sums to at most p
+        this.stages = new Stage[]{new Stage(initialCapacity, falsePositiveRate * (1 - TIGHTENING))};
+    }
+
+    public boolean mightContain(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0xc4ceb9fe1a85ec53L);
+        for (Stage stage : stages) {
+            if (stage.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void put(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0xc4ceb9fe1a85ec53L);
+        Stage[] current = stages;
+        for (Stage stage : current) {
+            if (stage.mightContain(h1, h2)) {
+                return;
+            }
+        }
+
+        Stage last = current[current.length - 1];
+        if (last.count.get() >= last.capacity) {
+            last = grow(last);
+        }
+        last.put(h1, h2);
+        last.count.incrementAndGet();
+    }
+
+    public int stageCount() {
+        return stages.length;
+    }
+
+    public long bitSize() {
+        return Arrays.stream(stages).mapToLong(stage -> stage.bits).sum();
+    }
+
+    private Stage grow(Stage full) {
+        growLock.lock();
+        try {
+            Stage[] current = stages;
+            Stage last = current[current.length - 1];
+            if (last != full) {
+                return last;
+            }
+            Stage next = new Stage(full.capacity * GROWTH, full.falsePositiveRate * TIGHTENING);
+            Stage[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = next;
+            stages = grown;
+            return next;
+        } finally {
+            growLock.unlock();
+        }
+    }
+
+    private static long hash(String key) {
+        long h = 0x9E3779B97F4A7C15L ^ key.length();
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    // murmur3 fmix64
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Stage {
+
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final AtomicLong count = new AtomicLong();
+
+        private Stage(long capacity, double falsePositiveRate) {
+            double optimalBits = -capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+            long words = Math.max(1, (long) Math.ceil(optimalBits / Long.SIZE));
+            if (words > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Bloom filter stage too large: " + capacity + " keys");
+            }
+            this.words = new AtomicLongArray((int) words);
+            this.bits = words * Long.SIZE;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * Math.log(2)));
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        // Kirsch-Mitzenmacher: the k probe positions are h1 + i * h2
+        private boolean mightContain(long h1, long h2) {
+            long combined = h1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = (combined & Long.MAX_VALUE) % bits;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+                combined += h2;
+            }
+            return true;
+        }
+
+        private void put(long h1, long h2) {
+            long combined = h1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = (combined & Long.MAX_VALUE) % bits;
+                long mask = 1L << bit;
+                int word = (int) (bit >>> 6);
+                if ((words.get(word) & mask) == 0) {
+                    words.accumulateAndGet(word, mask, (prev, m) -> prev | m);
+                }
+                combined += h2;
+            }
+        }
+    }
+}
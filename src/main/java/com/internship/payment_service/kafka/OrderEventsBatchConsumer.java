@@ -0,0 +1,47 @@
+package com.internship.payment_service.kafka;
+
+import com.internship.payment_service.dto.PaymentRequest;
+import com.internship.payment_service.dto.PaymentResponse;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.kafka.dto.OrderEvent;
+import com.internship.payment_service.service.PaymentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.kafka", name = "listener-mode", havingValue = "batch")
+public class OrderEventsBatchConsumer {
+
+    private final PaymentService paymentService;
+
+    @KafkaListener(
+            topics = "${app.kafka.orders-topic}",
+            containerFactory = "orderEventKafkaListenerContainerFactory"
+    )
+    public void onOrderEvents(List<OrderEvent> orderEvents) {
+        log.debug("Received {} OrderEvents", orderEvents.size());
+
+        List<PaymentRequest> requests = orderEvents.stream()
+                .map(orderEvent -> PaymentRequest.builder()
+                        .orderId(orderEvent.getOrderId())
+                        .userId(orderEvent.getUserId())
+                        .paymentAmount(orderEvent.getPaymentAmount())
+                        .eventId(orderEvent.getEventId())
+                        .build())
+                .toList();
+
+        List<PaymentResponse> saved = paymentService.createBatch(requests);
+
+        long succeeded = saved.stream()
+                .filter(response -> response.getStatus() == PaymentStatus.SUCCESS)
+                .count();
+        log.info("Payments saved from OrderEvent batch: size={}, success={}", saved.size(), succeeded);
+    }
+}
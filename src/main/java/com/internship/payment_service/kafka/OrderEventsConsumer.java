@@ -1,29 +1,41 @@
 package com.internship.payment_service.kafka;
 
 import com.internship.payment_service.config.KafkaTopicsProperties;
+import com.internship.payment_service.diagnostics.jfr.OrderEventHandledEvent;
 import com.internship.payment_service.dto.PaymentRequest;
 import com.internship.payment_service.dto.PaymentResponse;
+import com.internship.payment_service.entity.PaymentStatus;
 import com.internship.payment_service.kafka.dto.OrderEvent;
+import com.internship.payment_service.metrics.PaymentMetrics;
 import com.internship.payment_service.service.PaymentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.kafka", name = "listener-mode", havingValue = "record", matchIfMissing = true)
 public class OrderEventsConsumer {
 
     private final PaymentService paymentService;
     private final KafkaTopicsProperties topics;
+    private final PaymentMetrics metrics;
 
     @KafkaListener(
             topics = "${app.kafka.orders-topic}",
             containerFactory = "orderEventKafkaListenerContainerFactory"
     )
-    public void onOrderEvent(OrderEvent orderEvent) {
-        log.info("Received OrderEvent: {}", orderEvent);
+    public void onOrderEvent(OrderEvent orderEvent, @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        metrics.orderEventReceived(timestamp);
+        log.debug("Received OrderEvent: {}", orderEvent);
+        OrderEventHandledEvent handled = new OrderEventHandledEvent(
+                orderEvent.getOrderId() != null ? orderEvent.getOrderId() : 0, orderEvent.getEventId());
+        handled.start();
 
         PaymentRequest paymentRequest = PaymentRequest.builder()
                 .orderId(orderEvent.getOrderId())
@@ -32,7 +44,13 @@ public class OrderEventsConsumer {
                 .eventId(orderEvent.getEventId())
                 .build();
 
-        PaymentResponse saved = paymentService.create(paymentRequest);
-        log.info("Payment saved from OrderEvent: id={}, status={}", saved.getId(), saved.getStatus());
+        try {
+            PaymentResponse saved = paymentService.create(paymentRequest);
+            handled.finish(saved.getStatus() == PaymentStatus.SUCCESS ? "success" : "failed");
+            log.info("Payment saved from OrderEvent: id={}, status={}", saved.getId(), saved.getStatus());
+        } catch (RuntimeException ex) {
+            handled.finish("error");
+            throw ex;
+        }
     }
 }
@@ -0,0 +1,112 @@
+package com.internship.payment_service.kafka;
+
+import com.internship.payment_service.config.KafkaTopicsProperties;
+import com.internship.payment_service.dto.PaymentRequest;
+import com.internship.payment_service.dto.PaymentResponse;
+import com.internship.payment_service.kafka.dto.OrderEvent;
+import com.internship.payment_service.metrics.PaymentMetrics;
+import com.internship.payment_service.service.PaymentService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// The consumer thread only hands records to workers; each worker is a single thread, and all events of an orderId hash
+// to the same one, so they run in offset order while other orders proceed in parallel. A record is acked when its
+// worker finishes it, and the container (async acks) commits a partition only up to its first unacked offset, so
+// a crash replays everything from the oldest unfinished record. Replays are absorbed by the eventId unique index.
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.kafka", name = "listener-mode", havingValue = "key-ordered")
+public class OrderEventsKeyOrderedConsumer {
+
+    private final PaymentService paymentService;
+    private final PaymentMetrics metrics;
+    private final KafkaTopicsProperties.KeyOrdered settings;
+    private final ExecutorService[] workers;
+
+    public OrderEventsKeyOrderedConsumer(PaymentService paymentService, PaymentMetrics metrics,
+                                         KafkaTopicsProperties topics) {
+        this.paymentService = paymentService;
+        this.metrics = metrics;
+        this.settings = topics.getKeyOrdered();
+
+        int count = settings.getWorkers() > 0 ? settings.getWorkers() : Runtime.getRuntime().availableProcessors();
+        this.workers = new ExecutorService[count];
+        for (int i = 0; i < count; i++) {
+            String name = "order-events-worker-" + i;
+            workers[i] = Executors.newSingleThreadExecutor(r -> new Thread(r, name));
+        }
+    }
+
+    @KafkaListener(
+            topics = "${app.kafka.orders-topic}",
+            containerFactory = "orderEventKafkaListenerContainerFactory"
+    )
+    public void onOrderEvent(ConsumerRecord<String, OrderEvent> record, Acknowledgment ack) {
+        metrics.orderEventReceived(record.timestamp());
+        OrderEvent orderEvent = record.value();
+        ExecutorService worker = workers[Math.floorMod(Objects.hashCode(orderEvent.getOrderId()), workers.length)];
+        try {
+            worker.execute(() -> {
+                if (process(orderEvent)) {
+                    ack.acknowledge();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // shutting down: leave it unacked so the next owner of the partition processes it
+            log.warn("OrderEvent {} not dispatched, consumer is stopping", orderEvent.getEventId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (ExecutorService worker : workers) {
+            worker.shutdown();
+        }
+        for (ExecutorService worker : workers) {
+            if (!worker.awaitTermination(30, TimeUnit.SECONDS)) {
+                worker.shutdownNow();
+            }
+        }
+    }
+
+    // false only when interrupted during shutdown; a record that keeps failing is skipped after maxAttempts
+    private boolean process(OrderEvent orderEvent) {
+        PaymentRequest paymentRequest = PaymentRequest.builder()
+                .orderId(orderEvent.getOrderId())
+                .userId(orderEvent.getUserId())
+                .paymentAmount(orderEvent.getPaymentAmount())
+                .eventId(orderEvent.getEventId())
+                .build();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                PaymentResponse saved = paymentService.create(paymentRequest);
+                log.debug("Payment saved from OrderEvent: id={}, status={}", saved.getId(), saved.getStatus());
+                return true;
+            } catch (RuntimeException ex) {
+                if (attempt >= settings.getMaxAttempts()) {
+                    log.error("OrderEvent {} skipped after {} attempts", orderEvent.getEventId(), attempt, ex);
+                    return true;
+                }
+                log.warn("OrderEvent {} attempt {} failed: {}", orderEvent.getEventId(), attempt, ex.getMessage());
+                try {
+                    Thread.sleep(settings.getRetryBackoffMs());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+    }
+}
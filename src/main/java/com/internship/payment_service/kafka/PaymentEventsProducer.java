@@ -1,38 +1,86 @@
 package com.internship.payment_service.kafka;
 
 import com.internship.payment_service.config.KafkaTopicsProperties;
+import com.internship.payment_service.diagnostics.jfr.PaymentPublishEvent;
 import com.internship.payment_service.kafka.dto.PaymentEvent;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+// per-record outcomes go to counters and a latency timer; only failures are logged individually
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class PaymentEventsProducer {
 
     private final KafkaTemplate<String, PaymentEvent> paymentEventKafkaTemplate;
     private final KafkaTopicsProperties topics;
+    private final Executor callbackExecutor;
+
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Timer sendTimer;
+
+    public PaymentEventsProducer(KafkaTemplate<String, PaymentEvent> paymentEventKafkaTemplate,
+                                 KafkaTopicsProperties topics,
+                                 Environment environment,
+                                 MeterRegistry meterRegistry) {
+        this.paymentEventKafkaTemplate = paymentEventKafkaTemplate;
+        this.topics = topics;
+        this.callbackExecutor = callbackExecutor(environment);
+
+        this.sentCounter = Counter.builder("payment.events.sent")
+                .description("PaymentEvents acknowledged by the broker")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("payment.events.failed")
+                .description("PaymentEvents the producer failed to send")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("payment.events.send")
+                .description("Time from send() to the broker acknowledgement, including linger")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
 
-    public void send(PaymentEvent event) {
+    public CompletableFuture<SendResult<String, PaymentEvent>> send(PaymentEvent event) {
 
         String key = String.valueOf(event.getOrderId());
+        PaymentPublishEvent publish = new PaymentPublishEvent(event.getOrderId() != null ? event.getOrderId() : 0);
+        publish.start(sendTimer);
 
-        paymentEventKafkaTemplate
+        return paymentEventKafkaTemplate
                 .send(topics.getPaymentsTopic(), key, event)
-                .whenComplete((sendResult, throwable) -> {
+                .whenCompleteAsync((sendResult, throwable) -> {
+                    publish.finish(throwable != null ? "failed" : "sent");
                     if (throwable != null) {
-                        log.error("Failed to send PaymentEvent {}: {}", event, throwable.getMessage(), throwable);
-                    } else if (sendResult != null && sendResult.getRecordMetadata() != null) {
-                        log.info("PaymentEvent sent: topic={}, partition={}, offset={}, key={}",
-                                sendResult.getRecordMetadata().topic(),
-                                sendResult.getRecordMetadata().partition(),
-                                sendResult.getRecordMetadata().offset(),
-                                key);
+                        failedCounter.increment();
+                        log.warn("Failed to send PaymentEvent {}: {}", event, throwable.getMessage(), throwable);
                     } else {
-                        log.info("PaymentEvent sent (no metadata available), key={}", key);
+                        sentCounter.increment();
                     }
-                });
+                }, callbackExecutor);
+    }
+
+    // pushes out whatever the producer is still batching and blocks until it completed
+    public void flush() {
+        paymentEventKafkaTemplate.flush();
+    }
+
+    // with virtual threads the callback leaves the producer I/O thread; otherwise it runs inline there as before
+    private static Executor callbackExecutor(Environment environment) {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            return Runnable::run;
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("payment-events-callback-");
+        executor.setVirtualThreads(true);
+        return executor;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,53 @@
+package com.internship.payment_service.kafka.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+
+public final class BinaryReader {
+
+    private final byte[] data;
+    private int position;
+
+    public BinaryReader(byte[] data) {
+        this.data = data;
+    }
+
+    public int readByte() {
+        require(1);
+        return data[position++] & 0xFF;
+    }
+
+    public long readVarLong() {
+        long raw = readUnsignedVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public long readUnsignedVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new SerializationException("Malformed varint at offset " + position);
+    }
+
+    public String readString() {
+        long length = readUnsignedVarLong();
+        if (length > data.length - position) {
+            throw new SerializationException("String of " + length + " bytes overruns the payload");
+        }
+        String value = new String(data, position, (int) length, StandardCharsets.UTF_8);
+        position += (int) length;
+        return value;
+    }
+
+    private void require(int bytes) {
+        if (position + bytes > data.length) {
+            throw new SerializationException("Truncated payload: needed " + bytes + " more bytes at offset " + position);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.internship.payment_service.kafka.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// growable buffer for the binary event format: zigzag varints for signed numbers, length-prefixed UTF-8 strings
+public final class BinaryWriter {
+
+    private byte[] buffer;
+    private int position;
+
+    public BinaryWriter(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    public BinaryWriter writeByte(int value) {
+        ensure(1);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    public BinaryWriter writeVarLong(long value) {
+        return writeUnsignedVarLong((value << 1) ^ (value >> 63));
+    }
+
+    public BinaryWriter writeUnsignedVarLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    public BinaryWriter writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsignedVarLong(bytes.length);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+        return this;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    private void ensure(int bytes) {
+        if (position + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.internship.payment_service.kafka.codec;
+
+// Field order is the schema. A new field goes at the end under a new version, and read() of that version must still
+// accept payloads of every older one; enum constants may only be appended because they travel as ordinals.
+public interface EventCodec<T> {
+
+    int version();
+
+    byte[] encode(T event);
+
+    T decode(byte[] payload, int version);
+}
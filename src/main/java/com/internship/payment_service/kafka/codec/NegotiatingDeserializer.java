@@ -0,0 +1,55 @@
+package com.internship.payment_service.kafka.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.util.Map;
+
+public class NegotiatingDeserializer<T> implements Deserializer<T> {
+
+    private final EventCodec<T> codec;
+    private final Deserializer<T> json;
+
+    public NegotiatingDeserializer(EventCodec<T> codec, Deserializer<T> json) {
+        this.codec = codec;
+        this.json = json;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (WireFormat.of(headers) == WireFormat.JSON) {
+            return json.deserialize(topic, headers, data);
+        }
+
+        Header header = headers.lastHeader(WireFormat.SCHEMA_VERSION_HEADER);
+        if (header == null || header.value().length != 1) {
+            throw new SerializationException("Binary record on " + topic + " without a schema-version header");
+        }
+        int version = header.value()[0] & 0xFF;
+        if (version < 1 || version > codec.version()) {
+            throw new SerializationException("Unsupported schema-version " + version + " on " + topic
+                    + ", this consumer reads up to " + codec.version());
+        }
+        return codec.decode(data, version);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
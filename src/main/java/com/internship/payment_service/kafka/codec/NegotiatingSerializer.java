@@ -0,0 +1,55 @@
+package com.internship.payment_service.kafka.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+public class NegotiatingSerializer<T> implements Serializer<T> {
+
+    private final WireFormat format;
+    private final EventCodec<T> codec;
+    private final Serializer<T> json;
+    private final byte[] schemaVersion;
+
+    public NegotiatingSerializer(WireFormat format, EventCodec<T> codec, Serializer<T> json) {
+        this.format = format;
+        this.codec = codec;
+        this.json = json;
+        this.schemaVersion = new byte[]{(byte) codec.version()};
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        // without headers a consumer could not tell binary from JSON
+        if (format != WireFormat.JSON) {
+            throw new SerializationException("Binary records need headers to carry their format, topic " + topic);
+        }
+        return json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (data == null) {
+            return null;
+        }
+        format.stamp(headers);
+        if (format == WireFormat.JSON) {
+            return json.serialize(topic, headers, data);
+        }
+        headers.remove(WireFormat.SCHEMA_VERSION_HEADER);
+        headers.add(WireFormat.SCHEMA_VERSION_HEADER, schemaVersion);
+        return codec.encode(data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,72 @@
+package com.internship.payment_service.kafka.codec;
+
+import com.internship.payment_service.kafka.dto.OrderEvent;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+
+// v1: presence bits, eventId, orderId, userId, paymentAmount as unscaled value and scale
+public class OrderEventCodec implements EventCodec<OrderEvent> {
+
+    private static final int EVENT_ID = 1;
+    private static final int ORDER_ID = 1 << 1;
+    private static final int USER_ID = 1 << 2;
+    private static final int PAYMENT_AMOUNT = 1 << 3;
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public byte[] encode(OrderEvent event) {
+        int present = (event.getEventId() != null ? EVENT_ID : 0)
+                | (event.getOrderId() != null ? ORDER_ID : 0)
+                | (event.getUserId() != null ? USER_ID : 0)
+                | (event.getPaymentAmount() != null ? PAYMENT_AMOUNT : 0);
+
+        BinaryWriter writer = new BinaryWriter(64).writeByte(present);
+        if (event.getEventId() != null) {
+            writer.writeString(event.getEventId());
+        }
+        if (event.getOrderId() != null) {
+            writer.writeVarLong(event.getOrderId());
+        }
+        if (event.getUserId() != null) {
+            writer.writeVarLong(event.getUserId());
+        }
+        if (event.getPaymentAmount() != null) {
+            BigDecimal amount = event.getPaymentAmount();
+            long unscaled;
+            try {
+                unscaled = amount.unscaledValue().longValueExact();
+            } catch (ArithmeticException ex) {
+                throw new SerializationException("paymentAmount " + amount + " does not fit the binary format", ex);
+            }
+            writer.writeVarLong(unscaled).writeVarLong(amount.scale());
+        }
+        return writer.toByteArray();
+    }
+
+    @Override
+    public OrderEvent decode(byte[] payload, int version) {
+        BinaryReader reader = new BinaryReader(payload);
+        int present = reader.readByte();
+
+        OrderEvent event = new OrderEvent();
+        if ((present & EVENT_ID) != 0) {
+            event.setEventId(reader.readString());
+        }
+        if ((present & ORDER_ID) != 0) {
+            event.setOrderId(reader.readVarLong());
+        }
+        if ((present & USER_ID) != 0) {
+            event.setUserId(reader.readVarLong());
+        }
+        if ((present & PAYMENT_AMOUNT) != 0) {
+            long unscaled = reader.readVarLong();
+            event.setPaymentAmount(BigDecimal.valueOf(unscaled, Math.toIntExact(reader.readVarLong())));
+        }
+        return event;
+    }
+}
@@ -0,0 +1,439 @@
+package com.internship.payment_service.kafka.codec;
+
+import com.internship.payment_service.kafka.dto.OrderEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+// Hand-written reader for the fixed OrderEvent JSON shape. It scans the record bytes in place: keys are matched
+// byte-by-byte, numbers are accumulated straight into long/unscaled values, and the only allocations per record are
+// the event, its eventId String and the BigDecimal. Unknown keys are skipped so newer producers stay readable.
+public class OrderEventJsonDeserializer implements Deserializer<OrderEvent> {
+
+    private static final byte[] EVENT_ID = bytes("eventId");
+    private static final byte[] ORDER_ID = bytes("orderId");
+    private static final byte[] USER_ID = bytes("userId");
+    private static final byte[] PAYMENT_AMOUNT = bytes("paymentAmount");
+
+    // one deserializer instance is shared by every consumer thread of the factory
+    private final ThreadLocal<Parser> parsers = ThreadLocal.withInitial(Parser::new);
+
+    @Override
+    public OrderEvent deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return parsers.get().parse(data);
+    }
+
+    @Override
+    public OrderEvent deserialize(String topic, Headers headers, byte[] data) {
+        return deserialize(topic, data);
+    }
+
+    private static byte[] bytes(String key) {
+        return key.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class Parser {
+
+        private static final int MAX_DEPTH = 64;
+
+        private byte[] data;
+        private int pos;
+
+        OrderEvent parse(byte[] payload) {
+            data = payload;
+            pos = 0;
+            try {
+                return readEvent();
+            } finally {
+                data = null;
+            }
+        }
+
+        private OrderEvent readEvent() {
+            OrderEvent event = new OrderEvent();
+            expect('{');
+            if (peek() == '}') {
+                pos++;
+                return finish(event);
+            }
+            while (true) {
+                expect('"');
+                int keyStart = pos;
+                skipStringBody();
+                int keyEnd = pos - 1;
+                expect(':');
+
+                if (keyEquals(keyStart, keyEnd, EVENT_ID)) {
+                    event.setEventId(readNullableString());
+                } else if (keyEquals(keyStart, keyEnd, ORDER_ID)) {
+                    event.setOrderId(readNullableLong());
+                } else if (keyEquals(keyStart, keyEnd, USER_ID)) {
+                    event.setUserId(readNullableLong());
+                } else if (keyEquals(keyStart, keyEnd, PAYMENT_AMOUNT)) {
+                    event.setPaymentAmount(readNullableDecimal());
+                } else {
+                    skipValue(0);
+                }
+
+                byte next = nextToken();
+                if (next == '}') {
+                    return finish(event);
+                }
+                if (next != ',') {
+                    throw malformed("expected ',' or '}'");
+                }
+            }
+        }
+
+        private OrderEvent finish(OrderEvent event) {
+            skipWhitespace();
+            if (pos != data.length) {
+                throw malformed("trailing content");
+            }
+            return event;
+        }
+
+        private boolean keyEquals(int start, int end, byte[] key) {
+            if (end - start != key.length) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (data[start + i] != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String readNullableString() {
+            if (consumeNull()) {
+                return null;
+            }
+            expect('"');
+            int start = pos;
+            while (pos < data.length) {
+                byte b = data[pos];
+                if (b == '"') {
+                    pos++;
+                    return new String(data, start, pos - 1 - start, StandardCharsets.UTF_8);
+                }
+                if (b == '\\') {
+                    return readEscapedString(start);
+                }
+                if ((b & 0xFF) < 0x20) {
+                    throw malformed("control character in string");
+                }
+                pos++;
+            }
+            throw malformed("unterminated string");
+        }
+
+        // slow path, only taken for strings that actually contain an escape
+        private String readEscapedString(int start) {
+            StringBuilder out = new StringBuilder(pos - start + 16)
+                    .append(new String(data, start, pos - start, StandardCharsets.UTF_8));
+            int chunk = pos;
+            while (pos < data.length) {
+                byte b = data[pos];
+                if (b == '"') {
+                    out.append(new String(data, chunk, pos - chunk, StandardCharsets.UTF_8));
+                    pos++;
+                    return out.toString();
+                }
+                if (b != '\\') {
+                    if ((b & 0xFF) < 0x20) {
+                        throw malformed("control character in string");
+                    }
+                    pos++;
+                    continue;
+                }
+                out.append(new String(data, chunk, pos - chunk, StandardCharsets.UTF_8));
+                pos++;
+                out.append(readEscape());
+                chunk = pos;
+            }
+            throw malformed("unterminated string");
+        }
+
+        private char readEscape() {
+            if (pos >= data.length) {
+                throw malformed("unterminated escape");
+            }
+            byte b = data[pos++];
+            return switch (b) {
+                case '"' -> '"';
+                case '\\' -> '\\';
+                case '/' -> '/';
+                case 'b' -> '\b';
+                case 'f' -> '\f';
+                case 'n' -> '\n';
+                case 'r' -> '\r';
+                case 't' -> '\t';
+                case 'u' -> readUnicodeEscape();
+                default -> throw malformed("invalid escape");
+            };
+        }
+
+        private char readUnicodeEscape() {
+            if (pos + 4 > data.length) {
+                throw malformed("truncated unicode escape");
+            }
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(data[pos++], 16);
+                if (digit < 0) {
+                    throw malformed("invalid unicode escape");
+                }
+                value = value << 4 | digit;
+            }
+            return (char) value;
+        }
+
+        private Long readNullableLong() {
+            if (consumeNull()) {
+                return null;
+            }
+            boolean quoted = consumeQuote();
+            boolean negative = pos < data.length && data[pos] == '-';
+            if (negative) {
+                pos++;
+            }
+            int start = pos;
+            long value = 0;
+            while (pos < data.length && isDigit(data[pos])) {
+                int digit = data[pos++] - '0';
+                // accumulate negatively so Long.MIN_VALUE is representable
+                if (value < (Long.MIN_VALUE + digit) / 10) {
+                    throw malformed("integer out of range");
+                }
+                value = value * 10 - digit;
+            }
+            if (pos == start) {
+                throw malformed("expected a number");
+            }
+            if (pos < data.length && (data[pos] == '.' || data[pos] == 'e' || data[pos] == 'E')) {
+                throw malformed("expected an integer");
+            }
+            if (!negative && value == Long.MIN_VALUE) {
+                throw malformed("integer out of range");
+            }
+            closeQuote(quoted);
+            return negative ? value : -value;
+        }
+
+        private BigDecimal readNullableDecimal() {
+            if (consumeNull()) {
+                return null;
+            }
+            boolean quoted = consumeQuote();
+            int start = pos;
+            boolean negative = pos < data.length && data[pos] == '-';
+            if (negative) {
+                pos++;
+            }
+
+            long unscaled = 0;
+            int digits = 0;
+            int scale = 0;
+            int intDigits = 0;
+            while (pos < data.length && isDigit(data[pos])) {
+                unscaled = unscaled * 10 + (data[pos++] - '0');
+                digits++;
+                intDigits++;
+            }
+            if (intDigits == 0) {
+                throw malformed("expected a number");
+            }
+            if (pos < data.length && data[pos] == '.') {
+                pos++;
+                int fractionStart = pos;
+                while (pos < data.length && isDigit(data[pos])) {
+                    unscaled = unscaled * 10 + (data[pos++] - '0');
+                    digits++;
+                    scale++;
+                }
+                if (pos == fractionStart) {
+                    throw malformed("expected fraction digits");
+                }
+            }
+            if (pos < data.length && (data[pos] == 'e' || data[pos] == 'E')) {
+                pos++;
+                boolean negativeExponent = pos < data.length && data[pos] == '-';
+                if (negativeExponent || pos < data.length && data[pos] == '+') {
+                    pos++;
+                }
+                int exponentStart = pos;
+                int exponent = 0;
+                while (pos < data.length && isDigit(data[pos])) {
+                    if (exponent > 100_000_000) {
+                        throw malformed("exponent out of range");
+                    }
+                    exponent = exponent * 10 + (data[pos++] - '0');
+                }
+                if (pos == exponentStart) {
+                    throw malformed("expected exponent digits");
+                }
+                scale -= negativeExponent ? -exponent : exponent;
+            }
+            int end = pos;
+            closeQuote(quoted);
+
+            // 18 digits always fit a long; anything longer is rare enough to go through the BigDecimal parser
+            if (digits > 18) {
+                return new BigDecimal(new String(data, start, end - start, StandardCharsets.US_ASCII));
+            }
+            return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+        }
+
+        private void skipValue(int depth) {
+            if (depth > MAX_DEPTH) {
+                throw malformed("nesting too deep");
+            }
+            byte b = nextToken();
+            switch (b) {
+                case '"' -> skipStringBody();
+                case '{' -> skipContainer('}', true, depth);
+                case '[' -> skipContainer(']', false, depth);
+                case 't' -> skipLiteral("rue");
+                case 'f' -> skipLiteral("alse");
+                case 'n' -> skipLiteral("ull");
+                default -> {
+                    if (b != '-' && !isDigit(b)) {
+                        throw malformed("unexpected character");
+                    }
+                    while (pos < data.length && isNumberChar(data[pos])) {
+                        pos++;
+                    }
+                }
+            }
+        }
+
+        private void skipContainer(char close, boolean object, int depth) {
+            if (peek() == close) {
+                pos++;
+                return;
+            }
+            while (true) {
+                if (object) {
+                    expect('"');
+                    skipStringBody();
+                    expect(':');
+                }
+                skipValue(depth + 1);
+                byte next = nextToken();
+                if (next == close) {
+                    return;
+                }
+                if (next != ',') {
+                    throw malformed("expected ',' or '" + close + "'");
+                }
+            }
+        }
+
+        // positioned just after the opening quote, leaves pos after the closing one
+        private void skipStringBody() {
+            while (pos < data.length) {
+                byte b = data[pos++];
+                if (b == '"') {
+                    return;
+                }
+                if (b == '\\') {
+                    pos++;
+                }
+            }
+            throw malformed("unterminated string");
+        }
+
+        private void skipLiteral(String rest) {
+            for (int i = 0; i < rest.length(); i++) {
+                if (pos >= data.length || data[pos++] != rest.charAt(i)) {
+                    throw malformed("invalid literal");
+                }
+            }
+        }
+
+        private boolean consumeNull() {
+            if (peek() == 'n') {
+                pos++;
+                skipLiteral("ull");
+                return true;
+            }
+            return false;
+        }
+
+        private boolean consumeQuote() {
+            if (peek() == '"') {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void closeQuote(boolean quoted) {
+            if (quoted && (pos >= data.length || data[pos++] != '"')) {
+                throw malformed("unterminated number string");
+            }
+        }
+
+        private void expect(char c) {
+            if (nextToken() != c) {
+                throw malformed("expected '" + c + "'");
+            }
+        }
+
+        private byte nextToken() {
+            byte b = peek();
+            pos++;
+            return b;
+        }
+
+        private byte peek() {
+            skipWhitespace();
+            if (pos >= data.length) {
+                throw malformed("unexpected end of input");
+            }
+            return data[pos];
+        }
+
+        private void skipWhitespace() {
+            while (pos < data.length) {
+                byte b = data[pos];
+                if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                    return;
+                }
+                pos++;
+            }
+        }
+
+        private static boolean isDigit(byte b) {
+            return b >= '0' && b <= '9';
+        }
+
+        private static boolean isNumberChar(byte b) {
+            return isDigit(b) || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E';
+        }
+
+        private MalformedOrderEventException malformed(String reason) {
+            return new MalformedOrderEventException("Malformed OrderEvent JSON: " + reason + " at offset " + pos);
+        }
+    }
+
+    // thrown per bad record from the poll loop; the offset in the message is all that is useful, so skip the stack
+    static final class MalformedOrderEventException extends SerializationException {
+
+        MalformedOrderEventException(String message) {
+            super(message);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.internship.payment_service.kafka.codec;
+
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.kafka.dto.PaymentEvent;
+import org.apache.kafka.common.errors.SerializationException;
+
+// v1: presence bits, eventId, orderId, paymentId, status ordinal
+public class PaymentEventCodec implements EventCodec<PaymentEvent> {
+
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+
+    private static final int EVENT_ID = 1;
+    private static final int ORDER_ID = 1 << 1;
+    private static final int PAYMENT_ID = 1 << 2;
+    private static final int STATUS = 1 << 3;
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public byte[] encode(PaymentEvent event) {
+        int present = (event.getEventId() != null ? EVENT_ID : 0)
+                | (event.getOrderId() != null ? ORDER_ID : 0)
+                | (event.getPaymentId() != null ? PAYMENT_ID : 0)
+                | (event.getStatus() != null ? STATUS : 0);
+
+        BinaryWriter writer = new BinaryWriter(64).writeByte(present);
+        if (event.getEventId() != null) {
+            writer.writeString(event.getEventId());
+        }
+        if (event.getOrderId() != null) {
+            writer.writeVarLong(event.getOrderId());
+        }
+        if (event.getPaymentId() != null) {
+            writer.writeString(event.getPaymentId());
+        }
+        if (event.getStatus() != null) {
+            writer.writeUnsignedVarLong(event.getStatus().ordinal());
+        }
+        return writer.toByteArray();
+    }
+
+    @Override
+    public PaymentEvent decode(byte[] payload, int version) {
+        BinaryReader reader = new BinaryReader(payload);
+        int present = reader.readByte();
+
+        PaymentEvent event = new PaymentEvent();
+        if ((present & EVENT_ID) != 0) {
+            event.setEventId(reader.readString());
+        }
+        if ((present & ORDER_ID) != 0) {
+            event.setOrderId(reader.readVarLong());
+        }
+        if ((present & PAYMENT_ID) != 0) {
+            event.setPaymentId(reader.readString());
+        }
+        if ((present & STATUS) != 0) {
+            long ordinal = reader.readUnsignedVarLong();
+            if (ordinal >= STATUSES.length) {
+                throw new SerializationException("Unknown PaymentStatus ordinal " + ordinal);
+            }
+            event.setStatus(STATUSES[(int) ordinal]);
+        }
+        return event;
+    }
+}
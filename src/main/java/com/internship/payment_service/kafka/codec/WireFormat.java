@@ -0,0 +1,36 @@
+package com.internship.payment_service.kafka.codec;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Producers stamp every record with content-type (and schema-version for binary); consumers pick the decoder from
+// the header, and a record without one is JSON, which is what producers from before the binary format send.
+public enum WireFormat {
+    JSON("application/json"),
+    BINARY("application/vnd.payment-service.event+binary");
+
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+    public static final String SCHEMA_VERSION_HEADER = "schema-version";
+
+    private final byte[] contentType;
+
+    WireFormat(String contentType) {
+        this.contentType = contentType.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public void stamp(Headers headers) {
+        headers.remove(CONTENT_TYPE_HEADER);
+        headers.add(CONTENT_TYPE_HEADER, contentType);
+    }
+
+    public static WireFormat of(Headers headers) {
+        Header header = headers == null ? null : headers.lastHeader(CONTENT_TYPE_HEADER);
+        if (header != null && Arrays.equals(header.value(), BINARY.contentType)) {
+            return BINARY;
+        }
+        return JSON;
+    }
+}
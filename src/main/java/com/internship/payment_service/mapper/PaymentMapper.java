@@ -12,6 +12,7 @@ public interface PaymentMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "status", ignore = true)
     @Mapping(target = "timestamp", ignore = true)
+    @Mapping(target = "eventPending", ignore = true)
     Payment toEntity(PaymentRequest request);
 
     PaymentResponse toResponse(Payment payment);
@@ -0,0 +1,84 @@
+package com.internship.payment_service.metrics;
+
+import com.internship.payment_service.diagnostics.jfr.PaymentCreateEvent;
+import com.internship.payment_service.diagnostics.jfr.PaymentStageEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Meters of the create pipeline, registered once so the hot path only reads an array and records a duration.
+// SLO buckets for the Prometheus histograms come from management.metrics.distribution.slo in application.yml.
+// Stages and the whole create are also JFR events, so a recording shows them per orderId next to GC and I/O.
+@Component
+public class PaymentMetrics {
+
+    public enum Stage {
+        // recent-response cache, Bloom filter and, for a probable repeat, the eventId read
+        IDEMPOTENCY,
+        RANDOM_API,
+        // the insert, including retries after a unique index rejected it
+        INSERT,
+        ROLLUP
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        FAILED,
+        // the eventId was already processed, the stored payment is returned
+        DUPLICATE,
+        // the random API was unavailable, so the payment was stored as FAILED
+        FALLBACK_FAILED,
+        // drawn SUCCESS but the order is already paid, stored as FAILED
+        ALREADY_PAID
+    }
+
+    private final Timer[] stages = new Timer[Stage.values().length];
+    private final String[] stageNames = new String[Stage.values().length];
+    private final Timer[] outcomes = new Timer[Outcome.values().length];
+    private final String[] outcomeNames = new String[Outcome.values().length];
+    private final Timer orderEventLag;
+
+    public PaymentMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            stageNames[stage.ordinal()] = stage.name().toLowerCase(Locale.ROOT);
+            stages[stage.ordinal()] = Timer.builder("payment.create.stage")
+                    .description("Time spent in one stage of payment creation")
+                    .tag("stage", stageNames[stage.ordinal()])
+                    .register(meterRegistry);
+        }
+        for (Outcome outcome : Outcome.values()) {
+            outcomeNames[outcome.ordinal()] = outcome.name().toLowerCase(Locale.ROOT);
+            outcomes[outcome.ordinal()] = Timer.builder("payment.create")
+                    .description("Payment creation end to end, by outcome")
+                    .tag("outcome", outcomeNames[outcome.ordinal()])
+                    .register(meterRegistry);
+        }
+        this.orderEventLag = Timer.builder("order.events.lag")
+                .description("Time from the OrderEvent record timestamp until a listener picked it up")
+                .register(meterRegistry);
+    }
+
+    // the caller ends the stage with finish(outcome), which records the stage timer and commits the event
+    public PaymentStageEvent startStage(Stage stage, Long orderId) {
+        PaymentStageEvent event = new PaymentStageEvent(stageNames[stage.ordinal()], orderId != null ? orderId : 0);
+        event.start(stages[stage.ordinal()]);
+        return event;
+    }
+
+    public PaymentCreateEvent startCreate(Long orderId, String eventId) {
+        PaymentCreateEvent event = new PaymentCreateEvent(orderId != null ? orderId : 0, eventId);
+        event.start();
+        return event;
+    }
+
+    public void created(PaymentCreateEvent event, Outcome outcome) {
+        event.finish(outcomes[outcome.ordinal()], outcomeNames[outcome.ordinal()]);
+    }
+
+    public void orderEventReceived(long recordTimestampMs) {
+        orderEventLag.record(Math.max(0, System.currentTimeMillis() - recordTimestampMs), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,64 @@
+package com.internship.payment_service.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+// one relay at a time keeps the topic in outbox order and avoids every instance sending every event
+@Slf4j
+@Component
+public class OutboxLease {
+
+    private static final String COLLECTION = "payment_outbox_lease";
+    private static final String ID = "payment-events-relay";
+
+    private final MongoTemplate mongoTemplate;
+    private final String owner = UUID.randomUUID().toString();
+
+    public OutboxLease(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // takes a free or expired lease, or extends our own; a concurrent upsert of a held lease fails on _id
+    public boolean tryAcquire(Duration duration) {
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("_id").is(ID).orOperator(
+                Criteria.where("owner").is(owner),
+                Criteria.where("expires_at").lt(Date.from(now))));
+        Update update = new Update()
+                .set("owner", owner)
+                .set("expires_at", Date.from(now.plus(duration)));
+        try {
+            Document lease = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), Document.class, COLLECTION);
+            return lease != null && owner.equals(lease.getString("owner"));
+        } catch (DuplicateKeyException ex) {
+            return false;
+        }
+    }
+
+    // extends the lease only while we still hold it unexpired; false means another instance may be relaying
+    public boolean renew(Duration duration) {
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("_id").is(ID)
+                .and("owner").is(owner)
+                .and("expires_at").gte(Date.from(now)));
+        Update update = new Update().set("expires_at", Date.from(now.plus(duration)));
+        return mongoTemplate.updateFirst(query, update, COLLECTION).getModifiedCount() > 0;
+    }
+
+    public void release() {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(ID).and("owner").is(owner)), COLLECTION);
+    }
+}
@@ -0,0 +1,190 @@
+package com.internship.payment_service.outbox;
+
+import com.internship.payment_service.config.KafkaTopicsProperties;
+import com.internship.payment_service.config.OutboxProperties;
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.kafka.PaymentEventsProducer;
+import com.internship.payment_service.kafka.dto.PaymentEvent;
+import com.internship.payment_service.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Drains payments marked event_pending to the payments topic. Each round sends one batch in outbox order, waits
+// for the acks and, if it still holds the lease, clears the marker of the acknowledged prefix with one update; the
+// rest stay pending and are sent again next round, so delivery is at-least-once and consumers dedupe by eventId.
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.outbox", name = "relay-enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentOutboxRelay {
+
+    private final PaymentRepository repository;
+    private final PaymentEventsProducer producer;
+    private final OutboxLease lease;
+    private final OutboxProperties props;
+
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public PaymentOutboxRelay(PaymentRepository repository,
+                              PaymentEventsProducer producer,
+                              OutboxLease lease,
+                              OutboxProperties props,
+                              KafkaTopicsProperties topics,
+                              MeterRegistry meterRegistry) {
+        // a record sent just before the deadline leaves the producer at most max-block-ms + delivery-timeout-ms later
+        KafkaTopicsProperties.Producer tuning = topics.getProducer();
+        Duration inFlight = props.getSendTimeout()
+                .plusMillis(tuning.getMaxBlockMs())
+                .plusMillis(tuning.getDeliveryTimeoutMs());
+        if (inFlight.compareTo(props.getLease()) >= 0) {
+            throw new IllegalArgumentException("app.outbox.send-timeout (" + props.getSendTimeout()
+                    + ") plus the producer's max-block-ms (" + tuning.getMaxBlockMs()
+                    + ") and delivery-timeout-ms (" + tuning.getDeliveryTimeoutMs()
+                    + ") must be shorter than app.outbox.lease (" + props.getLease() + ")");
+        }
+
+        this.repository = repository;
+        this.producer = producer;
+        this.lease = lease;
+        this.props = props;
+
+        this.sentCounter = Counter.builder("payment.outbox.sent")
+                .description("PaymentEvents acknowledged by Kafka and cleared from the outbox")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("payment.outbox.failed")
+                .description("PaymentEvent sends that failed and stay in the outbox")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("payment.outbox.batch")
+                .description("Time to send one outbox batch and mark it sent")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("payment.outbox.batch.size")
+                .description("PaymentEvents per relay batch")
+                .register(meterRegistry);
+        Gauge.builder("payment.outbox.lag", lagMillis, AtomicLong::get)
+                .description("Age in ms of the oldest pending PaymentEvent at the last poll")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("payment-outbox-relay").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(props.getSendTimeout().toMillis());
+            lease.release();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (!lease.tryAcquire(props.getLease()) || relayBatch() < props.getBatchSize()) {
+                    Thread.sleep(props.getPollInterval().toMillis());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Outbox relay round failed: {}", ex.getMessage());
+                sleepQuietly(props.getPollInterval());
+            }
+        }
+    }
+
+    // returns the number of events sent, so a fully sent batch is followed by the next one without sleeping
+    int relayBatch() throws InterruptedException {
+        List<Payment> pending = repository.findPendingEvents(props.getBatchSize());
+        if (pending.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+        lagMillis.set(Math.max(0, Duration.between(pending.get(0).getTimestamp(), Instant.now()).toMillis()));
+
+        long start = System.nanoTime();
+        long deadline = start + props.getSendTimeout().toNanos();
+        List<CompletableFuture<?>> sends = new ArrayList<>(pending.size());
+        for (Payment payment : pending) {
+            // send() may block for max-block-ms; what is not handed to the producer by the deadline waits for next round
+            if (System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            sends.add(producer.send(toEvent(payment)));
+        }
+
+        // only the acked prefix is marked: an event acked after a failed one stays pending with it, so the next round
+        // resends both in outbox order and a consumer never sees a later status of an order before an earlier one
+        List<String> sent = new ArrayList<>(pending.size());
+        boolean failed = false;
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (!failed) {
+                    sent.add(pending.get(i).getId());
+                }
+            } catch (InterruptedException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                failedCounter.increment();
+                failed = true;
+            }
+        }
+
+        // a slow batch or a pause may have outlived the lease; then another relay owns these events now
+        if (!lease.renew(props.getLease())) {
+            log.warn("Outbox lease lost while sending, {} acked events stay pending", sent.size());
+            return 0;
+        }
+        repository.markEventsSent(sent);
+        sentCounter.increment(sent.size());
+        batchSize.record(pending.size());
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return sent.size();
+    }
+
+    private static PaymentEvent toEvent(Payment payment) {
+        return PaymentEvent.builder()
+                .eventId(payment.getEventId())
+                .orderId(payment.getOrderId())
+                .paymentId(payment.getId())
+                .status(payment.getStatus())
+                .build();
+    }
+
+    private static void sleepQuietly(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
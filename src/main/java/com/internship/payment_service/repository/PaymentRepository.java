@@ -11,22 +11,28 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface PaymentRepository extends MongoRepository<Payment, String> {
+public interface PaymentRepository extends MongoRepository<Payment, String>, PaymentRepositoryCustom {
 
     Optional<Payment> findByEventId(String eventId);
+    List<Payment> findByEventIdIn(Collection<String> eventIds);
 
     List<Payment> findByOrderId(Long orderId);
     List<Payment> findByUserId(Long userId);
     List<Payment> findByStatusIn(Collection<PaymentStatus> statuses);
 
-    boolean existsByOrderIdAndStatus(Long orderId, PaymentStatus status);
-
     @Aggregation(pipeline = {
             "{ $match: { status: 'SUCCESS', timestamp: { $gte: ?0, $lte: ?1 } } }",
             "{ $group: { _id: null, total: { $sum: '$payment_amount' } } }"
     })
     List<TotalAmountProjection> sumSuccessfulBetween(Instant from, Instant to);
 
+    // half-open variant for the edge before the first rollup bucket
+    @Aggregation(pipeline = {
+            "{ $match: { status: 'SUCCESS', timestamp: { $gte: ?0, $lt: ?1 } } }",
+            "{ $group: { _id: null, total: { $sum: '$payment_amount' } } }"
+    })
+    List<TotalAmountProjection> sumSuccessfulFromUntil(Instant from, Instant until);
+
     interface TotalAmountProjection {
         BigDecimal getTotal();
     }
@@ -0,0 +1,37 @@
+package com.internship.payment_service.repository;
+
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentStatus;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface PaymentRepositoryCustom {
+
+    // single unordered bulk insert; returns positions in payments rejected by a unique index, mapped to the
+    // index name (null if the server did not report it)
+    Map<Integer, String> insertAllUnordered(List<Payment> payments);
+
+    // cursor-backed streams for NDJSON responses; callers must close them
+    Stream<Payment> streamByOrderId(Long orderId);
+    Stream<Payment> streamByUserId(Long userId);
+    Stream<Payment> streamByStatusIn(Collection<PaymentStatus> statuses);
+
+    // SUCCESS payments in [from, until) with only timestamp and amount loaded, for the in-memory totals index
+    Stream<Payment> streamSuccessfulAmounts(Instant from, Instant until);
+
+    // oldest payments whose PaymentEvent was not acknowledged yet, in (timestamp, _id) order
+    List<Payment> findPendingEvents(int limit);
+    void markEventsSent(Collection<String> paymentIds);
+
+    // covered scan of ux_payments_event_id, used to warm the idempotency filter
+    Stream<String> streamEventIds();
+
+    // keyset pages ordered by timestamp desc, _id desc; afterTimestamp/afterId are null for the first page
+    List<Payment> findPageByOrderId(Long orderId, Instant afterTimestamp, String afterId, int limit);
+    List<Payment> findPageByUserId(Long userId, Instant afterTimestamp, String afterId, int limit);
+    List<Payment> findPageByStatusIn(Collection<PaymentStatus> statuses, Instant afterTimestamp, String afterId, int limit);
+}
@@ -0,0 +1,149 @@
+package com.internship.payment_service.repository;
+
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.util.MongoDbErrorCodes;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class PaymentRepositoryCustomImpl implements PaymentRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.payments.stream.cursor-batch-size:500}")
+    private int cursorBatchSize;
+
+    @Override
+    public Map<Integer, String> insertAllUnordered(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return Map.of();
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)
+                    .insert(payments)
+                    .execute();
+            return Map.of();
+        } catch (DuplicateKeyException ex) {
+            if (!(ex.getCause() instanceof MongoBulkWriteException bulkEx)) {
+                throw ex;
+            }
+
+            Map<Integer, String> rejected = new HashMap<>();
+            for (BulkWriteError error : bulkEx.getWriteErrors()) {
+                if (!MongoDbErrorCodes.isDuplicateKeyCode(error.getCode())) {
+                    throw ex;
+                }
+                rejected.put(error.getIndex(), UniqueIndexes.violatedIndex(error.getMessage()));
+            }
+            return rejected;
+        }
+    }
+
+    @Override
+    public Stream<Payment> streamByOrderId(Long orderId) {
+        return stream(Criteria.where("orderId").is(orderId));
+    }
+
+    @Override
+    public Stream<Payment> streamByUserId(Long userId) {
+        return stream(Criteria.where("userId").is(userId));
+    }
+
+    @Override
+    public Stream<Payment> streamByStatusIn(Collection<PaymentStatus> statuses) {
+        return stream(Criteria.where("status").in(statuses));
+    }
+
+    @Override
+    public Stream<Payment> streamSuccessfulAmounts(Instant from, Instant until) {
+        Query query = new Query(Criteria.where("status").is(PaymentStatus.SUCCESS).and("timestamp").gte(from).lt(until))
+                .cursorBatchSize(cursorBatchSize);
+        query.fields().include("timestamp", "paymentAmount");
+        return mongoTemplate.stream(query, Payment.class);
+    }
+
+    @Override
+    public List<Payment> findPendingEvents(int limit) {
+        // equality on event_pending: true is what lets the planner use the partial idx_payments_event_pending
+        Query query = new Query(Criteria.where("eventPending").is(true))
+                .with(Sort.by(Sort.Order.asc("timestamp"), Sort.Order.asc("id")))
+                .limit(limit);
+        query.fields().include("eventId", "orderId", "status", "timestamp");
+        return mongoTemplate.find(query, Payment.class);
+    }
+
+    @Override
+    public void markEventsSent(Collection<String> paymentIds) {
+        if (paymentIds.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(new Query(Criteria.where("id").in(paymentIds)),
+                new Update().unset("eventPending"), Payment.class);
+    }
+
+    @Override
+    public Stream<String> streamEventIds() {
+        // raw field names: the partial index only covers queries that repeat its { event_id: { $exists: true } } filter
+        Query query = new Query(Criteria.where("event_id").exists(true))
+                .withHint("ux_payments_event_id")
+                .cursorBatchSize(cursorBatchSize);
+        query.fields().include("event_id").exclude("_id");
+        return mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(Payment.class))
+                .map(document -> document.getString("event_id"));
+    }
+
+    @Override
+    public List<Payment> findPageByOrderId(Long orderId, Instant afterTimestamp, String afterId, int limit) {
+        return page(Criteria.where("orderId").is(orderId), afterTimestamp, afterId, limit);
+    }
+
+    @Override
+    public List<Payment> findPageByUserId(Long userId, Instant afterTimestamp, String afterId, int limit) {
+        return page(Criteria.where("userId").is(userId), afterTimestamp, afterId, limit);
+    }
+
+    @Override
+    public List<Payment> findPageByStatusIn(Collection<PaymentStatus> statuses, Instant afterTimestamp, String afterId, int limit) {
+        return page(Criteria.where("status").in(statuses), afterTimestamp, afterId, limit);
+    }
+
+    // seek predicate instead of skip: (timestamp, _id) < (afterTimestamp, afterId), served by the
+    // { <filter>, timestamp: -1, _id: -1 } indexes, so deep pages cost the same as the first one
+    private List<Payment> page(Criteria filter, Instant afterTimestamp, String afterId, int limit) {
+        Criteria criteria = filter;
+        if (afterTimestamp != null) {
+            criteria = new Criteria().andOperator(filter, new Criteria().orOperator(
+                    Criteria.where("timestamp").lt(afterTimestamp),
+                    Criteria.where("timestamp").is(afterTimestamp).and("id").lt(afterId)));
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.desc("timestamp"), Sort.Order.desc("id")))
+                .limit(limit);
+        return mongoTemplate.find(query, Payment.class);
+    }
+
+    // the driver holds at most one batch of documents per open cursor
+    private Stream<Payment> stream(Criteria criteria) {
+        Query query = new Query(criteria).cursorBatchSize(cursorBatchSize);
+        return mongoTemplate.stream(query, Payment.class);
+    }
+}
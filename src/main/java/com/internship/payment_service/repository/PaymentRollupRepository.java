@@ -0,0 +1,138 @@
+package com.internship.payment_service.repository;
+
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentRollup;
+import com.internship.payment_service.entity.PaymentRollupState;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.entity.RollupGranularity;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+// payment_rollups is written with upserts and $merge only, so it goes through MongoTemplate rather than MongoRepository
+@Repository
+@RequiredArgsConstructor
+public class PaymentRollupRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    public record Bucket(RollupGranularity granularity, Instant start) {
+    }
+
+    // buckets of one granularity starting in [from, to)
+    public record BucketRange(RollupGranularity granularity, Instant from, Instant to) {
+    }
+
+    // one round trip for all buckets; the upserts rely on ux_payment_rollups_bucket and are retried by the server
+    // when two writers create the same bucket concurrently
+    public void increment(Map<Bucket, BigDecimal> amounts) {
+        if (amounts.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PaymentRollup.class);
+        amounts.forEach((bucket, amount) -> bulk.upsert(
+                new Query(Criteria.where("granularity").is(bucket.granularity()).and("bucketStart").is(bucket.start())),
+                new Update().inc("total", new Decimal128(amount))));
+        bulk.execute();
+    }
+
+    // after an increment that failed or timed out: whether it was applied is unknown, so the buckets stop being read
+    public void markDirty(Collection<Bucket> buckets) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PaymentRollup.class);
+        buckets.forEach(bucket -> bulk.upsert(
+                new Query(Criteria.where("granularity").is(bucket.granularity()).and("bucketStart").is(bucket.start())),
+                new Update().inc("dirty", 1)));
+        bulk.execute();
+    }
+
+    public List<PaymentRollup> findDirty(Instant startedBefore) {
+        return mongoTemplate.find(
+                new Query(Criteria.where("dirty").exists(true).and("bucketStart").lt(startedBefore)),
+                PaymentRollup.class);
+    }
+
+    // applies only while no further failure marked the bucket since it was read, otherwise the next repair retries
+    public boolean repair(PaymentRollup bucket, BigDecimal total) {
+        return mongoTemplate.updateFirst(
+                new Query(Criteria.where("id").is(bucket.getId()).and("dirty").is(bucket.getDirty())),
+                new Update().set("total", new Decimal128(total)).unset("dirty"),
+                PaymentRollup.class).getModifiedCount() > 0;
+    }
+
+    public List<PaymentRollup> findBuckets(List<BucketRange> ranges) {
+        if (ranges.isEmpty()) {
+            return List.of();
+        }
+
+        Criteria[] criteria = ranges.stream()
+                .map(range -> Criteria.where("granularity").is(range.granularity())
+                        .and("bucketStart").gte(range.from()).lt(range.to()))
+                .toArray(Criteria[]::new);
+        return mongoTemplate.find(new Query(new Criteria().orOperator(criteria)), PaymentRollup.class);
+    }
+
+    // sets backfill_total of every bucket from the SUCCESS payments stored before the given instant; running it
+    // again overwrites the same values, and total maintained by increment() is left untouched
+    public void backfill(RollupGranularity granularity, Instant before) {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("status", PaymentStatus.SUCCESS.name())
+                        .append("timestamp", new Document("$lt", Date.from(before)))),
+                new Document("$group", new Document("_id", new Document("$dateTrunc", new Document("date", "$timestamp")
+                        .append("unit", granularity.mongoUnit())
+                        .append("timezone", "UTC")))
+                        .append("backfill_total", new Document("$sum", "$payment_amount"))),
+                new Document("$project", new Document("_id", 0)
+                        .append("granularity", new Document("$literal", granularity.name()))
+                        .append("bucket_start", "$_id")
+                        .append("backfill_total", 1)),
+                new Document("$merge", new Document("into", mongoTemplate.getCollectionName(PaymentRollup.class))
+                        .append("on", List.of("granularity", "bucket_start"))
+                        .append("whenMatched", List.of(new Document("$set",
+                                new Document("backfill_total", "$$new.backfill_total"))))
+                        .append("whenNotMatched", "insert")));
+
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Payment.class))
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .toCollection();
+    }
+
+    // the first caller fixes writes_since for every instance
+    public PaymentRollupState initState(Instant writesSince) {
+        return mongoTemplate.findAndModify(
+                new Query(Criteria.where("id").is(PaymentRollupState.ID)),
+                new Update().setOnInsert("writesSince", writesSince),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                PaymentRollupState.class);
+    }
+
+    public PaymentRollupState findState() {
+        return mongoTemplate.findById(PaymentRollupState.ID, PaymentRollupState.class);
+    }
+
+    public void markBackfilled(Instant at) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("id").is(PaymentRollupState.ID)),
+                new Update().set("backfilledAt", at),
+                PaymentRollupState.class);
+    }
+}
@@ -0,0 +1,26 @@
+package com.internship.payment_service.repository;
+
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentStatus;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+public interface ReactivePaymentRepository extends ReactiveMongoRepository<Payment, String> {
+
+    Mono<Payment> findByEventId(String eventId);
+
+    Flux<Payment> findByOrderId(Long orderId);
+    Flux<Payment> findByUserId(Long userId);
+    Flux<Payment> findByStatusIn(Collection<PaymentStatus> statuses);
+
+    @Aggregation(pipeline = {
+            "{ $match: { status: 'SUCCESS', timestamp: { $gte: ?0, $lte: ?1 } } }",
+            "{ $group: { _id: null, total: { $sum: '$payment_amount' } } }"
+    })
+    Mono<PaymentRepository.TotalAmountProjection> sumSuccessfulBetween(Instant from, Instant to);
+}
@@ -0,0 +1,31 @@
+package com.internship.payment_service.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// unique indexes on payments (see db/changelog) and which of them an E11000 error refers to
+public final class UniqueIndexes {
+
+    public static final String EVENT_ID = "ux_payments_event_id";
+    public static final String ONE_SUCCESS_PER_ORDER = "ux_payments_one_success_per_order";
+
+    private static final Pattern INDEX_NAME = Pattern.compile("index: (\\S+) dup key");
+
+    private UniqueIndexes() {
+    }
+
+    // null when the server message does not name the index
+    public static String violatedIndex(String errorMessage) {
+        if (errorMessage == null) {
+            return null;
+        }
+        Matcher matcher = INDEX_NAME.matcher(errorMessage);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    public static String violatedIndex(DuplicateKeyException ex) {
+        return violatedIndex(ex.getMessage());
+    }
+}
@@ -0,0 +1,163 @@
+package com.internship.payment_service.repository;
+
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentRollupState;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.entity.UserPaymentSummary;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+// user_payment_summaries is written with upserts and $merge only, like payment_rollups
+@Repository
+@RequiredArgsConstructor
+public class UserPaymentSummaryRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    // payments of one user and status from one write
+    public record Delta(Long userId, PaymentStatus status, long count, BigDecimal total, Instant firstAt,
+                        Instant lastAt) {
+    }
+
+    // one round trip; an upsert matches on _id, so two writers creating the same summary are retried by the server
+    public void increment(Collection<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserPaymentSummary.class);
+        for (Delta delta : deltas) {
+            String prefix = "statuses." + delta.status().name();
+            bulk.upsert(new Query(Criteria.where("userId").is(delta.userId())), new Update()
+                    .inc(prefix + ".count", delta.count())
+                    .inc(prefix + ".total", new Decimal128(delta.total()))
+                    .min("first_at", delta.firstAt())
+                    .max("last_at", delta.lastAt()));
+        }
+        bulk.execute();
+    }
+
+    public void markDirty(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserPaymentSummary.class);
+        userIds.forEach(userId -> bulk.upsert(new Query(Criteria.where("userId").is(userId)), new Update().inc("dirty", 1)));
+        bulk.execute();
+    }
+
+    public List<UserPaymentSummary> findDirty() {
+        return mongoTemplate.find(new Query(Criteria.where("dirty").exists(true)), UserPaymentSummary.class);
+    }
+
+    // sets statuses to the totals in live, the user's payments from writes_since on as returned by summarize(); applies
+    // only while no further failure marked the user and no increment moved last_at since read was loaded
+    public boolean rebuild(UserPaymentSummary read, UserPaymentSummary live) {
+        Document statuses = new Document();
+        Update update = new Update().set("statuses", statuses).unset("dirty");
+        if (live != null) {
+            live.getBackfill().forEach((status, totals) -> statuses.append(status.name(),
+                    new Document("count", totals.getCount()).append("total", new Decimal128(totals.getTotal()))));
+            update.min("first_at", live.getFirstAt()).max("last_at", live.getLastAt());
+        }
+        return mongoTemplate.updateFirst(
+                new Query(Criteria.where("userId").is(read.getUserId())
+                        .and("dirty").is(read.getDirty())
+                        .and("last_at").is(read.getLastAt())),
+                update,
+                UserPaymentSummary.class).getModifiedCount() > 0;
+    }
+
+    public UserPaymentSummary findById(Long userId) {
+        return mongoTemplate.findById(userId, UserPaymentSummary.class);
+    }
+
+    // computed from payments, with the totals in backfill; for reads before the backfill finished
+    public UserPaymentSummary summarize(Long userId) {
+        return summarize(new Document("user_id", userId));
+    }
+
+    // the same for the payments from the given instant on, which is what statuses holds
+    public UserPaymentSummary summarizeSince(Long userId, Instant since) {
+        return summarize(new Document("user_id", userId).append("timestamp", new Document("$gte", Date.from(since))));
+    }
+
+    private UserPaymentSummary summarize(Document match) {
+        Document summary = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Payment.class))
+                .aggregate(summaryStages(match))
+                .first();
+        return summary == null ? null : mongoTemplate.getConverter().read(UserPaymentSummary.class, summary);
+    }
+
+    // sets backfill of every user from the payments stored before the given instant and widens first_at/last_at;
+    // running it again overwrites the same values, and statuses maintained by increment() is left untouched
+    public void backfill(Instant before) {
+        List<Document> pipeline = new ArrayList<>(summaryStages(
+                new Document("timestamp", new Document("$lt", Date.from(before)))));
+        Document widen = new Document("backfill", "$$new.backfill")
+                .append("first_at", new Document("$min", List.of("$first_at", "$$new.first_at")))
+                .append("last_at", new Document("$max", List.of("$last_at", "$$new.last_at")));
+        pipeline.add(new Document("$merge", new Document("into", mongoTemplate.getCollectionName(UserPaymentSummary.class))
+                .append("on", "_id")
+                .append("whenMatched", List.of(new Document("$set", widen)))
+                .append("whenNotMatched", "insert")));
+
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Payment.class))
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .toCollection();
+    }
+
+    // the first caller fixes writes_since for every instance
+    public PaymentRollupState initState(Instant writesSince) {
+        return mongoTemplate.findAndModify(
+                new Query(Criteria.where("id").is(PaymentRollupState.USER_SUMMARIES_ID)),
+                new Update().setOnInsert("writesSince", writesSince),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                PaymentRollupState.class);
+    }
+
+    public PaymentRollupState findState() {
+        return mongoTemplate.findById(PaymentRollupState.USER_SUMMARIES_ID, PaymentRollupState.class);
+    }
+
+    public void markBackfilled(Instant at) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("id").is(PaymentRollupState.USER_SUMMARIES_ID)),
+                new Update().set("backfilledAt", at),
+                PaymentRollupState.class);
+    }
+
+    // payments grouped into one summary document per user, shaped like UserPaymentSummary with the totals in backfill
+    private static List<Document> summaryStages(Document match) {
+        return List.of(
+                new Document("$match", match),
+                new Document("$group", new Document("_id", new Document("user", "$user_id").append("status", "$status"))
+                        .append("count", new Document("$sum", 1L))
+                        .append("total", new Document("$sum", "$payment_amount"))
+                        .append("first_at", new Document("$min", "$timestamp"))
+                        .append("last_at", new Document("$max", "$timestamp"))),
+                new Document("$group", new Document("_id", "$_id.user")
+                        .append("backfill", new Document("$push", new Document("k", "$_id.status")
+                                .append("v", new Document("count", "$count").append("total", "$total"))))
+                        .append("first_at", new Document("$min", "$first_at"))
+                        .append("last_at", new Document("$max", "$last_at"))),
+                new Document("$set", new Document("backfill", new Document("$arrayToObject", "$backfill"))));
+    }
+}
@@ -0,0 +1,145 @@
+package com.internship.payment_service.rollup;
+
+import java.util.Arrays;
+
+// Sliding window of fixed time slots over a ring of primitive arrays. A Fenwick tree over the slot totals answers
+// whole slots in O(log n); the two partial slots at the ends of a range are answered from the (timestamp, amount)
+// pairs kept per slot, so any millisecond range inside the window is exact. Not thread-safe.
+final class FenwickTimeIndex {
+
+    private final long slotMillis;
+    private final int slots;
+    private final long[] tree;
+    private final long[] slotTotals;
+    private final long[][] slotEntries;
+    private final int[] slotSizes;
+
+    // absolute number (epoch millis / slotMillis) of the newest slot; the window is (head - slots, head]
+    private long head;
+
+    FenwickTimeIndex(long slotMillis, int slots, long startMillis) {
+        if (slotMillis <= 0 || slots <= 0) {
+            throw new IllegalArgumentException("slotMillis and slots must be positive");
+        }
+        this.slotMillis = slotMillis;
+        this.slots = slots;
+        this.tree = new long[slots + 1];
+        this.slotTotals = new long[slots];
+        this.slotEntries = new long[slots][];
+        this.slotSizes = new int[slots];
+        this.head = Math.floorDiv(startMillis, slotMillis);
+    }
+
+    // returns false when the timestamp is older than the window
+    boolean add(long epochMillis, long amount) {
+        long slot = Math.floorDiv(epochMillis, slotMillis);
+        if (slot > head) {
+            advance(slot);
+        } else if (slot <= head - slots) {
+            return false;
+        }
+
+        int ring = ring(slot);
+        long[] entries = slotEntries[ring];
+        int size = slotSizes[ring];
+        if (entries == null) {
+            entries = new long[8];
+        } else if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        entries[size] = epochMillis;
+        entries[size + 1] = amount;
+        slotEntries[ring] = entries;
+        slotSizes[ring] = size + 2;
+
+        slotTotals[ring] += amount;
+        update(ring, amount);
+        return true;
+    }
+
+    boolean covers(long fromMillis) {
+        return Math.floorDiv(fromMillis, slotMillis) > head - slots;
+    }
+
+    // sum over [fromMillis, toMillis], both inclusive; the caller checks covers(fromMillis) first
+    long sum(long fromMillis, long toMillis) {
+        if (fromMillis > toMillis) {
+            return 0;
+        }
+        long first = Math.floorDiv(fromMillis, slotMillis);
+        long last = Math.floorDiv(toMillis, slotMillis);
+        if (first > head) {
+            return 0;
+        }
+        if (last > head) {
+            // nothing was added after head, so the range is complete up to the newest slot
+            last = head;
+            toMillis = Long.MAX_VALUE;
+        }
+
+        if (first == last) {
+            return partial(first, fromMillis, toMillis);
+        }
+        return partial(first, fromMillis, Long.MAX_VALUE)
+                + slotRange(first + 1, last - 1)
+                + partial(last, Long.MIN_VALUE, toMillis);
+    }
+
+    private long partial(long slot, long fromMillis, long toMillis) {
+        int ring = ring(slot);
+        long[] entries = slotEntries[ring];
+        long total = 0;
+        for (int i = 0; i < slotSizes[ring]; i += 2) {
+            if (entries[i] >= fromMillis && entries[i] <= toMillis) {
+                total += entries[i + 1];
+            }
+        }
+        return total;
+    }
+
+    // whole slots first..last; the ring may wrap between them
+    private long slotRange(long first, long last) {
+        if (first > last) {
+            return 0;
+        }
+        int from = ring(first);
+        int to = ring(last);
+        if (from <= to) {
+            return prefix(to) - prefix(from - 1);
+        }
+        return prefix(slots - 1) - prefix(from - 1) + prefix(to);
+    }
+
+    private void advance(long slot) {
+        long clearFrom = Math.max(head + 1, slot - slots + 1);
+        for (long s = clearFrom; s <= slot; s++) {
+            int ring = ring(s);
+            if (slotTotals[ring] != 0) {
+                update(ring, -slotTotals[ring]);
+                slotTotals[ring] = 0;
+            }
+            slotEntries[ring] = null;
+            slotSizes[ring] = 0;
+        }
+        head = slot;
+    }
+
+    private int ring(long slot) {
+        return (int) Math.floorMod(slot, (long) slots);
+    }
+
+    private void update(int index, long delta) {
+        for (int i = index + 1; i <= slots; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // sum of ring slots 0..index
+    private long prefix(int index) {
+        long total = 0;
+        for (int i = index + 1; i > 0; i -= i & -i) {
+            total += tree[i];
+        }
+        return total;
+    }
+}
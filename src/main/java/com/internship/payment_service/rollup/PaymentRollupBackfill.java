@@ -0,0 +1,44 @@
+package com.internship.payment_service.rollup;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// until a backfill finished total_sum and the user summaries keep scanning payments; every instance may run them,
+// the result is the same
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.rollups", name = {"enabled", "backfill-on-startup"}, havingValue = "true", matchIfMissing = true)
+public class PaymentRollupBackfill {
+
+    private final PaymentRollupService rollupService;
+    private final UserPaymentSummaryService userSummaries;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Thread.ofVirtual().name("payment-rollup-backfill").start(() -> {
+            try {
+                if (!rollupService.isBackfilled()) {
+                    rollupService.backfill();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                log.warn("Payment rollup backfill failed, total_sum keeps scanning payments: {}", ex.getMessage());
+            }
+            try {
+                if (!userSummaries.isBackfilled()) {
+                    userSummaries.backfill();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                log.warn("User payment summary backfill failed, summaries keep aggregating payments: {}", ex.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package com.internship.payment_service.rollup;
+
+import com.internship.payment_service.config.RollupProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// recomputes what a failed increment left behind, in payment_rollups and user_payment_summaries; every instance may
+// run it, a repair only applies to a bucket or user that was not marked again in between
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.rollups", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PaymentRollupRepair {
+
+    private final PaymentRollupService rollupService;
+    private final UserPaymentSummaryService userSummaries;
+    private final RollupProperties props;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = Thread.ofVirtual().name("payment-rollup-repair").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(props.getRepairInterval().toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                rollupService.repair();
+            } catch (RuntimeException ex) {
+                log.warn("Payment rollup repair failed, dirty buckets stay unread: {}", ex.getMessage());
+            }
+            try {
+                userSummaries.repair();
+            } catch (RuntimeException ex) {
+                log.warn("User payment summary repair failed, dirty users stay aggregated: {}", ex.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.internship.payment_service.rollup;
+
+import com.internship.payment_service.config.RollupProperties;
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentRollup;
+import com.internship.payment_service.entity.PaymentRollupState;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.entity.RollupGranularity;
+import com.internship.payment_service.repository.PaymentRepository;
+import com.internship.payment_service.repository.PaymentRollupRepository;
+import com.internship.payment_service.repository.PaymentRollupRepository.Bucket;
+import com.internship.payment_service.repository.PaymentRollupRepository.BucketRange;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentRollupService {
+
+    // coarsest first: a range takes whole days, then whole hours, then minutes at both ends
+    private static final RollupGranularity[] LEVELS = {RollupGranularity.DAY, RollupGranularity.HOUR, RollupGranularity.MINUTE};
+
+    private final PaymentRollupRepository rollups;
+    private final PaymentRepository payments;
+    private final RollupProperties props;
+
+    private volatile Instant writesSince;
+    private volatile boolean backfilled;
+
+    // buckets whose increment failed while marking them dirty failed as well; flushed by repair()
+    private final Set<Bucket> unmarked = ConcurrentHashMap.newKeySet();
+
+    // called after the payments were stored; a failed increment never fails the payment, it marks the buckets dirty
+    // so reads fall back to the aggregation until repair() recomputed them
+    public void record(List<Payment> saved) {
+        if (!props.isEnabled()) {
+            return;
+        }
+
+        Map<Bucket, BigDecimal> amounts = null;
+        try {
+            amounts = amounts(saved, writesSince());
+            rollups.increment(amounts);
+        } catch (RuntimeException ex) {
+            log.warn("Payment rollups were not incremented for {} payments, marking the buckets for repair: {}",
+                    saved.size(), ex.getMessage());
+            // without writes_since every bucket is marked; repair() leaves the part before it to backfill_total
+            markDirty(amounts != null ? amounts.keySet() : amounts(saved, Instant.MIN).keySet());
+        }
+    }
+
+    private static Map<Bucket, BigDecimal> amounts(List<Payment> saved, Instant since) {
+        Map<Bucket, BigDecimal> amounts = new HashMap<>();
+        for (Payment payment : saved) {
+            if (payment.getStatus() != PaymentStatus.SUCCESS || payment.getTimestamp().isBefore(since)) {
+                continue;
+            }
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                amounts.merge(new Bucket(granularity, granularity.floor(payment.getTimestamp())),
+                        payment.getPaymentAmount(), BigDecimal::add);
+            }
+        }
+        return amounts;
+    }
+
+    private void markDirty(Set<Bucket> buckets) {
+        try {
+            rollups.markDirty(buckets);
+        } catch (RuntimeException ex) {
+            // held in memory only: total_sum on this instance scans payments until the marks are written
+            unmarked.addAll(buckets);
+            log.error("Payment rollup buckets could not be marked dirty, {} kept for the next repair: {}",
+                    unmarked.size(), ex.getMessage());
+        }
+    }
+
+    // recomputes total of every dirty bucket that closed more than grace ago, i.e. once no insert timestamped inside
+    // it can still be in flight; younger dirty buckets stay unread until a later run
+    public int repair() {
+        if (!props.isEnabled()) {
+            return 0;
+        }
+
+        if (!unmarked.isEmpty()) {
+            Set<Bucket> pending = Set.copyOf(unmarked);
+            rollups.markDirty(pending);
+            unmarked.removeAll(pending);
+        }
+
+        Instant since = writesSince();
+        Instant closedBefore = Instant.now().minus(props.getGrace());
+        int repaired = 0;
+        for (PaymentRollup bucket : rollups.findDirty(closedBefore)) {
+            Instant end = bucket.getGranularity().end(bucket.getBucketStart());
+            if (end.isAfter(closedBefore)) {
+                continue;
+            }
+            // total only holds payments from writes_since on, older ones are in backfill_total
+            Instant start = bucket.getBucketStart().isBefore(since) ? since : bucket.getBucketStart();
+            BigDecimal total = start.isBefore(end) ? sum(payments.sumSuccessfulFromUntil(start, end)) : BigDecimal.ZERO;
+            if (rollups.repair(bucket, total)) {
+                repaired++;
+            }
+        }
+        if (repaired > 0) {
+            log.info("Repaired {} payment rollup buckets", repaired);
+        }
+        return repaired;
+    }
+
+    // same result as sumSuccessfulBetween(from, to): whole minute buckets inside the range plus a scan of
+    // [from, first minute) and [last minute, to]; empty until the backfill finished and while a bucket is dirty
+    public Optional<BigDecimal> totalBetween(Instant from, Instant to) {
+        if (!props.isEnabled() || !isBackfilled() || !unmarked.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Instant start = RollupGranularity.MINUTE.ceil(from);
+        Instant end = RollupGranularity.MINUTE.floor(to);
+        if (start.isAfter(end)) {
+            return Optional.empty();
+        }
+
+        List<BucketRange> ranges = new ArrayList<>();
+        cover(start, end, 0, ranges);
+
+        BigDecimal total = sum(payments.sumSuccessfulBetween(end, to));
+        if (from.isBefore(start)) {
+            total = total.add(sum(payments.sumSuccessfulFromUntil(from, start)));
+        }
+        for (PaymentRollup rollup : rollups.findBuckets(ranges)) {
+            if (rollup.isDirty()) {
+                return Optional.empty();
+            }
+            total = total.add(rollup.amount());
+        }
+        return Optional.of(total);
+    }
+
+    // from and to are minute aligned
+    static void cover(Instant from, Instant to, int level, List<BucketRange> out) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        RollupGranularity granularity = LEVELS[level];
+        if (granularity == RollupGranularity.MINUTE) {
+            out.add(new BucketRange(granularity, from, to));
+            return;
+        }
+
+        Instant start = granularity.ceil(from);
+        Instant end = granularity.floor(to);
+        if (!start.isBefore(end)) {
+            cover(from, to, level + 1, out);
+            return;
+        }
+        cover(from, start, level + 1, out);
+        out.add(new BucketRange(granularity, start, end));
+        cover(end, to, level + 1, out);
+    }
+
+    // blocks until inserts timestamped before writes_since can no longer be in flight
+    public void backfill() throws InterruptedException {
+        Instant since = writesSince();
+        Duration wait = Duration.between(Instant.now(), since.plus(props.getGrace()));
+        if (!wait.isNegative()) {
+            log.info("Payment rollup backfill starts in {}s", wait.toSeconds());
+            Thread.sleep(wait.toMillis());
+        }
+
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            rollups.backfill(granularity, since);
+        }
+        rollups.markBackfilled(Instant.now());
+        backfilled = true;
+        log.info("Payment rollups backfilled up to {}", since);
+    }
+
+    public boolean isBackfilled() {
+        if (!backfilled) {
+            PaymentRollupState state = rollups.findState();
+            backfilled = state != null && state.getBackfilledAt() != null;
+        }
+        return backfilled;
+    }
+
+    private Instant writesSince() {
+        Instant since = writesSince;
+        if (since == null) {
+            since = rollups.initState(Instant.now().plus(props.getGrace())).getWritesSince();
+            writesSince = since;
+        }
+        return since;
+    }
+
+    private static BigDecimal sum(List<PaymentRepository.TotalAmountProjection> rows) {
+        BigDecimal total = rows.isEmpty() ? null : rows.get(0).getTotal();
+        return total == null ? BigDecimal.ZERO : total;
+    }
+}
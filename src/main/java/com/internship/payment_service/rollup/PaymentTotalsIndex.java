@@ -0,0 +1,115 @@
+package com.internship.payment_service.rollup;
+
+import com.internship.payment_service.config.RollupProperties;
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// In-process SUCCESS totals over the last app.rollups.in-memory.window. Payments created from construction on are
+// added by record(); older ones in the window are loaded by build(). totalBetween() is empty until the build
+// finished, for ranges starting before the window, and after an amount did not fit the configured scale.
+@Slf4j
+@Component
+public class PaymentTotalsIndex {
+
+    private final PaymentRepository repository;
+    private final RollupProperties.InMemory props;
+    private final FenwickTimeIndex index;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // every payment this instance creates is timestamped after this, so the build reads strictly before it
+    private final Instant liveSince;
+    private volatile boolean ready;
+    private volatile boolean broken;
+
+    public PaymentTotalsIndex(PaymentRepository repository, RollupProperties props) {
+        this.repository = repository;
+        this.props = props.getInMemory();
+        this.liveSince = Instant.now();
+
+        long slotMillis = this.props.getSlot().toMillis();
+        int slots = this.props.isEnabled() ? Math.toIntExact(this.props.getWindow().toMillis() / slotMillis) + 1 : 1;
+        this.index = new FenwickTimeIndex(slotMillis, slots, liveSince.toEpochMilli());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!props.isEnabled()) {
+            return;
+        }
+        Thread.ofVirtual().name("payment-totals-index").start(() -> {
+            try (Stream<Payment> payments = repository.streamSuccessfulAmounts(liveSince.minus(props.getWindow()), liveSince)) {
+                build(payments);
+            } catch (RuntimeException ex) {
+                log.warn("Payment totals index was not built, total_sum keeps using Mongo: {}", ex.getMessage());
+            }
+        });
+    }
+
+    void build(Stream<Payment> payments) {
+        long loaded = 0;
+        Iterator<Payment> iterator = payments.iterator();
+        while (iterator.hasNext()) {
+            add(iterator.next());
+            loaded++;
+        }
+        ready = true;
+        log.info("Payment totals index built from {} payments", loaded);
+    }
+
+    public void record(Payment payment) {
+        if (props.isEnabled() && payment.getStatus() == PaymentStatus.SUCCESS) {
+            add(payment);
+        }
+    }
+
+    public Optional<BigDecimal> totalBetween(Instant from, Instant to) {
+        if (!ready || broken) {
+            return Optional.empty();
+        }
+
+        long fromMillis = from.toEpochMilli();
+        lock.readLock().lock();
+        try {
+            if (!index.covers(fromMillis)) {
+                return Optional.empty();
+            }
+            return Optional.of(BigDecimal.valueOf(index.sum(fromMillis, to.toEpochMilli()), props.getScale()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Payment payment) {
+        long minor;
+        try {
+            minor = payment.getPaymentAmount().movePointRight(props.getScale()).longValueExact();
+        } catch (ArithmeticException ex) {
+            if (!broken) {
+                log.warn("Payment amount {} does not fit scale {}, payment totals index disabled",
+                        payment.getPaymentAmount(), props.getScale());
+            }
+            broken = true;
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            index.add(payment.getTimestamp().toEpochMilli(), minor);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
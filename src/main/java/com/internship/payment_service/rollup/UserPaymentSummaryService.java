@@ -0,0 +1,204 @@
+package com.internship.payment_service.rollup;
+
+import com.internship.payment_service.config.RollupProperties;
+import com.internship.payment_service.dto.UserPaymentSummaryResponse;
+import com.internship.payment_service.dto.UserPaymentSummaryResponse.StatusSummary;
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentRollupState;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.entity.UserPaymentSummary;
+import com.internship.payment_service.entity.UserPaymentSummary.StatusTotals;
+import com.internship.payment_service.repository.UserPaymentSummaryRepository;
+import com.internship.payment_service.repository.UserPaymentSummaryRepository.Delta;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// Per-user counts and sums by status, maintained the same way as the time-bucket rollups: writes from writes_since on
+// are added with $inc, older payments are summed once by the backfill, and until it finished reads aggregate payments.
+// A user whose increment failed is marked dirty and read from payments until repair() rebuilt the summary.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserPaymentSummaryService {
+
+    private final UserPaymentSummaryRepository summaries;
+    private final RollupProperties props;
+
+    private volatile Instant writesSince;
+    private volatile boolean backfilled;
+
+    // users whose increment failed while marking them dirty failed as well; flushed by repair()
+    private final Set<Long> unmarked = ConcurrentHashMap.newKeySet();
+
+    private record Key(Long userId, PaymentStatus status) {
+    }
+
+    // called after the payments were stored; a failed increment never fails the payment, it marks the users dirty
+    public void record(List<Payment> saved) {
+        if (!props.isEnabled()) {
+            return;
+        }
+
+        Map<Key, Delta> deltas = null;
+        try {
+            deltas = deltas(saved, writesSince());
+            summaries.increment(deltas.values());
+        } catch (RuntimeException ex) {
+            log.warn("User payment summaries were not incremented for {} payments, marking the users for repair: {}",
+                    saved.size(), ex.getMessage());
+            // without writes_since every user is marked; a rebuild only recomputes statuses, so that is harmless
+            Map<Key, Delta> missed = deltas != null ? deltas : deltas(saved, Instant.MIN);
+            markDirty(missed.keySet().stream().map(Key::userId).collect(Collectors.toSet()));
+        }
+    }
+
+    private static Map<Key, Delta> deltas(List<Payment> saved, Instant since) {
+        Map<Key, Delta> deltas = new HashMap<>();
+        for (Payment payment : saved) {
+            if (payment.getUserId() == null || payment.getTimestamp().isBefore(since)) {
+                continue;
+            }
+            Instant at = payment.getTimestamp();
+            deltas.merge(new Key(payment.getUserId(), payment.getStatus()),
+                    new Delta(payment.getUserId(), payment.getStatus(), 1, payment.getPaymentAmount(), at, at),
+                    (a, b) -> new Delta(a.userId(), a.status(), a.count() + 1, a.total().add(b.total()),
+                            a.firstAt().isBefore(b.firstAt()) ? a.firstAt() : b.firstAt(),
+                            a.lastAt().isAfter(b.lastAt()) ? a.lastAt() : b.lastAt()));
+        }
+        return deltas;
+    }
+
+    private void markDirty(Set<Long> userIds) {
+        try {
+            summaries.markDirty(userIds);
+        } catch (RuntimeException ex) {
+            // held in memory only: summary() on this instance aggregates payments until the marks are written
+            unmarked.addAll(userIds);
+            log.error("User payment summaries could not be marked dirty, {} users kept for the next repair: {}",
+                    unmarked.size(), ex.getMessage());
+        }
+    }
+
+    // rebuilds every dirty user that can be rebuilt now, see rebuild()
+    public int repair() {
+        if (!props.isEnabled()) {
+            return 0;
+        }
+
+        if (!unmarked.isEmpty()) {
+            Set<Long> pending = Set.copyOf(unmarked);
+            summaries.markDirty(pending);
+            unmarked.removeAll(pending);
+        }
+
+        int rebuilt = 0;
+        for (UserPaymentSummary dirty : summaries.findDirty()) {
+            if (rebuild(dirty)) {
+                rebuilt++;
+            }
+        }
+        if (rebuilt > 0) {
+            log.info("Rebuilt {} user payment summaries", rebuilt);
+        }
+        return rebuilt;
+    }
+
+    public boolean rebuild(Long userId) {
+        UserPaymentSummary read = summaries.findById(userId);
+        return read != null && rebuild(read);
+    }
+
+    // sets statuses from the user's payments since writes_since. Skipped while the user has a payment younger than
+    // grace, whose increment may still be in flight; an increment landing after the summary was read moves last_at
+    // and the rebuild does not apply, one landing after the rebuild is for a payment the aggregation did not see.
+    private boolean rebuild(UserPaymentSummary read) {
+        UserPaymentSummary live = summaries.summarizeSince(read.getUserId(), writesSince());
+        if (live != null && live.getLastAt().isAfter(Instant.now().minus(props.getGrace()))) {
+            return false;
+        }
+        return summaries.rebuild(read, live);
+    }
+
+    public UserPaymentSummaryResponse summary(Long userId) {
+        UserPaymentSummary summary = props.isEnabled() && isBackfilled() && !unmarked.contains(userId)
+                ? summaries.findById(userId)
+                : summaries.summarize(userId);
+        if (summary != null && summary.isDirty()) {
+            summary = summaries.summarize(userId);
+        }
+
+        Map<PaymentStatus, StatusSummary> byStatus = new EnumMap<>(PaymentStatus.class);
+        long count = 0;
+        for (PaymentStatus status : PaymentStatus.values()) {
+            StatusSummary total = new StatusSummary(0, BigDecimal.ZERO);
+            if (summary != null) {
+                add(total, summary.getStatuses(), status);
+                add(total, summary.getBackfill(), status);
+            }
+            byStatus.put(status, total);
+            count += total.getCount();
+        }
+        return UserPaymentSummaryResponse.builder()
+                .userId(userId)
+                .count(count)
+                .byStatus(byStatus)
+                .firstPaymentAt(summary == null ? null : summary.getFirstAt())
+                .lastPaymentAt(summary == null ? null : summary.getLastAt())
+                .build();
+    }
+
+    // blocks until inserts timestamped before writes_since can no longer be in flight
+    public void backfill() throws InterruptedException {
+        Instant since = writesSince();
+        Duration wait = Duration.between(Instant.now(), since.plus(props.getGrace()));
+        if (!wait.isNegative()) {
+            log.info("User payment summary backfill starts in {}s", wait.toSeconds());
+            Thread.sleep(wait.toMillis());
+        }
+
+        summaries.backfill(since);
+        summaries.markBackfilled(Instant.now());
+        backfilled = true;
+        log.info("User payment summaries backfilled up to {}", since);
+    }
+
+    public boolean isBackfilled() {
+        if (!backfilled) {
+            PaymentRollupState state = summaries.findState();
+            backfilled = state != null && state.getBackfilledAt() != null;
+        }
+        return backfilled;
+    }
+
+    private Instant writesSince() {
+        Instant since = writesSince;
+        if (since == null) {
+            since = summaries.initState(Instant.now().plus(props.getGrace())).getWritesSince();
+            writesSince = since;
+        }
+        return since;
+    }
+
+    private static void add(StatusSummary into, Map<PaymentStatus, StatusTotals> totals, PaymentStatus status) {
+        StatusTotals part = totals == null ? null : totals.get(status);
+        if (part == null) {
+            return;
+        }
+        into.setCount(into.getCount() + part.getCount());
+        if (part.getTotal() != null) {
+            into.setTotal(into.getTotal().add(part.getTotal()));
+        }
+    }
+}
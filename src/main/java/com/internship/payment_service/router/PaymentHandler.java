@@ -0,0 +1,153 @@
+package com.internship.payment_service.router;
+
+import com.internship.payment_service.dto.PaymentRequest;
+import com.internship.payment_service.dto.PaymentResponse;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.exception.ApiError;
+import com.internship.payment_service.exception.RandomApiUnavailableException;
+import com.internship.payment_service.service.ReactivePaymentService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class PaymentHandler {
+
+    private final ReactivePaymentService paymentService;
+    private final Validator validator;
+
+    public Mono<ServerResponse> create(ServerRequest request) {
+        return request.bodyToMono(PaymentRequest.class)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Request body is required")))
+                .flatMap(body -> {
+                    Set<ConstraintViolation<PaymentRequest>> violations = validator.validate(body);
+                    if (!violations.isEmpty()) {
+                        List<String> errors = violations.stream()
+                                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                                .toList();
+                        return badRequest(request, "Validation error", errors);
+                    }
+                    return paymentService.create(body)
+                            .flatMap(created -> ServerResponse.status(HttpStatus.CREATED).bodyValue(created));
+                });
+    }
+
+    public Mono<ServerResponse> byOrder(ServerRequest request) {
+        Long orderId = Long.valueOf(request.pathVariable("orderId"));
+        return ok(paymentService.getByOrderId(orderId).collectList());
+    }
+
+    public Mono<ServerResponse> byUser(ServerRequest request) {
+        Long userId = Long.valueOf(request.pathVariable("userId"));
+        return ok(paymentService.getByUserId(userId).collectList());
+    }
+
+    public Mono<ServerResponse> byStatuses(ServerRequest request) {
+        Set<PaymentStatus> statuses = statuses(request);
+        if (statuses.isEmpty()) {
+            return badRequest(request, "Missing parameter: statuses", null);
+        }
+        return ok(paymentService.getByStatuses(statuses).collectList());
+    }
+
+    // NDJSON variants: documents are written as the cursor yields them, bounded by backpressure
+    public Mono<ServerResponse> streamByOrder(ServerRequest request) {
+        Long orderId = Long.valueOf(request.pathVariable("orderId"));
+        return ndjson(paymentService.getByOrderId(orderId));
+    }
+
+    public Mono<ServerResponse> streamByUser(ServerRequest request) {
+        Long userId = Long.valueOf(request.pathVariable("userId"));
+        return ndjson(paymentService.getByUserId(userId));
+    }
+
+    public Mono<ServerResponse> streamByStatuses(ServerRequest request) {
+        Set<PaymentStatus> statuses = statuses(request);
+        if (statuses.isEmpty()) {
+            return badRequest(request, "Missing parameter: statuses", null);
+        }
+        return ndjson(paymentService.getByStatuses(statuses));
+    }
+
+    public Mono<ServerResponse> total(ServerRequest request) {
+        String from = request.queryParam("from").orElse(null);
+        if (from == null) {
+            return badRequest(request, "Missing parameter: from", null);
+        }
+        String to = request.queryParam("to").orElse(null);
+        if (to == null) {
+            return badRequest(request, "Missing parameter: to", null);
+        }
+        return paymentService.getTotalBetween(Instant.parse(from), Instant.parse(to))
+                .flatMap(total -> ServerResponse.ok().bodyValue(total));
+    }
+
+    public Mono<ServerResponse> handleError(Throwable ex, ServerRequest request) {
+        if (ex instanceof IllegalArgumentException
+                || ex instanceof DateTimeParseException
+                || ex instanceof DecodingException
+                || ex instanceof ServerWebInputException) {
+            return badRequest(request, ex.getMessage(), null);
+        }
+        if (ex instanceof RandomApiUnavailableException) {
+            return error(HttpStatus.BAD_GATEWAY, ex.getMessage(), request, null);
+        }
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), request, null);
+    }
+
+    // same binding as @RequestParam Set<PaymentStatus>: repeated and comma-separated values are both accepted
+    private Set<PaymentStatus> statuses(ServerRequest request) {
+        return request.queryParams().getOrDefault("statuses", List.of()).stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(PaymentStatus::valueOf)
+                .collect(Collectors.toSet());
+    }
+
+    private Mono<ServerResponse> ndjson(Flux<PaymentResponse> payments) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(payments, PaymentResponse.class);
+    }
+
+    private Mono<ServerResponse> ok(Mono<List<PaymentResponse>> payments) {
+        return payments.flatMap(list -> ServerResponse.ok().bodyValue(list));
+    }
+
+    private Mono<ServerResponse> badRequest(ServerRequest request, String msg, List<String> errors) {
+        return error(HttpStatus.BAD_REQUEST, msg, request, errors);
+    }
+
+    private Mono<ServerResponse> error(HttpStatus status, String msg, ServerRequest request, List<String> errors) {
+        ApiError body = ApiError.builder()
+                .timestamp(LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(msg)
+                .path(request.path())
+                .errors(errors)
+                .build();
+        return ServerResponse.status(status).bodyValue(body);
+    }
+}
@@ -0,0 +1,32 @@
+package com.internship.payment_service.router;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.accept;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class PaymentRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> paymentRoutes(PaymentHandler handler) {
+        return route()
+                .path("/api/v1/payments", builder -> builder
+                        .POST("", handler::create)
+                        .GET("/order/{orderId}", accept(MediaType.APPLICATION_NDJSON), handler::streamByOrder)
+                        .GET("/user/{userId}", accept(MediaType.APPLICATION_NDJSON), handler::streamByUser)
+                        .GET("/statuses", accept(MediaType.APPLICATION_NDJSON), handler::streamByStatuses)
+                        .GET("/order/{orderId}", handler::byOrder)
+                        .GET("/user/{userId}", handler::byUser)
+                        .GET("/statuses", handler::byStatuses)
+                        .GET("/total_sum", handler::total))
+                .onError(Exception.class, handler::handleError)
+                .build();
+    }
+}
@@ -1,23 +1,42 @@
 package com.internship.payment_service.service;
 
+import com.internship.payment_service.dto.PaymentPageResponse;
 import com.internship.payment_service.dto.PaymentRequest;
 import com.internship.payment_service.dto.PaymentResponse;
 import com.internship.payment_service.dto.PaymentTotalSumResponse;
+import com.internship.payment_service.dto.UserPaymentSummaryResponse;
 import com.internship.payment_service.entity.PaymentStatus;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 public interface PaymentService {
 
     PaymentResponse create(PaymentRequest request);
 
+    List<PaymentResponse> createBatch(List<PaymentRequest> requests);
+
     List<PaymentResponse> getByOrderId(Long orderId);
 
     List<PaymentResponse> getByUserId(Long userId);
 
     List<PaymentResponse> getByStatuses(Set<PaymentStatus> statuses);
 
+    Stream<PaymentResponse> streamByOrderId(Long orderId);
+
+    Stream<PaymentResponse> streamByUserId(Long userId);
+
+    Stream<PaymentResponse> streamByStatuses(Set<PaymentStatus> statuses);
+
+    PaymentPageResponse getPageByOrderId(Long orderId, String cursor, int limit);
+
+    PaymentPageResponse getPageByUserId(Long userId, String cursor, int limit);
+
+    PaymentPageResponse getPageByStatuses(Set<PaymentStatus> statuses, String cursor, int limit);
+
     PaymentTotalSumResponse getTotalBetween(Instant from, Instant to);
+
+    UserPaymentSummaryResponse getUserSummary(Long userId);
 }
@@ -0,0 +1,24 @@
+package com.internship.payment_service.service;
+
+import com.internship.payment_service.dto.PaymentRequest;
+import com.internship.payment_service.dto.PaymentResponse;
+import com.internship.payment_service.dto.PaymentTotalSumResponse;
+import com.internship.payment_service.entity.PaymentStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Set;
+
+public interface ReactivePaymentService {
+
+    Mono<PaymentResponse> create(PaymentRequest request);
+
+    Flux<PaymentResponse> getByOrderId(Long orderId);
+
+    Flux<PaymentResponse> getByUserId(Long userId);
+
+    Flux<PaymentResponse> getByStatuses(Set<PaymentStatus> statuses);
+
+    Mono<PaymentTotalSumResponse> getTotalBetween(Instant from, Instant to);
+}
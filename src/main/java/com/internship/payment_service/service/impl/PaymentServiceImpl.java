@@ -1,25 +1,49 @@
 package com.internship.payment_service.service.impl;
 
+import com.internship.payment_service.dto.PageCursor;
+import com.internship.payment_service.dto.PaymentPageResponse;
 import com.internship.payment_service.dto.PaymentRequest;
 import com.internship.payment_service.dto.PaymentResponse;
 import com.internship.payment_service.dto.PaymentTotalSumResponse;
+import com.internship.payment_service.dto.UserPaymentSummaryResponse;
+import com.internship.payment_service.cache.PaymentReadCache;
+import com.internship.payment_service.diagnostics.jfr.PaymentCreateEvent;
+import com.internship.payment_service.diagnostics.jfr.PaymentStageEvent;
 import com.internship.payment_service.entity.Payment;
 import com.internship.payment_service.entity.PaymentStatus;
 import com.internship.payment_service.exception.RandomApiUnavailableException;
 import com.internship.payment_service.external.RandomNumberClient;
-import com.internship.payment_service.kafka.PaymentEventsProducer;
-import com.internship.payment_service.kafka.dto.PaymentEvent;
+import com.internship.payment_service.idempotency.IdempotencyFilter;
+import com.internship.payment_service.idempotency.InFlightCreates;
 import com.internship.payment_service.mapper.PaymentMapper;
+import com.internship.payment_service.metrics.PaymentMetrics;
+import com.internship.payment_service.metrics.PaymentMetrics.Outcome;
+import com.internship.payment_service.metrics.PaymentMetrics.Stage;
 import com.internship.payment_service.repository.PaymentRepository;
+import com.internship.payment_service.repository.UniqueIndexes;
+import com.internship.payment_service.rollup.PaymentRollupService;
+import com.internship.payment_service.rollup.PaymentTotalsIndex;
+import com.internship.payment_service.rollup.UserPaymentSummaryService;
 import com.internship.payment_service.service.PaymentService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -27,62 +51,289 @@ public class PaymentServiceImpl implements PaymentService {
 
     private final PaymentRepository repository;
     private final PaymentMapper mapper;
-    private final PaymentEventsProducer paymentEventsProducer;
     private final RandomNumberClient randomNumberClient;
+    private final IdempotencyFilter idempotencyFilter;
+    private final InFlightCreates inFlightCreates;
+    private final PaymentRollupService paymentRollups;
+    private final PaymentTotalsIndex paymentTotalsIndex;
+    private final UserPaymentSummaryService userSummaries;
+    private final PaymentMetrics metrics;
+    private final PaymentReadCache readCache;
+
+    @Value("${app.payments.page.max-limit:500}")
+    private int maxPageLimit;
 
     @Override
     public PaymentResponse create(PaymentRequest request) {
-        if (StringUtils.hasText(request.getEventId())) {
+        String eventId = request.getEventId();
+        if (!StringUtils.hasText(eventId)) {
+            return createOnce(request);
+        }
+        return inFlightCreates.execute(eventId, () -> createOnce(request));
+    }
 
-            var existing = repository.findByEventId(request.getEventId());
-            if (existing.isPresent()) {
-                return mapper.toResponse(existing.get());
+    private PaymentResponse createOnce(PaymentRequest request) {
+        Long orderId = request.getOrderId();
+        String eventId = request.getEventId();
+        PaymentCreateEvent create = metrics.startCreate(orderId, eventId);
+        if (StringUtils.hasText(eventId)) {
+            PaymentStageEvent idempotency = metrics.startStage(Stage.IDEMPOTENCY, orderId);
+            PaymentResponse processed = findProcessed(eventId);
+            idempotency.finish(processed != null ? "hit" : "miss");
+            if (processed != null) {
+                metrics.created(create, Outcome.DUPLICATE);
+                return processed;
             }
         }
 
         Payment entity = mapper.toEntity(request);
+        PaymentStageEvent draw = metrics.startStage(Stage.RANDOM_API, orderId);
+        PaymentStatus drawn = drawStatus();
+        draw.finish(drawn == PaymentStatus.SUCCESS ? "success" : drawn == PaymentStatus.FAILED ? "failed" : "unavailable");
+        entity.setStatus(drawn != null ? drawn : PaymentStatus.FAILED);
+        entity.setTimestamp(Instant.now());
+        // the PaymentEvent is part of the same document write; PaymentOutboxRelay publishes it
+        entity.setEventPending(true);
 
-        PaymentStatus status;
-        try {
-            int rnd = randomNumberClient.get();
-            status = (rnd % 2 == 0) ? PaymentStatus.SUCCESS : PaymentStatus.FAILED;
-        } catch (RandomApiUnavailableException ex) {
-            status = PaymentStatus.FAILED;
+        // the unique indexes decide: ux_payments_event_id means the event was already processed,
+        // ux_payments_one_success_per_order means the order is paid and this payment is stored as FAILED instead
+        PaymentStageEvent insert = metrics.startStage(Stage.INSERT, orderId);
+        boolean alreadyPaid = false;
+        Payment saved;
+        while (true) {
+            try {
+                saved = repository.insert(entity);
+                break;
+            } catch (DuplicateKeyException ex) {
+                String index = UniqueIndexes.violatedIndex(ex);
+                if (!UniqueIndexes.ONE_SUCCESS_PER_ORDER.equals(index) && StringUtils.hasText(eventId)) {
+                    var winner = repository.findByEventId(eventId);
+                    if (winner.isPresent()) {
+                        insert.finish("duplicate");
+                        PaymentResponse response = remember(winner.get());
+                        metrics.created(create, Outcome.DUPLICATE);
+                        return response;
+                    }
+                }
+                if (!UniqueIndexes.EVENT_ID.equals(index) && entity.getStatus() == PaymentStatus.SUCCESS) {
+                    entity.setId(null);
+                    entity.setStatus(PaymentStatus.FAILED);
+                    alreadyPaid = true;
+                    continue;
+                }
+                throw ex;
+            }
         }
+        insert.finish(alreadyPaid ? "already_paid" : "inserted");
+        readCache.invalidate(saved);
+
+        // outside the insert try: the payment is stored, nothing below may turn into a second insert
+        PaymentStageEvent rollup = metrics.startStage(Stage.ROLLUP, orderId);
+        List<Payment> stored = List.of(saved);
+        paymentRollups.record(stored);
+        userSummaries.record(stored);
+        paymentTotalsIndex.record(saved);
+        rollup.finish("recorded");
 
-        if (status == PaymentStatus.SUCCESS &&
-                repository.existsByOrderIdAndStatus(entity.getOrderId(), PaymentStatus.SUCCESS)) {
-            status = PaymentStatus.FAILED;
+        PaymentResponse response = remember(saved);
+        metrics.created(create, alreadyPaid ? Outcome.ALREADY_PAID
+                : drawn == null ? Outcome.FALLBACK_FAILED
+                : saved.getStatus() == PaymentStatus.SUCCESS ? Outcome.SUCCESS : Outcome.FAILED);
+        return response;
+    }
+
+    // the stored response for an eventId seen before, or null for an event that still has to be processed
+    private PaymentResponse findProcessed(String eventId) {
+        PaymentResponse recent = idempotencyFilter.recent(eventId);
+        if (recent != null) {
+            return recent;
         }
-        entity.setStatus(status);
 
-        entity.setTimestamp(Instant.now());
+        // a read only pays off when the eventId was probably stored already; new events go straight to insert
+        if (isProbablyStored(eventId)) {
+            var existing = repository.findByEventId(eventId);
+            if (existing.isPresent()) {
+                return remember(existing.get());
+            }
+            idempotencyFilter.confirmAbsent(eventId);
+        }
+        return null;
+    }
 
-        entity = repository.save(entity);
+    private boolean isProbablyStored(String eventId) {
+        return idempotencyFilter.isWarmed() && idempotencyFilter.mightContain(eventId);
+    }
 
-        PaymentEvent event = PaymentEvent.builder()
-                .eventId(entity.getEventId())
-                .orderId(entity.getOrderId())
-                .paymentId(entity.getId())
-                .status(entity.getStatus())
-                .build();
-        paymentEventsProducer.send(event);
+    private PaymentResponse remember(Payment payment) {
+        PaymentResponse response = mapper.toResponse(payment);
+        if (StringUtils.hasText(payment.getEventId())) {
+            idempotencyFilter.remember(payment.getEventId(), response);
+        }
+        return response;
+    }
+
+    @Override
+    public List<PaymentResponse> createBatch(List<PaymentRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> eventIds = requests.stream()
+                .map(PaymentRequest::getEventId)
+                .filter(StringUtils::hasText)
+                .filter(this::isProbablyStored)
+                .collect(Collectors.toSet());
+        Map<String, Payment> byEventId = eventIds.isEmpty()
+                ? new HashMap<>()
+                : repository.findByEventIdIn(eventIds).stream()
+                        .collect(Collectors.toMap(Payment::getEventId, Function.identity(), (a, b) -> a, HashMap::new));
+
+        Payment[] results = new Payment[requests.size()];
+        List<Payment> toInsert = new ArrayList<>();
+        Set<Long> successOrders = new HashSet<>();
+        Instant now = Instant.now();
+
+        for (int i = 0; i < requests.size(); i++) {
+            PaymentRequest request = requests.get(i);
+            String eventId = request.getEventId();
+
+            // already stored, or repeated within the same batch
+            if (StringUtils.hasText(eventId) && byEventId.containsKey(eventId)) {
+                results[i] = byEventId.get(eventId);
+                continue;
+            }
+
+            Payment entity = mapper.toEntity(request);
+            entity.setId(new ObjectId().toHexString());
+            entity.setTimestamp(now);
+            entity.setEventPending(true);
+
+            if (StringUtils.hasText(eventId)) {
+                byEventId.put(eventId, entity);
+            }
+            results[i] = entity;
+            toInsert.add(entity);
+        }
+
+        int[] numbers = drawNumbers(toInsert.size());
+        for (int i = 0; i < toInsert.size(); i++) {
+            Payment entity = toInsert.get(i);
+            entity.setStatus(numbers != null && numbers[i] % 2 == 0 ? PaymentStatus.SUCCESS : PaymentStatus.FAILED);
+            // within the batch only the first SUCCESS per order can win; orders paid earlier are left to the index
+            if (entity.getStatus() == PaymentStatus.SUCCESS && !successOrders.add(entity.getOrderId())) {
+                entity.setStatus(PaymentStatus.FAILED);
+            }
+        }
+
+        // a payment downgraded to FAILED can only be rejected again by ux_payments_event_id, so this ends after two rounds
+        List<Payment> pending = toInsert;
+        while (!pending.isEmpty()) {
+            Map<Integer, String> rejected = repository.insertAllUnordered(pending);
+            List<Payment> inserted = new ArrayList<>();
+            List<Payment> retry = new ArrayList<>();
+            List<Payment> lostEventRace = new ArrayList<>();
+
+            for (int i = 0; i < pending.size(); i++) {
+                Payment payment = pending.get(i);
+                if (!rejected.containsKey(i)) {
+                    inserted.add(payment);
+                    paymentTotalsIndex.record(payment);
+                    readCache.invalidate(payment);
+                    continue;
+                }
+                String index = rejected.get(i);
+                if (UniqueIndexes.ONE_SUCCESS_PER_ORDER.equals(index) && payment.getStatus() == PaymentStatus.SUCCESS) {
+                    payment.setId(new ObjectId().toHexString());
+                    payment.setStatus(PaymentStatus.FAILED);
+                    retry.add(payment);
+                } else {
+                    lostEventRace.add(payment);
+                }
+            }
+
+            // counted per round, before anything below can throw: a redelivery resolves these rows to themselves
+            // as winners and would never count them
+            paymentRollups.record(inserted);
+            userSummaries.record(inserted);
+
+            resolveRejected(lostEventRace, results);
+            pending = retry;
+        }
+
+        return Arrays.stream(results)
+                .map(this::remember)
+                .toList();
+    }
+
+    // a concurrent writer won the unique index race: answer with its payment, as create() does for a known eventId
+    private void resolveRejected(List<Payment> rejected, Payment[] results) {
+        if (rejected.isEmpty()) {
+            return;
+        }
+
+        Map<String, Payment> winners = repository.findByEventIdIn(rejected.stream()
+                        .map(Payment::getEventId)
+                        .filter(StringUtils::hasText)
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Payment::getEventId, Function.identity(), (a, b) -> a));
+
+        List<Payment> unresolved = new ArrayList<>();
+        for (Payment payment : rejected) {
+            Payment winner = payment.getEventId() == null ? null : winners.get(payment.getEventId());
+            if (winner == null) {
+                unresolved.add(payment);
+                continue;
+            }
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] == payment) {
+                    results[i] = winner;
+                }
+            }
+        }
 
-        return mapper.toResponse(entity);
+        if (!unresolved.isEmpty()) {
+            throw new DuplicateKeyException("Payments rejected by a unique index: " + unresolved.stream()
+                    .map(Payment::getOrderId)
+                    .toList());
+        }
+    }
+
+    // null when the random API is unavailable; such payments are stored as FAILED
+    private PaymentStatus drawStatus() {
+        try {
+            int rnd = randomNumberClient.get();
+            return (rnd % 2 == 0) ? PaymentStatus.SUCCESS : PaymentStatus.FAILED;
+        } catch (RandomApiUnavailableException ex) {
+            return null;
+        }
+    }
+
+    // one random API call for the whole batch, so a poll pays one round trip and at most one timeout; null when the
+    // API is unavailable, and every payment of the batch is stored as FAILED
+    private int[] drawNumbers(int count) {
+        if (count == 0) {
+            return null;
+        }
+        try {
+            return randomNumberClient.getBatch(count);
+        } catch (RandomApiUnavailableException ex) {
+            return null;
+        }
     }
 
     @Override
     public List<PaymentResponse> getByOrderId(Long orderId) {
-        return repository.findByOrderId(orderId).stream()
+        return readCache.byOrderId(orderId, id -> repository.findByOrderId(id).stream()
                 .map(mapper::toResponse)
-                .toList();
+                .toList());
     }
 
     @Override
     public List<PaymentResponse> getByUserId(Long userId) {
-        return repository.findByUserId(userId).stream()
+        return readCache.byUserId(userId, id -> repository.findByUserId(id).stream()
                 .map(mapper::toResponse)
-                .toList();
+                .toList());
     }
 
     @Override
@@ -93,16 +344,85 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     @Override
-    public PaymentTotalSumResponse getTotalBetween(Instant from, Instant to) {
-        List<PaymentRepository.TotalAmountProjection> rows = repository.sumSuccessfulBetween(from, to);
-        BigDecimal total = rows.isEmpty() ? BigDecimal.ZERO : rows.get(0).getTotal();
-        if (total == null) {
-            total = BigDecimal.ZERO;
+    public Stream<PaymentResponse> streamByOrderId(Long orderId) {
+        return repository.streamByOrderId(orderId).map(mapper::toResponse);
+    }
+
+    @Override
+    public Stream<PaymentResponse> streamByUserId(Long userId) {
+        return repository.streamByUserId(userId).map(mapper::toResponse);
+    }
+
+    @Override
+    public Stream<PaymentResponse> streamByStatuses(Set<PaymentStatus> statuses) {
+        return repository.streamByStatusIn(statuses).map(mapper::toResponse);
+    }
+
+    @Override
+    public PaymentPageResponse getPageByOrderId(Long orderId, String cursor, int limit) {
+        return page(cursor, limit, (afterTimestamp, afterId, fetch) ->
+                repository.findPageByOrderId(orderId, afterTimestamp, afterId, fetch));
+    }
+
+    @Override
+    public PaymentPageResponse getPageByUserId(Long userId, String cursor, int limit) {
+        return page(cursor, limit, (afterTimestamp, afterId, fetch) ->
+                repository.findPageByUserId(userId, afterTimestamp, afterId, fetch));
+    }
+
+    @Override
+    public PaymentPageResponse getPageByStatuses(Set<PaymentStatus> statuses, String cursor, int limit) {
+        return page(cursor, limit, (afterTimestamp, afterId, fetch) ->
+                repository.findPageByStatusIn(statuses, afterTimestamp, afterId, fetch));
+    }
+
+    // one extra row tells whether another page exists without a count query
+    private PaymentPageResponse page(String cursor, int limit, PageQuery query) {
+        if (limit < 1 || limit > maxPageLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageLimit);
+        }
+        PageCursor after = StringUtils.hasText(cursor) ? PageCursor.decode(cursor) : null;
+
+        List<Payment> rows = after == null
+                ? query.find(null, null, limit + 1)
+                : query.find(after.timestamp(), after.id(), limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<Payment> items = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            Payment last = items.get(items.size() - 1);
+            nextCursor = new PageCursor(last.getTimestamp(), last.getId()).encode();
         }
+        return PaymentPageResponse.builder()
+                .items(items.stream().map(mapper::toResponse).toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private interface PageQuery {
+        List<Payment> find(Instant afterTimestamp, String afterId, int limit);
+    }
+
+    @Override
+    public PaymentTotalSumResponse getTotalBetween(Instant from, Instant to) {
+        // in-process index first, then the Mongo rollup buckets, then a plain aggregation
+        BigDecimal total = paymentTotalsIndex.totalBetween(from, to)
+                .or(() -> paymentRollups.totalBetween(from, to))
+                .orElseGet(() -> {
+                    List<PaymentRepository.TotalAmountProjection> rows = repository.sumSuccessfulBetween(from, to);
+                    BigDecimal sum = rows.isEmpty() ? null : rows.get(0).getTotal();
+                    return sum == null ? BigDecimal.ZERO : sum;
+                });
         return PaymentTotalSumResponse.builder()
                 .total(total)
                 .from(from)
                 .to(to)
                 .build();
     }
+
+    @Override
+    public UserPaymentSummaryResponse getUserSummary(Long userId) {
+        return userSummaries.summary(userId);
+    }
 }
@@ -0,0 +1,132 @@
+package com.internship.payment_service.service.impl;
+
+import com.internship.payment_service.dto.PaymentRequest;
+import com.internship.payment_service.dto.PaymentResponse;
+import com.internship.payment_service.dto.PaymentTotalSumResponse;
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.exception.RandomApiUnavailableException;
+import com.internship.payment_service.external.RandomNumberClient;
+import com.internship.payment_service.mapper.PaymentMapper;
+import com.internship.payment_service.repository.PaymentRepository;
+import com.internship.payment_service.repository.ReactivePaymentRepository;
+import com.internship.payment_service.repository.UniqueIndexes;
+import com.internship.payment_service.rollup.PaymentRollupService;
+import com.internship.payment_service.rollup.UserPaymentSummaryService;
+import com.internship.payment_service.service.ReactivePaymentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePaymentServiceImpl implements ReactivePaymentService {
+
+    private final ReactivePaymentRepository repository;
+    private final PaymentMapper mapper;
+    private final RandomNumberClient randomNumberClient;
+    private final PaymentRollupService paymentRollups;
+    private final UserPaymentSummaryService userSummaries;
+
+    @Override
+    public Mono<PaymentResponse> create(PaymentRequest request) {
+        Mono<Payment> existing = StringUtils.hasText(request.getEventId())
+                ? repository.findByEventId(request.getEventId())
+                : Mono.empty();
+
+        return existing
+                .switchIfEmpty(Mono.defer(() -> createNew(request)))
+                .map(mapper::toResponse);
+    }
+
+    private Mono<Payment> createNew(PaymentRequest request) {
+        Payment entity = mapper.toEntity(request);
+
+        return drawStatus()
+                .flatMap(status -> {
+                    entity.setStatus(status);
+                    entity.setTimestamp(Instant.now());
+                    // published by PaymentOutboxRelay, as on the servlet path
+                    entity.setEventPending(true);
+                    return insert(entity, request.getEventId());
+                });
+    }
+
+    // the unique indexes decide, as in PaymentServiceImpl.create: ux_payments_event_id means a concurrent delivery
+    // stored the event first and its payment is returned, ux_payments_one_success_per_order means the order is paid
+    // and this payment is stored as FAILED instead
+    private Mono<Payment> insert(Payment entity, String eventId) {
+        return repository.insert(entity)
+                .flatMap(this::recordRollups)
+                .onErrorResume(DuplicateKeyException.class, ex -> {
+                    String index = UniqueIndexes.violatedIndex(ex);
+                    Mono<Payment> storeAsFailed = Mono.defer(() -> {
+                        if (!UniqueIndexes.EVENT_ID.equals(index) && entity.getStatus() == PaymentStatus.SUCCESS) {
+                            entity.setId(null);
+                            entity.setStatus(PaymentStatus.FAILED);
+                            return insert(entity, eventId);
+                        }
+                        return Mono.error(ex);
+                    });
+                    if (!UniqueIndexes.ONE_SUCCESS_PER_ORDER.equals(index) && StringUtils.hasText(eventId)) {
+                        return repository.findByEventId(eventId).switchIfEmpty(storeAsFailed);
+                    }
+                    return storeAsFailed;
+                });
+    }
+
+    // the rollups and user summaries are shared with servlet instances, so reactive creates must be counted too;
+    // the writes are blocking
+    private Mono<Payment> recordRollups(Payment saved) {
+        return Mono.fromRunnable(() -> {
+                    paymentRollups.record(List.of(saved));
+                    userSummaries.record(List.of(saved));
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .thenReturn(saved);
+    }
+
+    private Mono<PaymentStatus> drawStatus() {
+        return randomNumberClient.getAsync()
+                .map(rnd -> (rnd % 2 == 0) ? PaymentStatus.SUCCESS : PaymentStatus.FAILED)
+                .onErrorReturn(RandomApiUnavailableException.class, PaymentStatus.FAILED);
+    }
+
+    @Override
+    public Flux<PaymentResponse> getByOrderId(Long orderId) {
+        return repository.findByOrderId(orderId).map(mapper::toResponse);
+    }
+
+    @Override
+    public Flux<PaymentResponse> getByUserId(Long userId) {
+        return repository.findByUserId(userId).map(mapper::toResponse);
+    }
+
+    @Override
+    public Flux<PaymentResponse> getByStatuses(Set<PaymentStatus> statuses) {
+        return repository.findByStatusIn(statuses).map(mapper::toResponse);
+    }
+
+    @Override
+    public Mono<PaymentTotalSumResponse> getTotalBetween(Instant from, Instant to) {
+        return repository.sumSuccessfulBetween(from, to)
+                .mapNotNull(PaymentRepository.TotalAmountProjection::getTotal)
+                .defaultIfEmpty(BigDecimal.ZERO)
+                .map(total -> PaymentTotalSumResponse.builder()
+                        .total(total)
+                        .from(from)
+                        .to(to)
+                        .build());
+    }
+}
@@ -6,6 +6,7 @@ import com.internship.payment_service.repository.PaymentRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
@@ -16,6 +17,7 @@ class PaymentServiceApplicationTests {
 	private PaymentRepository paymentRepository;
 	@MockBean private PaymentEventsProducer paymentEventsProducer;
 	@MockBean private RandomNumberClient randomNumberClient;
+	@MockBean private MongoTemplate mongoTemplate;
 
 	@Test
 	void contextLoads() {}
@@ -0,0 +1,128 @@
+package com.internship.payment_service.admission;
+
+import com.internship.payment_service.config.AdmissionProperties;
+import com.internship.payment_service.exception.AdmissionRejectedException;
+import com.internship.payment_service.exception.ApiError;
+import com.internship.payment_service.exception.GlobalExceptionHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionInterceptorTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        AdmissionProperties props = new AdmissionProperties();
+        props.getCreate().setInitialLimit(1);
+        props.getCreate().setMinLimit(1);
+        props.setRetryAfter(Duration.ofMillis(1500));
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new AdmissionInterceptor(props, meterRegistry);
+    }
+
+    @Test
+    void limiter_ShouldGrowWhileFastAndBusy_AndBackOffOncePerThreshold() {
+        AimdLimiter limiter = new AimdLimiter(4, 2, 6, THRESHOLD, 0.5, clock::get);
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.onComplete(FAST, false);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        // a burst of slow completions from one slow spell counts as a single congestion signal
+        limiter.onComplete(SLOW, false);
+        limiter.onComplete(SLOW, false);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+
+        clock.addAndGet(THRESHOLD);
+        limiter.onComplete(0, true);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void limiter_ShouldNotGrow_WhenMostOfTheLimitIsIdle() {
+        AimdLimiter limiter = new AimdLimiter(10, 1, 100, THRESHOLD, 0.9, clock::get);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.onComplete(FAST, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void preHandle_ShouldRejectCreates_WhileReadsKeepTheirOwnBudget() {
+        MockHttpServletRequest first = request("POST", "/api/v1/payments");
+        assertThat(interceptor.preHandle(first, new MockHttpServletResponse(), null)).isTrue();
+
+        assertThatThrownBy(() -> interceptor.preHandle(request("POST", "/api/v1/payments"),
+                new MockHttpServletResponse(), null))
+                .isInstanceOf(AdmissionRejectedException.class);
+        assertThat(interceptor.preHandle(request("GET", "/api/v1/payments/user/1"),
+                new MockHttpServletResponse(), null)).isTrue();
+
+        assertThat(meterRegistry.get("admission.rejected").tag("budget", "create").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("admission.rejected").tag("budget", "read").counter().count()).isZero();
+        assertThat(meterRegistry.get("admission.limit").tag("budget", "create").gauge().value()).isEqualTo(1);
+
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), null, null);
+        assertThat(interceptor.createLimiter().getInFlight()).isZero();
+        assertThat(interceptor.preHandle(request("POST", "/api/v1/payments"),
+                new MockHttpServletResponse(), null)).isTrue();
+    }
+
+    @Test
+    void afterConcurrentHandlingStarted_ShouldReleaseOnce_ForStreamingReads() {
+        MockHttpServletRequest stream = request("GET", "/api/v1/payments/statuses");
+        interceptor.preHandle(stream, new MockHttpServletResponse(), null);
+        assertThat(interceptor.readLimiter().getInFlight()).isEqualTo(1);
+
+        interceptor.afterConcurrentHandlingStarted(stream, new MockHttpServletResponse(), null);
+        interceptor.afterCompletion(stream, new MockHttpServletResponse(), null, null);
+
+        assertThat(interceptor.readLimiter().getInFlight()).isZero();
+    }
+
+    @Test
+    void handler_ShouldAnswer429WithRetryAfterInWholeSeconds() {
+        MockHttpServletRequest req = request("POST", "/api/v1/payments");
+
+        ResponseEntity<ApiError> response = new GlobalExceptionHandler()
+                .handleAdmissionRejected(new AdmissionRejectedException("create", Duration.ofMillis(1500)), req);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(response.getBody().getStatus()).isEqualTo(429);
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+}
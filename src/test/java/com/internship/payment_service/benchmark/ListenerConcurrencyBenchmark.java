@@ -0,0 +1,206 @@
+package com.internship.payment_service.benchmark;
+
+import com.internship.payment_service.config.KafkaConfig;
+import com.internship.payment_service.config.KafkaTopicsProperties;
+import com.internship.payment_service.config.KafkaTopicsProperties.ListenerMode;
+import com.internship.payment_service.dto.PaymentResponse;
+import com.internship.payment_service.kafka.OrderEventsKeyOrderedConsumer;
+import com.internship.payment_service.kafka.dto.OrderEvent;
+import com.internship.payment_service.metrics.PaymentMetrics;
+import com.internship.payment_service.service.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AcknowledgingMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Not picked up by surefire's default includes; run explicitly:
+//   mvn test -Dtest=ListenerConcurrencyBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+// Preloads a partitioned orders topic on an in-process KRaft broker and drains it through the listener container
+// factory from KafkaConfig at increasing app.kafka.concurrency, each run in a fresh consumer group. The listener
+// parks for a fixed time per record to stand in for the Mongo round trip, so the run measures how well partitions
+// spread that wait across consumer threads, not CPU-bound deserialization.
+class ListenerConcurrencyBenchmark {
+
+    private static final String TOPIC = "orders-benchmark";
+    private static final String SINGLE_PARTITION_TOPIC = "orders-benchmark-single";
+    private static final int PARTITIONS = 8;
+    private static final int RECORDS = 8_000;
+    private static final long WORK_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+    private static final int[] CONCURRENCY = {1, 2, 4, 8};
+    private static final int KEY_ORDERED_WORKERS = 8;
+
+    private static EmbeddedKafkaKraftBroker broker;
+
+    private long lastCommitted;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS, TOPIC);
+        broker.afterPropertiesSet();
+        broker.addTopics(new NewTopic(SINGLE_PARTITION_TOPIC, 1, (short) 1));
+        preload(TOPIC);
+        preload(SINGLE_PARTITION_TOPIC);
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    void consume_ShouldScaleWithListenerConcurrency() throws InterruptedException {
+        List<double[]> results = new ArrayList<>();
+        for (int concurrency : CONCURRENCY) {
+            results.add(new double[]{concurrency, drain(TOPIC, ListenerMode.RECORD, concurrency)});
+        }
+
+        double single = results.get(0)[1];
+        System.out.printf("%n%12s %12s %10s %12s%n", "concurrency", "records/s", "speed-up", "efficiency");
+        for (double[] r : results) {
+            double speedUp = r[1] / single;
+            System.out.printf("%12d %10.0f/s %9.2fx %11.0f%%%n", (int) r[0], r[1], speedUp, 100 * speedUp / r[0]);
+        }
+        System.out.println();
+
+        for (double[] r : results) {
+            assertThat(r[1] / single).as("speed-up at concurrency %d", (int) r[0]).isGreaterThan(0.7 * r[0]);
+        }
+    }
+
+    // one partition, one consumer thread: key-ordered mode fans the poll out to workers by orderId
+    @Test
+    void consume_KeyOrderedShouldUseManyWorkers_OnSinglePartition() throws InterruptedException {
+        double record = drain(SINGLE_PARTITION_TOPIC, ListenerMode.RECORD, 1);
+        double keyOrdered = drain(SINGLE_PARTITION_TOPIC, ListenerMode.KEY_ORDERED, 1);
+
+        System.out.printf("%n1 partition: record %.0f/s, key-ordered (%d workers) %.0f/s, %.2fx%n%n",
+                record, KEY_ORDERED_WORKERS, keyOrdered, keyOrdered / record);
+
+        assertThat(keyOrdered / record).isGreaterThan(0.4 * KEY_ORDERED_WORKERS);
+        assertThat(lastCommitted).as("committed offset after drain").isEqualTo(RECORDS);
+    }
+
+    private double drain(String topic, ListenerMode mode, int concurrency) throws InterruptedException {
+        KafkaProperties springKafka = new KafkaProperties();
+        springKafka.setBootstrapServers(List.of(broker.getBrokersAsString()));
+        springKafka.getConsumer().setAutoOffsetReset("earliest");
+
+        KafkaTopicsProperties topics = new KafkaTopicsProperties();
+        topics.setOrdersTopic(topic);
+        topics.setConsumerGroup("benchmark-" + mode + "-" + concurrency + "-" + UUID.randomUUID());
+        topics.setListenerMode(mode);
+        topics.setConcurrency(concurrency);
+        topics.getTopics().getOrders().setPartitions(PARTITIONS);
+        topics.getKeyOrdered().setWorkers(KEY_ORDERED_WORKERS);
+
+        CountDownLatch done = new CountDownLatch(RECORDS);
+        AtomicLong firstAt = new AtomicLong();
+        PaymentService paymentService = mock(PaymentService.class);
+        when(paymentService.create(any())).thenAnswer(invocation -> {
+            LockSupport.parkNanos(WORK_NANOS);
+            return new PaymentResponse();
+        });
+
+        ConcurrentMessageListenerContainer<String, OrderEvent> container =
+                new KafkaConfig(springKafka, topics, new MockEnvironment(), new SimpleMeterRegistry())
+                        .orderEventKafkaListenerContainerFactory()
+                        .createContainer(topic);
+        OrderEventsKeyOrderedConsumer keyOrdered = null;
+        if (mode == ListenerMode.KEY_ORDERED) {
+            OrderEventsKeyOrderedConsumer consumer = new OrderEventsKeyOrderedConsumer(paymentService, new PaymentMetrics(new SimpleMeterRegistry()), topics);
+            keyOrdered = consumer;
+            container.getContainerProperties().setMessageListener(
+                    (AcknowledgingMessageListener<String, OrderEvent>) (record, ack) -> {
+                        firstAt.compareAndSet(0, System.nanoTime());
+                        consumer.onOrderEvent(record, () -> {
+                            ack.acknowledge();
+                            done.countDown();
+                        });
+                    });
+        } else {
+            container.getContainerProperties().setMessageListener((MessageListener<String, OrderEvent>) record -> {
+                firstAt.compareAndSet(0, System.nanoTime());
+                paymentService.create(null);
+                done.countDown();
+            });
+        }
+
+        container.start();
+        try {
+            assertThat(done.await(2, TimeUnit.MINUTES)).as("all records consumed").isTrue();
+            // measured from the first record so group join and partition assignment are not counted
+            double throughput = RECORDS / ((System.nanoTime() - firstAt.get()) / 1_000_000_000d);
+            container.stop();
+            lastCommitted = committedOffsets(topics.getConsumerGroup());
+            return throughput;
+        } finally {
+            container.stop();
+            if (keyOrdered != null) {
+                keyOrdered.shutdown();
+            }
+        }
+    }
+
+    private static long committedOffsets(String group) {
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString()))) {
+            return admin.listConsumerGroupOffsets(group).partitionsToOffsetAndMetadata().get().values().stream()
+                    .mapToLong(OffsetAndMetadata::offset)
+                    .sum();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void preload(String topic) {
+        DefaultKafkaProducerFactory<String, OrderEvent> factory = new DefaultKafkaProducerFactory<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class,
+                JsonSerializer.ADD_TYPE_INFO_HEADERS, false));
+        try {
+            KafkaTemplate<String, OrderEvent> template = new KafkaTemplate<>(factory);
+            for (long i = 0; i < RECORDS; i++) {
+                OrderEvent event = OrderEvent.builder()
+                        .eventId(UUID.randomUUID().toString())
+                        .orderId(i)
+                        .userId(i % 100)
+                        .paymentAmount(BigDecimal.valueOf(i % 10_000, 2))
+                        .build();
+                template.send(topic, String.valueOf(i), event);
+            }
+            template.flush();
+        } finally {
+            factory.destroy();
+        }
+    }
+}
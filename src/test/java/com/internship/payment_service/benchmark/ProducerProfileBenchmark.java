@@ -0,0 +1,151 @@
+package com.internship.payment_service.benchmark;
+
+import com.internship.payment_service.config.KafkaConfig;
+import com.internship.payment_service.config.KafkaTopicsProperties;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.kafka.PaymentEventsProducer;
+import com.internship.payment_service.kafka.dto.PaymentEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Not picked up by surefire's default includes; run explicitly:
+//   mvn test -Dtest=ProducerProfileBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+// Sends the same PaymentEvents through PaymentEventsProducer against an in-process KRaft broker once per producer
+// setting and reports records/s and the p99 of send()-to-ack latency. Absolute numbers depend on the machine; the
+// in-process broker has no network hop, so linger and compression show up smaller than against a real cluster.
+class ProducerProfileBenchmark {
+
+    private static final String TOPIC = "payments-benchmark";
+    private static final int PARTITIONS = 6;
+    private static final int RECORDS = 100_000;
+    private static final int WARM_UP_RECORDS = 50_000;
+
+    private static EmbeddedKafkaKraftBroker broker;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS, TOPIC);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    void send_ThroughputPerProducerSetting() {
+        Map<String, Consumer<KafkaTopicsProperties.Producer>> settings = new LinkedHashMap<>();
+        settings.put("kafka defaults", p -> {
+            p.setBatchSizeBytes(16 * 1024);
+            p.setLingerMs(0);
+            p.setCompressionType("none");
+            p.setBufferMemoryBytes(32L * 1024 * 1024);
+        });
+        settings.put("profile, no compression", p -> p.setCompressionType("none"));
+        settings.put("profile, lz4", p -> {
+        });
+        settings.put("profile, zstd", p -> p.setCompressionType("zstd"));
+        settings.put("profile, linger 50ms", p -> p.setLingerMs(50));
+        settings.put("profile, 1 in flight", p -> p.setMaxInFlightRequestsPerConnection(1));
+
+        List<Result> results = new ArrayList<>();
+        settings.forEach((name, customizer) -> {
+            KafkaTopicsProperties.Producer producer = new KafkaTopicsProperties.Producer();
+            customizer.accept(producer);
+            results.add(run(name, producer));
+        });
+
+        System.out.printf("%n%-26s %12s %12s %12s %8s%n", "setting", "records/s", "p50 ms", "p99 ms", "errors");
+        for (Result r : results) {
+            System.out.printf("%-26s %10.0f/s %12.2f %12.2f %8d%n", r.name(), r.throughput(), r.p50Ms(), r.p99Ms(), r.errors());
+        }
+        System.out.println();
+
+        assertThat(results).allMatch(r -> r.errors() == 0);
+    }
+
+    private Result run(String name, KafkaTopicsProperties.Producer tuning) {
+        Map<String, Object> props = new HashMap<>(KafkaConfig.producerTuning(tuning));
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        DefaultKafkaProducerFactory<String, PaymentEvent> factory = new DefaultKafkaProducerFactory<>(props);
+
+        KafkaTopicsProperties topics = new KafkaTopicsProperties();
+        topics.setPaymentsTopic(TOPIC);
+        PaymentEventsProducer producer = new PaymentEventsProducer(new KafkaTemplate<>(factory), topics,
+                new MockEnvironment(), new SimpleMeterRegistry());
+        try {
+            send(producer, WARM_UP_RECORDS, new long[WARM_UP_RECORDS]);
+
+            long[] latencies = new long[RECORDS];
+            long start = System.nanoTime();
+            long errors = send(producer, RECORDS, latencies);
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(latencies);
+            return new Result(name, RECORDS / (elapsed / 1_000_000_000d),
+                    latencies[RECORDS / 2] / 1_000_000d,
+                    latencies[(int) (RECORDS * 0.99)] / 1_000_000d,
+                    errors);
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    // all records are in flight at once, bounded only by buffer.memory, as with a relay batch
+    private long send(PaymentEventsProducer producer, int records, long[] latencies) {
+        List<CompletableFuture<?>> futures = new ArrayList<>(records);
+        for (int i = 0; i < records; i++) {
+            int slot = i;
+            long sentAt = System.nanoTime();
+            futures.add(producer.send(event(i))
+                    .whenComplete((result, ex) -> latencies[slot] = System.nanoTime() - sentAt));
+        }
+        producer.flush();
+
+        long errors = 0;
+        for (CompletableFuture<?> future : futures) {
+            try {
+                future.join();
+            } catch (RuntimeException ex) {
+                errors++;
+            }
+        }
+        return errors;
+    }
+
+    private static PaymentEvent event(long i) {
+        return PaymentEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .orderId(i)
+                .paymentId(Long.toHexString(i))
+                .status(i % 2 == 0 ? PaymentStatus.SUCCESS : PaymentStatus.FAILED)
+                .build();
+    }
+
+    private record Result(String name, double throughput, double p50Ms, double p99Ms, long errors) {
+    }
+}
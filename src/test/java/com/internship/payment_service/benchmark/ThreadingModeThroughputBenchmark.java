@@ -0,0 +1,169 @@
+package com.internship.payment_service.benchmark;
+
+import com.internship.payment_service.PaymentServiceApplication;
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.external.RandomNumberClient;
+import com.internship.payment_service.repository.PaymentRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+// Not picked up by surefire's default includes; run explicitly:
+//   mvn test -Dtest=ThreadingModeThroughputBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+// Starts the app twice (platform threads, then virtual threads) with the random API and Mongo replaced by stubs that
+// block for a fixed time, and drives POST /api/v1/payments with CONCURRENCY in-flight requests.
+class ThreadingModeThroughputBenchmark {
+
+    private static final int CONCURRENCY = 1_000;
+    private static final int REQUESTS_PER_CLIENT = 10;
+    private static final long RANDOM_API_LATENCY_MS = 50;
+    private static final long MONGO_LATENCY_MS = 2;
+
+    @Test
+    void createPayments_PlatformVsVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%n%-10s %10s %12s %10s%n", "mode", "requests", "throughput", "errors");
+        System.out.printf("%-10s %10d %10.0f/s %10d%n", "platform", platform.requests(), platform.throughput(), platform.errors());
+        System.out.printf("%-10s %10d %10.0f/s %10d%n%n", "virtual", virtual.requests(), virtual.throughput(), virtual.errors());
+
+        assertThat(platform.errors()).isZero();
+        assertThat(virtual.errors()).isZero();
+        // 200 Tomcat threads each blocked ~52ms cap platform mode near 4k/s; virtual threads are not capped by the pool
+        assertThat(virtual.throughput()).isGreaterThan(platform.throughput());
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext ctx = new SpringApplicationBuilder(PaymentServiceApplication.class, Stubs.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.data.mongodb.repositories.type=none",
+                        "spring.kafka.admin.auto-create=false",
+                        "app.rollups.enabled=false",
+                        "app.outbox.relay-enabled=false",
+                        "server.tomcat.threads.max=200",
+                        "server.tomcat.max-connections=" + (CONCURRENCY * 2),
+                        "server.tomcat.accept-count=" + CONCURRENCY,
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "logging.level.com.internship.payment_service=WARN")
+                .run()) {
+            int port = ((WebServerApplicationContext) ctx).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/api/v1/payments");
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            load(client, uri, 1, 200); // warm-up: JIT and connection setup outside the measured window
+
+            long start = System.nanoTime();
+            AtomicLong errors = load(client, uri, REQUESTS_PER_CLIENT, CONCURRENCY);
+            long elapsed = System.nanoTime() - start;
+
+            int requests = REQUESTS_PER_CLIENT * CONCURRENCY;
+            return new Result(requests, requests / (elapsed / 1_000_000_000d), errors.get());
+        }
+    }
+
+    private AtomicLong load(HttpClient client, URI uri, int requestsPerClient, int clients) throws InterruptedException {
+        AtomicLong errors = new AtomicLong();
+        AtomicInteger orderIds = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < requestsPerClient; i++) {
+                        String body = "{\"orderId\":" + orderIds.incrementAndGet() + ",\"userId\":1,\"paymentAmount\":10.00}";
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .header("Content-Type", "application/json")
+                                .timeout(Duration.ofSeconds(60))
+                                .POST(HttpRequest.BodyPublishers.ofString(body))
+                                .build();
+                        try {
+                            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 201) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+        return errors;
+    }
+
+    private record Result(int requests, double throughput, long errors) {
+    }
+
+    // plain (non-@Configuration) bean source so component scanning never picks it up
+    static class Stubs {
+
+        @Bean
+        @Primary
+        RandomNumberClient benchmarkRandomNumberClient() {
+            return () -> {
+                sleep(RANDOM_API_LATENCY_MS);
+                return 2;
+            };
+        }
+
+        // a Proxy rather than a Mockito mock: Mockito records every invocation under a lock, which skews the numbers
+        @Bean
+        PaymentRepository paymentRepository() {
+            return (PaymentRepository) Proxy.newProxyInstance(
+                    PaymentRepository.class.getClassLoader(),
+                    new Class<?>[]{PaymentRepository.class},
+                    (proxy, method, args) -> {
+                        sleep(MONGO_LATENCY_MS);
+                        return switch (method.getName()) {
+                            case "findByEventId" -> Optional.empty();
+                            case "save", "insert" -> {
+                                Payment payment = (Payment) args[0];
+                                payment.setId(new ObjectId().toHexString());
+                                yield payment;
+                            }
+                            case "hashCode" -> System.identityHashCode(proxy);
+                            case "equals" -> proxy == args[0];
+                            case "toString" -> "PaymentRepository stub";
+                            default -> throw new UnsupportedOperationException(method.getName());
+                        };
+                    });
+        }
+
+        @Bean
+        MongoTemplate mongoTemplate() {
+            return mock(MongoTemplate.class);
+        }
+
+        private static void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
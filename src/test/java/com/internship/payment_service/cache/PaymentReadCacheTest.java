@@ -0,0 +1,220 @@
+package com.internship.payment_service.cache;
+
+import com.internship.payment_service.config.PaymentCacheProperties;
+import com.internship.payment_service.dto.PaymentResponse;
+import com.internship.payment_service.entity.Payment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentReadCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentReadCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new PaymentReadCache(new PaymentCacheProperties(), meterRegistry);
+    }
+
+    @Test
+    void byOrderId_ShouldLoadOnce_UntilPaymentOfThatOrderIsStored() {
+        AtomicInteger loads = new AtomicInteger();
+        Function<Long, List<PaymentResponse>> loader = id -> {
+            loads.incrementAndGet();
+            return List.of(response("p-" + loads.get(), id, 7L));
+        };
+
+        cache.byOrderId(1L, loader);
+        cache.byOrderId(1L, loader);
+        cache.invalidate(payment(2L, 7L));
+        cache.byOrderId(1L, loader);
+        assertThat(loads).hasValue(1);
+
+        cache.invalidate(payment(1L, 7L));
+        assertThat(cache.byOrderId(1L, loader)).extracting(PaymentResponse::getId).containsExactly("p-2");
+        assertThat(loads).hasValue(2);
+        assertThat(gets("payments.by-order", "hit")).isEqualTo(2);
+        assertThat(gets("payments.by-order", "miss")).isEqualTo(2);
+    }
+
+    @Test
+    void byUserId_ShouldNotCacheEmptyResult() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.byUserId(7L, id -> {
+            loads.incrementAndGet();
+            return List.of();
+        })).isEmpty();
+        List<PaymentResponse> out = cache.byUserId(7L, id -> {
+            loads.incrementAndGet();
+            return List.of(response("p-1", 1L, id));
+        });
+
+        assertThat(out).hasSize(1);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void byOrderId_ShouldAlwaysLoad_WhenDisabled() {
+        PaymentCacheProperties props = new PaymentCacheProperties();
+        props.setEnabled(false);
+        PaymentReadCache disabled = new PaymentReadCache(props, new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+
+        disabled.byOrderId(1L, id -> List.of(response("p-" + loads.incrementAndGet(), id, 7L)));
+        disabled.byOrderId(1L, id -> List.of(response("p-" + loads.incrementAndGet(), id, 7L)));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void invalidate_ShouldNotWaitForASlowLoad_AndDropItsResult() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<PaymentResponse>> slow = pool.submit(() -> cache.byOrderId(1L, id -> {
+                loading.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return List.of(response("p-stale", id, 7L));
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // returns while the load is still reading; with the load inside compute this would block until release
+            CompletableFuture.runAsync(() -> cache.invalidate(payment(1L, 7L))).get(1, TimeUnit.SECONDS);
+            release.countDown();
+            assertThat(slow.get(5, TimeUnit.SECONDS)).extracting(PaymentResponse::getId).containsExactly("p-stale");
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(cache.byOrderId(1L, id -> List.of(response("p-fresh", id, 7L))))
+                .extracting(PaymentResponse::getId).containsExactly("p-fresh");
+    }
+
+    // Writers store a payment and then invalidate, as PaymentServiceImpl does, while readers keep loading through the
+    // cache with a slow loader. A read that starts after a write's invalidation returned must include that write; a
+    // load that began before the write and got cached after the invalidation would show up as a short list.
+    @Test
+    void reads_ShouldNeverMissAWriteThatWasInvalidated_UnderConcurrentLoads() throws Exception {
+        int orders = 4;
+        int writers = 2;
+        int writesPerWriter = 300;
+        long userId = 7L;
+
+        Map<Long, List<PaymentResponse>> byOrder = new ConcurrentHashMap<>();
+        List<PaymentResponse> byUser = new CopyOnWriteArrayList<>();
+        AtomicInteger[] committed = new AtomicInteger[orders];
+        for (int i = 0; i < orders; i++) {
+            byOrder.put((long) i, new CopyOnWriteArrayList<>());
+            committed[i] = new AtomicInteger();
+        }
+        AtomicInteger committedForUser = new AtomicInteger();
+
+        // snapshot first, then stall, so writes land between the Mongo read and the cache put
+        Function<Long, List<PaymentResponse>> orderLoader = id -> {
+            List<PaymentResponse> snapshot = List.copyOf(byOrder.get(id));
+            LockSupport.parkNanos(20_000);
+            return snapshot;
+        };
+        Function<Long, List<PaymentResponse>> userLoader = id -> {
+            List<PaymentResponse> snapshot = List.copyOf(byUser);
+            LockSupport.parkNanos(20_000);
+            return snapshot;
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(writers + 4);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger writersLeft = new AtomicInteger(writers);
+        AtomicLong staleReads = new AtomicLong();
+        AtomicLong reads = new AtomicLong();
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                tasks.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < writesPerWriter; i++) {
+                        long orderId = ThreadLocalRandom.current().nextInt(orders);
+                        PaymentResponse stored = response("w" + writer + "-" + i, orderId, userId);
+                        byOrder.get(orderId).add(stored);
+                        byUser.add(stored);
+                        cache.invalidate(payment(orderId, userId));
+                        committed[(int) orderId].incrementAndGet();
+                        committedForUser.incrementAndGet();
+                        LockSupport.parkNanos(10_000);
+                    }
+                    writersLeft.decrementAndGet();
+                    return null;
+                }));
+            }
+            for (int r = 0; r < 4; r++) {
+                tasks.add(pool.submit(() -> {
+                    start.await();
+                    while (writersLeft.get() > 0) {
+                        long orderId = ThreadLocalRandom.current().nextInt(orders);
+                        int expectedForOrder = committed[(int) orderId].get();
+                        int expectedForUser = committedForUser.get();
+                        if (cache.byOrderId(orderId, orderLoader).size() < expectedForOrder
+                                || cache.byUserId(userId, userLoader).size() < expectedForUser) {
+                            staleReads.incrementAndGet();
+                        }
+                        reads.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(reads.get()).isPositive();
+        assertThat(staleReads).hasValue(0);
+        for (long orderId = 0; orderId < orders; orderId++) {
+            assertThat(cache.byOrderId(orderId, orderLoader)).hasSameSizeAs(byOrder.get(orderId));
+        }
+        assertThat(cache.byUserId(userId, userLoader)).hasSize(writers * writesPerWriter);
+        assertThat(gets("payments.by-order", "hit")).isPositive();
+    }
+
+    private double gets(String cacheName, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cacheName).tag("result", result).functionCounter().count();
+    }
+
+    private static Payment payment(long orderId, long userId) {
+        return Payment.builder().orderId(orderId).userId(userId).build();
+    }
+
+    private static PaymentResponse response(String id, long orderId, long userId) {
+        return PaymentResponse.builder().id(id).orderId(orderId).userId(userId).build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.internship.payment_service.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaAdmin;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaTopicsConfigTest {
+
+    @Mock
+    private KafkaAdmin kafkaAdmin;
+
+    private KafkaTopicsProperties props;
+
+    @BeforeEach
+    void setUp() {
+        props = new KafkaTopicsProperties();
+        props.setOrdersTopic("orders");
+        props.setPaymentsTopic("payments");
+    }
+
+    @Test
+    void newTopics_ShouldKeepCurrentPartitions_UnlessIncreaseIsAllowed() {
+        props.getTopics().getOrders().setPartitions(6);
+        when(kafkaAdmin.describeTopics("orders")).thenReturn(Map.of("orders", description("orders", 2)));
+
+        assertThat(partitions(new KafkaTopicsConfig(props).newTopics(kafkaAdmin)))
+                .containsEntry("orders", 2).containsEntry("payments", 1);
+
+        props.getTopics().setAllowPartitionIncrease(true);
+        assertThat(partitions(new KafkaTopicsConfig(props).newTopics(kafkaAdmin))).containsEntry("orders", 6);
+    }
+
+    @Test
+    void newTopics_ShouldCreateMissingTopicWithConfiguredPartitions() {
+        props.getTopics().getOrders().setPartitions(6);
+        when(kafkaAdmin.describeTopics("orders"))
+                .thenThrow(new KafkaException("describe failed", new UnknownTopicOrPartitionException("orders")));
+
+        assertThat(partitions(new KafkaTopicsConfig(props).newTopics(kafkaAdmin))).containsEntry("orders", 6);
+    }
+
+    @Test
+    void newTopics_ShouldLeaveTopicAlone_WhenItCannotBeDescribed() {
+        props.getTopics().getOrders().setPartitions(6);
+        when(kafkaAdmin.describeTopics("orders")).thenThrow(new KafkaException("broker not available"));
+
+        assertThat(partitions(new KafkaTopicsConfig(props).newTopics(kafkaAdmin))).containsOnlyKeys("payments");
+    }
+
+    @Test
+    void newTopics_ShouldNotDescribe_OnePartitionTopics() {
+        new KafkaTopicsConfig(props).newTopics(kafkaAdmin);
+
+        verify(kafkaAdmin, never()).describeTopics(any());
+    }
+
+    private static Map<String, Integer> partitions(List<NewTopic> newTopics) {
+        return newTopics.stream()
+                .collect(Collectors.toMap(NewTopic::name, NewTopic::numPartitions));
+    }
+
+    private static TopicDescription description(String name, int partitions) {
+        Node node = new Node(0, "localhost", 9092);
+        List<TopicPartitionInfo> infos = IntStream.range(0, partitions)
+                .mapToObj(i -> new TopicPartitionInfo(i, node, List.of(node), List.of(node)))
+                .toList();
+        return new TopicDescription(name, false, infos);
+    }
+}
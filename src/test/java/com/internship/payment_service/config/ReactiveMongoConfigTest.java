@@ -0,0 +1,46 @@
+package com.internship.payment_service.config;
+
+import com.internship.payment_service.repository.ReactivePaymentRepository;
+import com.mongodb.reactivestreams.client.MongoClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveMongoConfigTest {
+
+    @Test
+    void servletMode_ShouldNotCreateAReactiveClient() {
+        new WebApplicationContextRunner()
+                .withUserConfiguration(Repositories.class, ReactiveMongoConfig.class)
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context).doesNotHaveBean(MongoClient.class);
+                    assertThat(context).doesNotHaveBean(ReactiveMongoTemplate.class);
+                    assertThat(context).doesNotHaveBean(ReactivePaymentRepository.class);
+                });
+    }
+
+    @Test
+    void reactiveMode_ShouldCreateTheReactiveClientAndTemplate() {
+        new ReactiveWebApplicationContextRunner()
+                .withUserConfiguration(Repositories.class, ReactiveMongoConfig.class)
+                .withPropertyValues("spring.data.mongodb.uri=mongodb://localhost:27017/payments_db")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context).hasSingleBean(MongoClient.class);
+                    assertThat(context).hasSingleBean(ReactiveMongoTemplate.class);
+                    assertThat(context).hasSingleBean(ReactivePaymentRepository.class);
+                });
+    }
+
+    // what @SpringBootApplication registers, so the repository auto-configuration finds ReactivePaymentRepository
+    @Configuration(proxyBeanMethods = false)
+    @AutoConfigurationPackage(basePackageClasses = ReactivePaymentRepository.class)
+    static class Repositories {
+    }
+}
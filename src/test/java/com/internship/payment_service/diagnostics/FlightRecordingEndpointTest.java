@@ -0,0 +1,72 @@
+package com.internship.payment_service.diagnostics;
+
+import com.internship.payment_service.metrics.PaymentMetrics;
+import com.internship.payment_service.metrics.PaymentMetrics.Stage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightRecordingEndpointTest {
+
+    @TempDir
+    Path directory;
+
+    private FlightRecordingEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new FlightRecordingEndpoint(directory.toString(), "default", 30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.stop();
+    }
+
+    @Test
+    void stop_ShouldDumpPaymentEvents_RecordedSinceStart() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PaymentMetrics metrics = new PaymentMetrics(meterRegistry);
+
+        assertThat(endpoint.start(null, null).recording()).isTrue();
+        metrics.startStage(Stage.INSERT, 42L).finish("inserted");
+        FlightRecordingEndpoint.RecordingDump dump = endpoint.stop();
+
+        assertThat(dump.file()).startsWith(directory.toAbsolutePath().toString());
+        List<RecordedEvent> stages = RecordingFile.readAllEvents(Path.of(dump.file())).stream()
+                .filter(e -> e.getEventType().getName().equals("com.internship.payment.Stage"))
+                .toList();
+        assertThat(stages).singleElement().satisfies(e -> {
+            assertThat(e.getString("stage")).isEqualTo("insert");
+            assertThat(e.getLong("orderId")).isEqualTo(42L);
+            assertThat(e.getString("outcome")).isEqualTo("inserted");
+            assertThat(e.hasField("startNanos")).isFalse();
+        });
+        // the same span fed the Micrometer timer
+        assertThat(meterRegistry.get("payment.create.stage").tag("stage", "insert").timer().count()).isEqualTo(1);
+        assertThat(endpoint.status().recording()).isFalse();
+    }
+
+    @Test
+    void start_ShouldKeepRunningRecording_WhenCalledTwice() {
+        FlightRecordingEndpoint.RecordingStatus first = endpoint.start(null, 5L);
+        FlightRecordingEndpoint.RecordingStatus second = endpoint.start("profile", null);
+
+        assertThat(second.startTime()).isEqualTo(first.startTime());
+        assertThat(second.maxAge()).hasMinutes(5);
+    }
+
+    @Test
+    void stop_ShouldReturnNull_WhenNothingIsRecording() {
+        assertThat(endpoint.stop()).isNull();
+    }
+}
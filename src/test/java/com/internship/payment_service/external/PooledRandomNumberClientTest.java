@@ -0,0 +1,149 @@
+package com.internship.payment_service.external;
+
+import com.internship.payment_service.exception.RandomApiUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PooledRandomNumberClientTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PooledRandomNumberClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    @Test
+    void get_ShouldServeFromPool_AfterWarmUp() throws Exception {
+        SequenceClient delegate = new SequenceClient();
+        client = new PooledRandomNumberClient(delegate, registry, 64, 16, 8);
+        client.warmUp();
+        awaitDepth(64 - 16);
+
+        int first = client.get();
+
+        assertThat(first).isEqualTo(0);
+        assertThat(delegate.singleCalls.get()).isZero();
+        assertThat(registry.get("random.pool.refill").timer().count()).isGreaterThan(0);
+        assertThat(registry.get("random.pool.exhausted").counter().count()).isZero();
+    }
+
+    @Test
+    void get_ShouldFallBackToDelegate_WhenPoolIsDry() {
+        RandomNumberClient failingBatches = new RandomNumberClient() {
+            @Override
+            public int get() {
+                return 7;
+            }
+
+            @Override
+            public int[] getBatch(int count) {
+                throw new RandomApiUnavailableException("down");
+            }
+        };
+        client = new PooledRandomNumberClient(failingBatches, registry, 64, 16, 8);
+
+        assertThat(client.get()).isEqualTo(7);
+        assertThat(registry.get("random.pool.exhausted").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_ShouldPropagateDelegateError_WhenPoolIsDryAndApiDown() {
+        RandomNumberClient down = () -> {
+            throw new RandomApiUnavailableException("down");
+        };
+        client = new PooledRandomNumberClient(down, registry, 64, 16, 8);
+
+        assertThatThrownBy(() -> client.get()).isInstanceOf(RandomApiUnavailableException.class);
+    }
+
+    @Test
+    void get_ShouldHandOutEveryPooledNumberOnce_UnderConcurrency() throws Exception {
+        SequenceClient delegate = new SequenceClient();
+        client = new PooledRandomNumberClient(delegate, registry, 1024, 128, 512);
+        client.warmUp();
+
+        int threads = 8;
+        int perThread = 5_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    if (!seen.add(client.get())) {
+                        duplicates.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(duplicates.get()).isZero();
+        assertThat(seen).hasSize(threads * perThread);
+    }
+
+    @Test
+    void constructor_ShouldRejectBlockLargerThanCapacity() {
+        assertThatThrownBy(() -> new PooledRandomNumberClient(new SequenceClient(), registry, 16, 32, 4))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void awaitDepth(int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (client.depth() < depth && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(client.depth()).isGreaterThanOrEqualTo(depth);
+    }
+
+    // hands out a strictly increasing sequence so that every number is unique
+    private static class SequenceClient implements RandomNumberClient {
+
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger singleCalls = new AtomicInteger();
+
+        @Override
+        public int get() {
+            singleCalls.incrementAndGet();
+            return next.getAndIncrement();
+        }
+
+        @Override
+        public int[] getBatch(int count) {
+            int from = next.getAndAdd(count);
+            int[] block = new int[count];
+            for (int i = 0; i < count; i++) {
+                block[i] = from + i;
+            }
+            return block;
+        }
+    }
+}
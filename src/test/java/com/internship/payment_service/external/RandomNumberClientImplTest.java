@@ -1,11 +1,12 @@
 package com.internship.payment_service.external;
 
 import com.github.tomakehurst.wiremock.WireMockServer;
+import com.internship.payment_service.config.RandomApiProperties;
 import com.internship.payment_service.exception.RandomApiUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
@@ -26,14 +27,14 @@ class RandomNumberClientImplTest {
         wm = new WireMockServer(options().dynamicPort());
         wm.start();
 
-        client = new RandomNumberClientImpl(WebClient.builder());
-
-        ReflectionTestUtils.setField(client, "baseUrl", wm.baseUrl());
-        ReflectionTestUtils.setField(client, "path", "/api/v1.0/random");
-        ReflectionTestUtils.setField(client, "min", 1);
-        ReflectionTestUtils.setField(client, "max", 100);
-        ReflectionTestUtils.setField(client, "count", 1);
-        ReflectionTestUtils.setField(client, "timeoutMs", 2000L);
+        RandomApiProperties props = new RandomApiProperties();
+        props.setBaseUrl(wm.baseUrl());
+        props.setPath("/api/v1.0/random");
+        props.setMin(1);
+        props.setMax(100);
+        props.setCount(1);
+        props.setTimeoutMs(2000);
+        client = new RandomNumberClientImpl(WebClient.builder(), props, new SimpleMeterRegistry());
     }
 
     @AfterEach
@@ -84,4 +85,16 @@ class RandomNumberClientImplTest {
                 .isInstanceOf(RandomApiUnavailableException.class)
                 .hasMessageContaining("failed");
     }
+
+    @Test
+    void getBatch_ShouldRequestCountAndReturnAllNumbers() {
+        wm.stubFor(get(urlPathEqualTo("/api/v1.0/random"))
+                .withQueryParam("count", equalTo("3"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("[4, 8, 15]")));
+
+        assertThat(client.getBatch(3)).containsExactly(4, 8, 15);
+    }
 }
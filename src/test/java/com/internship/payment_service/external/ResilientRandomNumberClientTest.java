@@ -0,0 +1,154 @@
+package com.internship.payment_service.external;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.internship.payment_service.config.RandomApiProperties;
+import com.internship.payment_service.exception.RandomApiUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResilientRandomNumberClientTest {
+
+    private static final String PATH = "/api/v1.0/random";
+
+    private WireMockServer wm;
+    private RandomApiProperties props;
+    private SimpleMeterRegistry registry;
+    private ResilientRandomNumberClient client;
+
+    @BeforeEach
+    void setUp() {
+        wm = new WireMockServer(options().dynamicPort());
+        wm.start();
+
+        props = new RandomApiProperties();
+        props.setBaseUrl(wm.baseUrl());
+        props.setPath(PATH);
+        props.setTimeoutMs(5000);
+        props.getResilient().setMinSamples(10);
+        props.getResilient().setMinTimeoutMs(100);
+        props.getResilient().getCircuitBreaker().setWindowSize(10);
+        props.getResilient().getCircuitBreaker().setMinimumCalls(4);
+        props.getResilient().getCircuitBreaker().setFailureRateThreshold(50);
+        props.getResilient().getCircuitBreaker().setOpenDurationMs(60_000);
+
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        wm.stop();
+    }
+
+    @Test
+    void get_ShouldReturnNumber_WhenApiHealthy() {
+        stubFast();
+        client = newClient();
+
+        assertThat(client.get()).isEqualTo(42);
+        assertThat(client.circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void get_ShouldFailFast_WhenCircuitIsOpen() {
+        wm.stubFor(get(urlPathEqualTo(PATH)).willReturn(aResponse().withStatus(503)));
+        client = newClient();
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> client.get()).isInstanceOf(RandomApiUnavailableException.class);
+        }
+        assertThat(client.circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThatThrownBy(() -> client.get())
+                .isInstanceOf(RandomApiUnavailableException.class)
+                .hasMessageContaining("circuit breaker is open");
+        wm.verify(4, getRequestedFor(urlPathEqualTo(PATH)));
+        assertThat(registry.get("random.api.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_ShouldDeriveTimeoutFromMeasuredLatency() {
+        stubFast();
+        client = newClient();
+        assertThat(client.currentTimeout()).isEqualTo(Duration.ofMillis(5000));
+
+        warmUp();
+
+        assertThat(client.currentTimeout()).isLessThan(Duration.ofMillis(1500));
+
+        props.getResilient().setHedgeEnabled(false);
+        wm.resetAll();
+        wm.stubFor(get(urlPathEqualTo(PATH)).willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "application/json")
+                .withBody("[42]")
+                .withFixedDelay(1500)));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> client.get()).isInstanceOf(RandomApiUnavailableException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1500));
+    }
+
+    @Test
+    void get_ShouldAnswerFromHedgedRequest_WhenFirstRequestIsSlow() {
+        stubFast();
+        client = newClient();
+        // a warm-up call slow enough to be hedged would leave a stray request behind and count towards the assertion
+        props.getResilient().setHedgeEnabled(false);
+        warmUp();
+        props.getResilient().setHedgeEnabled(true);
+        double hedgedBefore = registry.get("random.api.hedged").counter().count();
+
+        wm.resetAll();
+        wm.stubFor(get(urlPathEqualTo(PATH)).inScenario("hedge")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("[1]")
+                        .withFixedDelay(1500))
+                .willSetStateTo("fast"));
+        wm.stubFor(get(urlPathEqualTo(PATH)).inScenario("hedge")
+                .whenScenarioStateIs("fast")
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("[2]")));
+
+        // the adaptive timeout would cut the slow request, so keep the static one to isolate hedging
+        props.getResilient().setMinTimeoutMs(2000);
+
+        assertThat(client.get()).isEqualTo(2);
+        assertThat(registry.get("random.api.hedged").counter().count() - hedgedBefore).isEqualTo(1);
+    }
+
+    private ResilientRandomNumberClient newClient() {
+        return new ResilientRandomNumberClient(WebClient.builder().baseUrl(wm.baseUrl()).build(), props, registry);
+    }
+
+    private void stubFast() {
+        wm.stubFor(get(urlPathEqualTo(PATH)).willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "application/json")
+                .withBody("[42]")));
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < 64; i++) {
+            client.get();
+        }
+    }
+}
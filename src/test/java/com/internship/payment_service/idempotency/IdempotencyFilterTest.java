@@ -0,0 +1,86 @@
+package com.internship.payment_service.idempotency;
+
+import com.internship.payment_service.config.IdempotencyProperties;
+import com.internship.payment_service.dto.PaymentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyProperties props = new IdempotencyProperties();
+        props.setExpectedInsertions(1_000);
+        props.setRecentCapacity(2);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new IdempotencyFilter(props, meterRegistry);
+    }
+
+    @Test
+    void mightContain_ShouldAlwaysBeTrue_UntilWarmedUp() {
+        assertThat(filter.mightContain("evt-1")).isTrue();
+        assertThat(lookups("miss")).isZero();
+
+        filter.warmUp(Stream.of("evt-1"));
+
+        assertThat(filter.isWarmed()).isTrue();
+        assertThat(filter.mightContain("evt-1")).isTrue();
+        assertThat(filter.mightContain("evt-2")).isFalse();
+        assertThat(lookups("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void remember_ShouldMakeEventKnown_AndEvictLeastRecentlyUsed() {
+        filter.warmUp(Stream.empty());
+        PaymentResponse r1 = PaymentResponse.builder().id("p1").build();
+        PaymentResponse r2 = PaymentResponse.builder().id("p2").build();
+        PaymentResponse r3 = PaymentResponse.builder().id("p3").build();
+
+        filter.remember("evt-1", r1);
+        filter.remember("evt-2", r2);
+        assertThat(filter.recent("evt-1")).isSameAs(r1); // evt-1 becomes most recently used
+        filter.remember("evt-3", r3);
+
+        assertThat(filter.recent("evt-2")).isNull();
+        assertThat(filter.recent("evt-1")).isSameAs(r1);
+        assertThat(filter.recent("evt-3")).isSameAs(r3);
+        assertThat(filter.mightContain("evt-2")).isTrue();
+        assertThat(lookups("hit")).isEqualTo(3);
+    }
+
+    @Test
+    void confirmAbsent_ShouldCountFalsePositive_OnlyOnceWarmed() {
+        filter.confirmAbsent("evt-1");
+        filter.warmUp(Stream.empty());
+        filter.confirmAbsent("evt-1");
+
+        assertThat(lookups("false_positive")).isEqualTo(1);
+    }
+
+    @Test
+    void bloomFilter_ShouldHaveNoFalseNegatives_AndBoundedFalsePositives_WhenGrowingPastCapacity() {
+        ScalableBloomFilter bloom = new ScalableBloomFilter(1_000, 0.01);
+
+        IntStream.range(0, 20_000).forEach(i -> bloom.put("evt-" + i));
+
+        assertThat(bloom.stageCount()).isGreaterThan(1);
+        assertThat(IntStream.range(0, 20_000).allMatch(i -> bloom.mightContain("evt-" + i))).isTrue();
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> bloom.mightContain("other-" + i))
+                .count();
+        assertThat(falsePositives / 100_000d).isLessThan(0.01);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.counter("idempotency.lookup", "result", result).count();
+    }
+}
@@ -0,0 +1,90 @@
+package com.internship.payment_service.idempotency;
+
+import com.internship.payment_service.dto.PaymentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InFlightCreatesTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private InFlightCreates inFlight;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        inFlight = new InFlightCreates(meterRegistry);
+    }
+
+    @Test
+    void execute_ShouldShareLeaderFailure_AndReleaseTheEventId() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("mongo down");
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<PaymentResponse> leader = pool.submit(() -> inFlight.execute("evt-1", () -> {
+                started.countDown();
+                await(release);
+                throw failure;
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<PaymentResponse> follower = pool.submit(() -> inFlight.execute("evt-1", () -> {
+                throw new AssertionError("follower must not run its own create");
+            }));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (coalesced() < 1 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class).hasCause(failure);
+            assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class).hasCause(failure);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        PaymentResponse retried = PaymentResponse.builder().id("p-1").build();
+        assertThat(inFlight.execute("evt-1", () -> retried)).isSameAs(retried);
+        assertThat(meterRegistry.get("idempotency.in_flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void execute_ShouldRunEveryCall_WhenCallsDoNotOverlap() {
+        AtomicInteger runs = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            inFlight.execute("evt-1", () -> PaymentResponse.builder().id("p-" + runs.incrementAndGet()).build());
+        }
+        inFlight.execute("evt-2", () -> PaymentResponse.builder().id("p-" + runs.incrementAndGet()).build());
+
+        assertThat(runs.get()).isEqualTo(4);
+        assertThat(coalesced()).isZero();
+    }
+
+    private double coalesced() {
+        return meterRegistry.get("idempotency.coalesced").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.internship.payment_service.integration;
+
+import com.internship.payment_service.dto.PaymentRequest;
+import com.internship.payment_service.dto.PaymentResponse;
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.external.RandomNumberClient;
+import com.internship.payment_service.repository.PaymentRepository;
+import com.internship.payment_service.service.PaymentService;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentConcurrencyIT extends BaseIntegrationTest {
+
+    private static final int THREADS = 64;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository repo;
+
+    @MockBean
+    private RandomNumberClient randomNumberClient;
+
+    @BeforeEach
+    void clean() {
+        repo.deleteAll();
+        Mockito.when(randomNumberClient.get()).thenReturn(42);
+    }
+
+    @Test
+    void create_ShouldStoreOnePayment_WhenSameEventIdArrivesConcurrently() throws Exception {
+        List<PaymentResponse> responses = hammer(i -> () -> paymentService.create(request("evt-hammer", 900L)));
+
+        assertThat(responses).extracting(PaymentResponse::getId).containsOnly(responses.get(0).getId());
+        List<Payment> stored = repo.findByOrderId(900L);
+        assertThat(stored).hasSize(1);
+        assertThat(stored.get(0).getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+    }
+
+    @Test
+    void create_ShouldAllowSingleSuccess_WhenOneOrderIsPaidConcurrently() throws Exception {
+        List<PaymentResponse> responses = hammer(i -> () -> paymentService.create(request("evt-order-" + i, 901L)));
+
+        assertThat(responses).hasSize(THREADS);
+        assertThat(responses).filteredOn(r -> r.getStatus() == PaymentStatus.SUCCESS).hasSize(1);
+        assertThat(repo.findByOrderId(901L)).hasSize(THREADS);
+    }
+
+    @Test
+    void createBatch_ShouldStoreEachEventOnce_WhenBatchesOverlapConcurrently() throws Exception {
+        List<PaymentRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            batch.add(request("evt-batch-" + i, 1_000L + i));
+        }
+
+        List<List<PaymentResponse>> responses = hammer(i -> () -> paymentService.createBatch(batch));
+
+        for (List<PaymentResponse> response : responses) {
+            assertThat(response).extracting(PaymentResponse::getId)
+                    .containsExactlyElementsOf(responses.get(0).stream().map(PaymentResponse::getId).toList());
+        }
+        assertThat(repo.count()).isEqualTo(20);
+    }
+
+    // releases all tasks at once and fails on the first exception any of them threw
+    private <T> List<T> hammer(IntFunction<Callable<T>> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int i = 0; i < THREADS; i++) {
+                Callable<T> call = task.apply(i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+
+    private PaymentRequest request(String eventId, Long orderId) {
+        return PaymentRequest.builder()
+                .orderId(orderId)
+                .userId(1L)
+                .paymentAmount(new BigDecimal("10.00"))
+                .eventId(eventId)
+                .build();
+    }
+}
@@ -10,6 +10,7 @@ import com.internship.payment_service.repository.PaymentRepository;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,11 +19,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class PaymentControllerIT extends BaseIntegrationTest {
@@ -126,6 +131,76 @@ class PaymentControllerIT extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.length()").value(2));
     }
 
+    @Test
+    void getStatuses_ShouldStreamNdjson_WhenRequested() throws Exception {
+        Instant now = Instant.now();
+
+        for (int i = 0; i < 3; i++) {
+            repo.save(Payment.builder()
+                    .orderId(400L + i).userId(9L).status(PaymentStatus.SUCCESS)
+                    .paymentAmount(new BigDecimal("1.00")).timestamp(now.minusSeconds(i)).build());
+        }
+
+        MvcResult started = mockMvc.perform(get("/api/v1/payments/statuses")
+                        .param("statuses", "SUCCESS")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().is2xxSuccessful())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(3);
+        for (String line : lines) {
+            assertThat(objectMapper.readTree(line).get("status").asText()).isEqualTo("SUCCESS");
+        }
+    }
+
+    @Test
+    void getByUser_ShouldPageWithCursor_WhenLimitGiven() throws Exception {
+        Instant now = Instant.now();
+
+        for (int i = 0; i < 5; i++) {
+            repo.save(Payment.builder()
+                    .orderId(500L + i).userId(77L).status(PaymentStatus.FAILED)
+                    .paymentAmount(new BigDecimal("1.00")).timestamp(now.minusSeconds(i / 2)).build());
+        }
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/v1/payments/user/{userId}", 77L).param("limit", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().is2xxSuccessful())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString());
+            page.get("items").forEach(item -> seen.add(item.get("id").asText()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(5).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void getByUser_ShouldReturn400_WhenCursorInvalid() throws Exception {
+        mockMvc.perform(get("/api/v1/payments/user/{userId}", 77L)
+                        .param("limit", "2")
+                        .param("cursor", "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getTotalSum_ShouldReturnOnlySuccessWithinRange() throws Exception {
         Instant now = Instant.now();
@@ -0,0 +1,132 @@
+package com.internship.payment_service.integration;
+
+import com.internship.payment_service.config.RollupProperties;
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentRollup;
+import com.internship.payment_service.entity.PaymentRollupState;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.entity.RollupGranularity;
+import com.internship.payment_service.repository.PaymentRepository;
+import com.internship.payment_service.repository.PaymentRollupRepository;
+import com.internship.payment_service.repository.PaymentRollupRepository.Bucket;
+import com.internship.payment_service.rollup.PaymentRollupService;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentRollupIT extends BaseIntegrationTest {
+
+    @Autowired
+    private PaymentRepository repo;
+
+    @Autowired
+    private PaymentRollupRepository rollupRepo;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private PaymentRollupService rollups;
+
+    @BeforeEach
+    void clean() {
+        repo.deleteAll();
+        mongoTemplate.remove(new Query(), PaymentRollup.class);
+        mongoTemplate.dropCollection(PaymentRollupState.class);
+
+        // a fresh service with no grace: writes_since is now, and the backfill does not wait
+        RollupProperties props = new RollupProperties();
+        props.setGrace(Duration.ZERO);
+        rollups = new PaymentRollupService(rollupRepo, repo, props);
+    }
+
+    @Test
+    void totalBetween_ShouldMatchAggregation_ForBackfilledAndLivePayments() throws Exception {
+        Random random = new Random(42);
+        Instant now = Instant.now();
+
+        // history from before the rollups existed
+        List<Payment> history = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            history.add(payment(random, now.minusSeconds(random.nextInt(3 * 86_400) + 1), i));
+        }
+        repo.insert(history);
+        rollups.backfill();
+
+        // live payments counted by $inc, including some in buckets that also hold backfilled amounts
+        List<Payment> live = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            live.add(payment(random, Instant.now().plusMillis(random.nextInt(120_000)), 1_000 + i));
+        }
+        repo.insert(live);
+        rollups.record(live);
+
+        Instant earliest = now.minusSeconds(3 * 86_400 + 60);
+        for (int i = 0; i < 50; i++) {
+            Instant a = earliest.plusMillis((long) (random.nextDouble() * Duration.ofDays(3).plusMinutes(5).toMillis()));
+            Instant b = earliest.plusMillis((long) (random.nextDouble() * Duration.ofDays(3).plusMinutes(5).toMillis()));
+            Instant from = a.isBefore(b) ? a : b;
+            Instant to = a.isBefore(b) ? b : a;
+
+            var rows = repo.sumSuccessfulBetween(from, to);
+            BigDecimal expected = rows.isEmpty() || rows.get(0).getTotal() == null ? BigDecimal.ZERO : rows.get(0).getTotal();
+
+            assertThat(rollups.totalBetween(from, to))
+                    .as("%s .. %s", from, to)
+                    .hasValueSatisfying(total -> assertThat(total).isEqualByComparingTo(expected));
+        }
+    }
+
+    @Test
+    void repair_ShouldRecomputeBucketsOfALostIncrement() throws Exception {
+        Instant writesSince = Instant.now().minus(Duration.ofDays(3));
+        mongoTemplate.save(PaymentRollupState.builder().id(PaymentRollupState.ID).writesSince(writesSince).build());
+        rollups.backfill();
+
+        Random random = new Random(7);
+        List<Payment> live = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            live.add(payment(random, writesSince.plus(Duration.ofHours(24 + i)), i));
+        }
+        repo.insert(live);
+        rollups.record(live.subList(0, 10));
+        // the increment for the rest was lost, only its buckets got marked
+        List<Bucket> lost = new ArrayList<>();
+        for (Payment payment : live.subList(10, 20)) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                lost.add(new Bucket(granularity, granularity.floor(payment.getTimestamp())));
+            }
+        }
+        rollupRepo.markDirty(lost);
+
+        Instant from = writesSince.plus(Duration.ofHours(12));
+        Instant to = writesSince.plus(Duration.ofHours(60));
+        assertThat(rollups.totalBetween(from, to)).isEmpty();
+
+        rollups.repair();
+
+        var rows = repo.sumSuccessfulBetween(from, to);
+        BigDecimal expected = rows.isEmpty() || rows.get(0).getTotal() == null ? BigDecimal.ZERO : rows.get(0).getTotal();
+        assertThat(rollups.totalBetween(from, to))
+                .hasValueSatisfying(total -> assertThat(total).isEqualByComparingTo(expected));
+    }
+
+    private Payment payment(Random random, Instant timestamp, long orderId) {
+        return Payment.builder()
+                .orderId(orderId)
+                .userId(1L)
+                .status(random.nextBoolean() ? PaymentStatus.SUCCESS : PaymentStatus.FAILED)
+                .paymentAmount(BigDecimal.valueOf(random.nextInt(100_000), 2))
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,145 @@
+package com.internship.payment_service.integration;
+
+import com.internship.payment_service.config.RollupProperties;
+import com.internship.payment_service.dto.UserPaymentSummaryResponse;
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentRollupState;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.entity.UserPaymentSummary;
+import com.internship.payment_service.repository.PaymentRepository;
+import com.internship.payment_service.repository.UserPaymentSummaryRepository;
+import com.internship.payment_service.rollup.UserPaymentSummaryService;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserPaymentSummaryIT extends BaseIntegrationTest {
+
+    @Autowired
+    private PaymentRepository repo;
+
+    @Autowired
+    private UserPaymentSummaryRepository summaryRepo;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private UserPaymentSummaryService summaries;
+
+    @BeforeEach
+    void clean() {
+        repo.deleteAll();
+        mongoTemplate.remove(new Query(), UserPaymentSummary.class);
+        mongoTemplate.dropCollection(PaymentRollupState.class);
+
+        // a fresh service with no grace: writes_since is now, and the backfill does not wait
+        RollupProperties props = new RollupProperties();
+        props.setGrace(Duration.ZERO);
+        summaries = new UserPaymentSummaryService(summaryRepo, props);
+    }
+
+    @Test
+    void summary_ShouldMatchPayments_BeforeAndAfterBackfill() throws Exception {
+        Random random = new Random(42);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+        // history from before the summaries existed
+        List<Payment> history = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            history.add(payment(random, now.minusSeconds(random.nextInt(3 * 86_400) + 1), i));
+        }
+        repo.insert(history);
+
+        // not backfilled yet: aggregated from payments
+        for (long userId = 1; userId <= 3; userId++) {
+            assertMatches(summaries.summary(userId), userId, history);
+        }
+
+        summaries.backfill();
+
+        // live payments counted by $inc on top of the backfilled totals
+        Instant since = Instant.now().truncatedTo(ChronoUnit.MILLIS).plusMillis(1);
+        List<Payment> live = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            live.add(payment(random, since.plusMillis(random.nextInt(120_000)), 1_000 + i));
+        }
+        repo.insert(live);
+        summaries.record(live);
+
+        List<Payment> all = new ArrayList<>(history);
+        all.addAll(live);
+        for (long userId = 1; userId <= 3; userId++) {
+            assertMatches(summaries.summary(userId), userId, all);
+        }
+        assertThat(summaries.summary(99L).getCount()).isZero();
+    }
+
+    @Test
+    void repair_ShouldRebuildTheSummaryOfALostIncrement() throws Exception {
+        Instant writesSince = Instant.now().minus(Duration.ofDays(3)).truncatedTo(ChronoUnit.MILLIS);
+        mongoTemplate.save(PaymentRollupState.builder().id(PaymentRollupState.USER_SUMMARIES_ID).writesSince(writesSince).build());
+        Random random = new Random(7);
+        List<Payment> history = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            history.add(payment(random, writesSince.minusSeconds(random.nextInt(86_400) + 1), i));
+        }
+        repo.insert(history);
+        summaries.backfill();
+
+        List<Payment> live = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            live.add(payment(random, writesSince.plus(Duration.ofHours(1 + i)), 1_000 + i));
+        }
+        repo.insert(live);
+        summaries.record(live.subList(0, 15));
+        // the increment for the rest was lost, only its users got marked
+        summaryRepo.markDirty(live.subList(15, 30).stream().map(Payment::getUserId).distinct().toList());
+
+        List<Payment> all = new ArrayList<>(history);
+        all.addAll(live);
+        for (long userId = 1; userId <= 3; userId++) {
+            assertMatches(summaries.summary(userId), userId, all);
+        }
+
+        summaries.repair();
+
+        assertThat(summaryRepo.findDirty()).isEmpty();
+        for (long userId = 1; userId <= 3; userId++) {
+            assertMatches(summaries.summary(userId), userId, all);
+        }
+    }
+
+    private static void assertMatches(UserPaymentSummaryResponse summary, long userId, List<Payment> payments) {
+        List<Payment> own = payments.stream().filter(p -> p.getUserId() == userId).toList();
+        assertThat(summary.getCount()).isEqualTo(own.size());
+        for (PaymentStatus status : PaymentStatus.values()) {
+            List<Payment> byStatus = own.stream().filter(p -> p.getStatus() == status).toList();
+            BigDecimal total = byStatus.stream().map(Payment::getPaymentAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+            assertThat(summary.getByStatus().get(status).getCount()).as("%s %s", userId, status).isEqualTo(byStatus.size());
+            assertThat(summary.getByStatus().get(status).getTotal()).as("%s %s", userId, status).isEqualByComparingTo(total);
+        }
+        assertThat(summary.getFirstPaymentAt()).isEqualTo(own.stream().map(Payment::getTimestamp).min(Instant::compareTo).orElseThrow());
+        assertThat(summary.getLastPaymentAt()).isEqualTo(own.stream().map(Payment::getTimestamp).max(Instant::compareTo).orElseThrow());
+    }
+
+    private Payment payment(Random random, Instant timestamp, long orderId) {
+        return Payment.builder()
+                .orderId(orderId)
+                .userId(1L + random.nextInt(3))
+                .status(random.nextBoolean() ? PaymentStatus.SUCCESS : PaymentStatus.FAILED)
+                .paymentAmount(BigDecimal.valueOf(random.nextInt(100_000), 2))
+                .timestamp(timestamp)
+                .build();
+    }
+}
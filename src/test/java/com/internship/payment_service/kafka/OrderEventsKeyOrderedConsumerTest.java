@@ -0,0 +1,124 @@
+package com.internship.payment_service.kafka;
+
+import com.internship.payment_service.config.KafkaTopicsProperties;
+import com.internship.payment_service.dto.PaymentRequest;
+import com.internship.payment_service.dto.PaymentResponse;
+import com.internship.payment_service.kafka.dto.OrderEvent;
+import com.internship.payment_service.metrics.PaymentMetrics;
+import com.internship.payment_service.service.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderEventsKeyOrderedConsumerTest {
+
+    @Mock
+    private PaymentService paymentService;
+
+    private OrderEventsKeyOrderedConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        KafkaTopicsProperties topics = new KafkaTopicsProperties();
+        topics.getKeyOrdered().setWorkers(4);
+        topics.getKeyOrdered().setMaxAttempts(3);
+        topics.getKeyOrdered().setRetryBackoffMs(1);
+        consumer = new OrderEventsKeyOrderedConsumer(paymentService, new PaymentMetrics(new SimpleMeterRegistry()), topics);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        consumer.shutdown();
+    }
+
+    @Test
+    void onOrderEvent_ShouldKeepPerOrderSequence_AndProcessOrdersInParallel() throws InterruptedException {
+        Map<Long, List<String>> seen = new ConcurrentHashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(paymentService.create(any())).thenAnswer(invocation -> {
+            PaymentRequest request = invocation.getArgument(0);
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(2);
+            seen.computeIfAbsent(request.getOrderId(), id -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(request.getEventId());
+            running.decrementAndGet();
+            return PaymentResponse.builder().id(request.getEventId()).build();
+        });
+
+        int orders = 8;
+        int eventsPerOrder = 20;
+        CountDownLatch acked = new CountDownLatch(orders * eventsPerOrder);
+        long offset = 0;
+        for (int seq = 0; seq < eventsPerOrder; seq++) {
+            for (long order = 0; order < orders; order++) {
+                consumer.onOrderEvent(record(offset++, order, order + "-" + seq), acked::countDown);
+            }
+        }
+
+        assertThat(acked.await(10, TimeUnit.SECONDS)).isTrue();
+        for (long order = 0; order < orders; order++) {
+            List<String> expected = new ArrayList<>();
+            for (int seq = 0; seq < eventsPerOrder; seq++) {
+                expected.add(order + "-" + seq);
+            }
+            assertThat(seen.get(order)).containsExactlyElementsOf(expected);
+        }
+        assertThat(maxRunning.get()).isGreaterThan(1);
+    }
+
+    @Test
+    void onOrderEvent_ShouldRetryThenAckAndContinue_WhenRecordKeepsFailing() throws InterruptedException {
+        List<String> processed = Collections.synchronizedList(new ArrayList<>());
+        when(paymentService.create(any())).thenAnswer(invocation -> {
+            PaymentRequest request = invocation.getArgument(0);
+            if (request.getEventId().equals("poison")) {
+                throw new IllegalStateException("mongo down");
+            }
+            processed.add(request.getEventId());
+            return PaymentResponse.builder().id(request.getEventId()).build();
+        });
+
+        CountDownLatch acked = new CountDownLatch(2);
+        Acknowledgment ack = acked::countDown;
+        consumer.onOrderEvent(record(0, 7L, "poison"), ack);
+        consumer.onOrderEvent(record(1, 7L, "next"), ack);
+
+        assertThat(acked.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(processed).containsExactly("next");
+        verify(paymentService, times(4)).create(any());
+    }
+
+    private static ConsumerRecord<String, OrderEvent> record(long offset, long orderId, String eventId) {
+        OrderEvent event = OrderEvent.builder()
+                .eventId(eventId)
+                .orderId(orderId)
+                .userId(1L)
+                .paymentAmount(BigDecimal.TEN)
+                .build();
+        return new ConsumerRecord<>("orders", 0, offset, String.valueOf(orderId), event);
+    }
+}
@@ -0,0 +1,104 @@
+package com.internship.payment_service.kafka.codec;
+
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.kafka.dto.OrderEvent;
+import com.internship.payment_service.kafka.dto.PaymentEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NegotiatingCodecTest {
+
+    private static final String TOPIC = "orders";
+
+    private final OrderEvent order = OrderEvent.builder()
+            .eventId("3f2c7a4e-1b9d-4c55-9a0e-6d2f8b1c7e90")
+            .orderId(9_876_543L)
+            .userId(-42L)
+            .paymentAmount(new BigDecimal("1234.50"))
+            .build();
+
+    @Test
+    void binary_ShouldRoundTripOrderEvent_AndBeSmallerThanJson() {
+        RecordHeaders binaryHeaders = new RecordHeaders();
+        byte[] binary = serializer(WireFormat.BINARY).serialize(TOPIC, binaryHeaders, order);
+        byte[] json = serializer(WireFormat.JSON).serialize(TOPIC, new RecordHeaders(), order);
+
+        OrderEvent decoded = deserializer().deserialize(TOPIC, binaryHeaders, binary);
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(order);
+        assertThat(decoded.getPaymentAmount().scale()).isEqualTo(2);
+        assertThat(binary.length).isLessThan(json.length / 2);
+    }
+
+    @Test
+    void binary_ShouldKeepNullFields() {
+        PaymentEventCodec codec = new PaymentEventCodec();
+        PaymentEvent event = PaymentEvent.builder().paymentId("p-1").status(PaymentStatus.FAILED).build();
+
+        PaymentEvent decoded = codec.decode(codec.encode(event), codec.version());
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+        assertThat(decoded.getEventId()).isNull();
+        assertThat(decoded.getOrderId()).isNull();
+    }
+
+    @Test
+    void serialize_ShouldFailWithSerializationException_WhenBinaryHasNoHeaders() {
+        assertThatThrownBy(() -> serializer(WireFormat.BINARY).serialize(TOPIC, order))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void deserialize_ShouldReadJson_WhenRecordHasNoContentType() {
+        // a producer from before the binary format: plain JsonSerializer, no content-type header
+        byte[] legacy = new JsonSerializer<OrderEvent>().serialize(TOPIC, order);
+
+        OrderEvent decoded = deserializer().deserialize(TOPIC, new RecordHeaders(), legacy);
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(order);
+    }
+
+    @Test
+    void deserialize_ShouldReject_NewerSchemaVersion() {
+        RecordHeaders headers = new RecordHeaders();
+        byte[] binary = serializer(WireFormat.BINARY).serialize(TOPIC, headers, order);
+        headers.remove(WireFormat.SCHEMA_VERSION_HEADER);
+        headers.add(WireFormat.SCHEMA_VERSION_HEADER, new byte[]{2});
+
+        assertThatThrownBy(() -> deserializer().deserialize(TOPIC, headers, binary))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("schema-version 2");
+    }
+
+    @Test
+    void serialize_ShouldStampContentType() {
+        RecordHeaders headers = new RecordHeaders();
+
+        serializer(WireFormat.JSON).serialize(TOPIC, headers, order);
+
+        assertThat(new String(headers.lastHeader(WireFormat.CONTENT_TYPE_HEADER).value(), StandardCharsets.UTF_8))
+                .isEqualTo("application/json");
+        assertThat(headers.lastHeader(WireFormat.SCHEMA_VERSION_HEADER)).isNull();
+    }
+
+    private NegotiatingSerializer<OrderEvent> serializer(WireFormat format) {
+        JsonSerializer<OrderEvent> json = new JsonSerializer<>();
+        json.setAddTypeInfo(false);
+        return new NegotiatingSerializer<>(format, new OrderEventCodec(), json);
+    }
+
+    private NegotiatingDeserializer<OrderEvent> deserializer() {
+        JsonDeserializer<OrderEvent> json = new JsonDeserializer<>(OrderEvent.class, false);
+        json.addTrustedPackages("*");
+        return new NegotiatingDeserializer<>(new OrderEventCodec(), json);
+    }
+}
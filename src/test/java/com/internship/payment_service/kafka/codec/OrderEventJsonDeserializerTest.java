@@ -0,0 +1,84 @@
+package com.internship.payment_service.kafka.codec;
+
+import com.internship.payment_service.kafka.dto.OrderEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderEventJsonDeserializerTest {
+
+    private static final String TOPIC = "orders";
+
+    private final OrderEventJsonDeserializer deserializer = new OrderEventJsonDeserializer();
+
+    @Test
+    void deserialize_ShouldMatchJacksonOutput() {
+        OrderEvent event = OrderEvent.builder()
+                .eventId("3f2c7a4e-1b9d-4c55-9a0e-6d2f8b1c7e90")
+                .orderId(Long.MAX_VALUE)
+                .userId(Long.MIN_VALUE)
+                .paymentAmount(new BigDecimal("1234.50"))
+                .build();
+        byte[] json = new JsonSerializer<OrderEvent>().serialize(TOPIC, event);
+
+        OrderEvent decoded = deserializer.deserialize(TOPIC, json);
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+        assertThat(decoded.getPaymentAmount().scale()).isEqualTo(2);
+    }
+
+    @Test
+    void deserialize_ShouldHandleEscapes_UnknownFields_NullsAndExponents() {
+        OrderEvent decoded = deserializer.deserialize(TOPIC, json("""
+                 { "extra": {"nested": [1, "x\\"y", true, null]},
+                   "eventId": "caf\\u00e9\\n\\"id\\"",
+                   "orderId": "17", "userId": null,
+                   "paymentAmount": -1.5E3 }
+                """));
+
+        assertThat(decoded.getEventId()).isEqualTo("café\n\"id\"");
+        assertThat(decoded.getOrderId()).isEqualTo(17L);
+        assertThat(decoded.getUserId()).isNull();
+        assertThat(decoded.getPaymentAmount()).isEqualTo(new BigDecimal("-1.5E3"));
+    }
+
+    @Test
+    void deserialize_ShouldFallBackToBigDecimalParser_ForLongAmounts() {
+        OrderEvent decoded = deserializer.deserialize(TOPIC,
+                json("{\"paymentAmount\":123456789012345678901234.567}"));
+
+        assertThat(decoded.getPaymentAmount()).isEqualTo(new BigDecimal("123456789012345678901234.567"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "[]",
+            "{\"orderId\":12",
+            "{\"orderId\":1.5}",
+            "{\"orderId\":9223372036854775808}",
+            "{\"eventId\":\"abc}",
+            "{\"paymentAmount\":1.}",
+            "{\"orderId\":1}}",
+            "{\"orderId\" 1}",
+            "{\"flag\":tru}"
+    })
+    void deserialize_ShouldRejectMalformedInput_WithoutStackTrace(String input) {
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, json(input)))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageStartingWith("Malformed OrderEvent JSON")
+                .satisfies(ex -> assertThat(ex.getStackTrace()).isEmpty());
+    }
+
+    private static byte[] json(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
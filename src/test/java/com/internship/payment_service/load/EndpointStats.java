@@ -0,0 +1,80 @@
+package com.internship.payment_service.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency is taken from the intended arrival time, not from when the request actually left, so a stalled service
+// shows up in the percentiles instead of silently lowering the offered rate (coordinated omission).
+class EndpointStats {
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final String name;
+    private final Histogram latencyMicros = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+    private final LongAdder succeeded = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LongAdder sent = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void sent() {
+        sent.increment();
+    }
+
+    void success(long intendedStartNanos) {
+        latencyMicros.recordValue(Math.min(elapsedMicros(intendedStartNanos), MAX_TRACKABLE_MICROS));
+        succeeded.increment();
+    }
+
+    void error(String reason) {
+        error(reason, 1);
+    }
+
+    void error(String reason, long count) {
+        errors.computeIfAbsent(reason, key -> new LongAdder()).add(count);
+    }
+
+    void print(PrintStream out, double measuredSeconds) {
+        out.printf("%-24s sent=%d ok=%d (%.1f/s)%n", name, sent.sum(), succeeded.sum(), succeeded.sum() / measuredSeconds);
+        if (latencyMicros.getTotalCount() > 0) {
+            out.printf("%-24s p50=%.1fms p90=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms%n", "",
+                    percentileMs(50), percentileMs(90), percentileMs(99), percentileMs(99.9),
+                    latencyMicros.getMaxValue() / 1000d);
+        }
+        new TreeMap<>(errors).forEach((reason, count) ->
+                out.printf("%-24s error %-40s %d%n", "", reason, count.sum()));
+    }
+
+    // .hgrm files can be plotted with https://hdrhistogram.github.io/HdrHistogram/plotFiles.html
+    void writeHgrm(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintStream out = new PrintStream(new FileOutputStream(directory.resolve(name + ".hgrm").toFile()))) {
+            latencyMicros.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private double percentileMs(double percentile) {
+        return latencyMicros.getValueAtPercentile(percentile) / 1000d;
+    }
+
+    private static long elapsedMicros(long intendedStartNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStartNanos);
+    }
+}
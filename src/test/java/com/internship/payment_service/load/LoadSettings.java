@@ -0,0 +1,36 @@
+package com.internship.payment_service.load;
+
+import java.time.Duration;
+import java.util.Set;
+
+// Everything is a -D system property so a run is one command line, e.g.
+//   mvn test -Dtest=PaymentLoadHarness -Dsurefire.failIfNoSpecifiedTests=false -Dload.rate=500 -Dload.duration=120
+record LoadSettings(
+        double ratePerSecond,
+        Duration warmUp,
+        Duration duration,
+        Duration drain,
+        boolean poissonArrivals,
+        Set<String> endpoints,
+        long randomApiMedianMs,
+        double randomApiSigma,
+        double randomApiErrorRate,
+        double randomApiTimeoutRate) {
+
+    static final String HTTP = "http";
+    static final String KAFKA = "kafka";
+
+    static LoadSettings fromSystemProperties() {
+        return new LoadSettings(
+                Double.parseDouble(System.getProperty("load.rate", "200")),
+                Duration.ofSeconds(Long.getLong("load.warmup", 10)),
+                Duration.ofSeconds(Long.getLong("load.duration", 60)),
+                Duration.ofSeconds(Long.getLong("load.drain", 30)),
+                !"uniform".equals(System.getProperty("load.arrivals", "poisson")),
+                Set.of(System.getProperty("load.endpoints", HTTP + "," + KAFKA).split(",")),
+                Long.getLong("load.random.median-ms", 20),
+                Double.parseDouble(System.getProperty("load.random.sigma", "0.4")),
+                Double.parseDouble(System.getProperty("load.random.error-rate", "0.01")),
+                Double.parseDouble(System.getProperty("load.random.timeout-rate", "0")));
+    }
+}
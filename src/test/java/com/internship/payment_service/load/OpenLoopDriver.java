@@ -0,0 +1,39 @@
+package com.internship.payment_service.load;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+// Open model: arrivals follow the schedule whatever the service does, and each arrival only starts an asynchronous
+// call, so slow responses never hold back the next request the way a fixed pool of closed-loop clients would.
+class OpenLoopDriver {
+
+    private final double ratePerSecond;
+    private final boolean poisson;
+
+    OpenLoopDriver(double ratePerSecond, boolean poisson) {
+        this.ratePerSecond = ratePerSecond;
+        this.poisson = poisson;
+    }
+
+    // calls arrival with the intended start in System.nanoTime() terms; returns the number of arrivals
+    long run(Duration duration, LongConsumer arrival) {
+        double meanGapNanos = 1_000_000_000d / ratePerSecond;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long next = start;
+        long arrivals = 0;
+        while (next < end) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            arrival.accept(next);
+            arrivals++;
+            double gap = poisson ? -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos : meanGapNanos;
+            next += (long) gap;
+        }
+        return arrivals;
+    }
+}
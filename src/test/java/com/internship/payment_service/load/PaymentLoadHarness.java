@@ -0,0 +1,234 @@
+package com.internship.payment_service.load;
+
+import com.internship.payment_service.PaymentServiceApplication;
+import com.internship.payment_service.integration.BaseIntegrationTest;
+import com.internship.payment_service.kafka.codec.NegotiatingDeserializer;
+import com.internship.payment_service.kafka.codec.PaymentEventCodec;
+import com.internship.payment_service.kafka.dto.OrderEvent;
+import com.internship.payment_service.kafka.dto.PaymentEvent;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Not picked up by surefire's default includes; needs Docker for the Mongo and Kafka containers. Run explicitly:
+//   mvn test -Dtest=PaymentLoadHarness -Dsurefire.failIfNoSpecifiedTests=false -Dload.rate=300
+// (all knobs are in LoadSettings). The service runs as in production, with the real random API client pointed at a
+// local stub. Load is offered open-loop at load.rate per endpoint:
+//   http   POST /api/v1/payments, latency until the 201
+//   kafka  OrderEvent on the orders topic, latency until its PaymentEvent shows up on the payments topic, so it
+//          includes the listener, the insert and the outbox relay poll interval
+// Percentiles go to stdout and full distributions to target/load/<endpoint>.hgrm.
+@SpringBootTest(classes = PaymentServiceApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PaymentLoadHarness extends BaseIntegrationTest {
+
+    private static final LoadSettings SETTINGS = LoadSettings.fromSystemProperties();
+    private static final long RANDOM_API_TIMEOUT_MS = 2_000;
+    private static final RandomApiStub RANDOM_API = new RandomApiStub(SETTINGS, RANDOM_API_TIMEOUT_MS);
+
+    static {
+        RANDOM_API.start();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    private final Map<String, InFlight> inFlightOrders = new ConcurrentHashMap<>();
+    private final AtomicLong orderIds = new AtomicLong(System.currentTimeMillis() * 1_000);
+
+    @DynamicPropertySource
+    static void loadProps(DynamicPropertyRegistry r) {
+        r.add("random-api.base-url", RANDOM_API::baseUrl);
+        r.add("random-api.path", () -> RandomApiStub.PATH);
+        r.add("random-api.timeout-ms", () -> RANDOM_API_TIMEOUT_MS);
+        r.add("logging.level.com.internship.payment_service", () -> "WARN");
+    }
+
+    @AfterAll
+    static void stopRandomApi() {
+        RANDOM_API.stop();
+    }
+
+    @Test
+    void offeredLoad_ReportsLatencyThroughputAndErrors() throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        DefaultKafkaProducerFactory<String, OrderEvent> producerFactory = new DefaultKafkaProducerFactory<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, KAFKA.getBootstrapServers(),
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class,
+                JsonSerializer.ADD_TYPE_INFO_HEADERS, false));
+        KafkaTemplate<String, OrderEvent> orders = new KafkaTemplate<>(producerFactory);
+
+        AtomicBoolean listening = new AtomicBoolean(true);
+        Thread paymentsListener = Thread.ofPlatform().name("load-payments-listener").start(() -> listen(listening));
+        try {
+            offer(http, orders, SETTINGS.warmUp(), new EndpointStats("warm-up http"), new EndpointStats("warm-up kafka"));
+            awaitDrain();
+            inFlightOrders.clear();
+
+            EndpointStats httpStats = new EndpointStats("http-post-payments");
+            EndpointStats kafkaStats = new EndpointStats("kafka-orders-to-payments");
+            offer(http, orders, SETTINGS.duration(), httpStats, kafkaStats);
+            awaitDrain();
+            kafkaStats.error("no PaymentEvent within " + SETTINGS.drain().toSeconds() + "s", inFlightOrders.size());
+
+            double seconds = SETTINGS.duration().toMillis() / 1000d;
+            System.out.printf("%nOffered %.0f/s per endpoint for %ds (%s arrivals), random API median %dms, "
+                            + "error rate %.3f, timeout rate %.3f%n", SETTINGS.ratePerSecond(), SETTINGS.duration().toSeconds(),
+                    SETTINGS.poissonArrivals() ? "poisson" : "uniform", SETTINGS.randomApiMedianMs(),
+                    SETTINGS.randomApiErrorRate(), SETTINGS.randomApiTimeoutRate());
+            List<EndpointStats> measured = new ArrayList<>();
+            if (SETTINGS.endpoints().contains(LoadSettings.HTTP)) {
+                measured.add(httpStats);
+            }
+            if (SETTINGS.endpoints().contains(LoadSettings.KAFKA)) {
+                measured.add(kafkaStats);
+            }
+            for (EndpointStats stats : measured) {
+                stats.print(System.out, seconds);
+                stats.writeHgrm(Path.of("target", "load"));
+            }
+            System.out.println();
+
+            assertThat(measured).isNotEmpty();
+        } finally {
+            listening.set(false);
+            paymentsListener.join();
+            producerFactory.destroy();
+        }
+    }
+
+    private void offer(HttpClient http, KafkaTemplate<String, OrderEvent> orders, Duration duration,
+                       EndpointStats httpStats, EndpointStats kafkaStats) throws InterruptedException {
+        URI uri = URI.create("http://localhost:" + port + "/api/v1/payments");
+        try (ExecutorService drivers = Executors.newFixedThreadPool(2)) {
+            if (SETTINGS.endpoints().contains(LoadSettings.HTTP)) {
+                drivers.submit(() -> drive(duration, intended -> postPayment(http, uri, httpStats, intended)));
+            }
+            if (SETTINGS.endpoints().contains(LoadSettings.KAFKA)) {
+                drivers.submit(() -> drive(duration, intended -> publishOrder(orders, kafkaStats, intended)));
+            }
+            drivers.shutdown();
+            drivers.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        }
+    }
+
+    private long drive(Duration duration, LongConsumer arrival) {
+        return new OpenLoopDriver(SETTINGS.ratePerSecond(), SETTINGS.poissonArrivals()).run(duration, arrival);
+    }
+
+    private void postPayment(HttpClient http, URI uri, EndpointStats stats, long intended) {
+        String body = "{\"orderId\":" + orderIds.incrementAndGet() + ",\"userId\":1,\"paymentAmount\":10.00}";
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        stats.sent();
+        http.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, ex) -> {
+            if (ex != null) {
+                stats.error(reason(ex));
+            } else if (response.statusCode() == 201) {
+                stats.success(intended);
+            } else {
+                stats.error("HTTP " + response.statusCode());
+            }
+        });
+    }
+
+    private void publishOrder(KafkaTemplate<String, OrderEvent> orders, EndpointStats stats, long intended) {
+        long orderId = orderIds.incrementAndGet();
+        OrderEvent event = OrderEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .orderId(orderId)
+                .userId(1L)
+                .paymentAmount(new BigDecimal("10.00"))
+                .build();
+        inFlightOrders.put(event.getEventId(), new InFlight(intended, stats));
+        stats.sent();
+        orders.send(ORDERS_TOPIC, String.valueOf(orderId), event).whenComplete((result, ex) -> {
+            if (ex != null && inFlightOrders.remove(event.getEventId()) != null) {
+                stats.error("send " + reason(ex));
+            }
+        });
+    }
+
+    private void listen(AtomicBoolean listening) {
+        JsonDeserializer<PaymentEvent> json = new JsonDeserializer<>(PaymentEvent.class, false);
+        json.addTrustedPackages("*");
+        try (KafkaConsumer<String, PaymentEvent> consumer = new KafkaConsumer<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, KAFKA.getBootstrapServers(),
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false),
+                new StringDeserializer(), new NegotiatingDeserializer<>(new PaymentEventCodec(), json))) {
+            List<TopicPartition> partitions = consumer.partitionsFor(PAYMENTS_TOPIC).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            consumer.seekToEnd(partitions);
+            partitions.forEach(consumer::position);
+
+            while (listening.get()) {
+                for (ConsumerRecord<String, PaymentEvent> record : consumer.poll(Duration.ofMillis(100))) {
+                    String eventId = record.value().getEventId();
+                    InFlight order = eventId == null ? null : inFlightOrders.remove(eventId);
+                    if (order != null) {
+                        order.stats().success(order.intendedStart());
+                    }
+                }
+            }
+        }
+    }
+
+    private void awaitDrain() throws InterruptedException {
+        long deadline = System.nanoTime() + SETTINGS.drain().toNanos();
+        while (!inFlightOrders.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+    }
+
+    private static String reason(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        return cause.getClass().getSimpleName();
+    }
+
+    private record InFlight(long intendedStart, EndpointStats stats) {
+    }
+}
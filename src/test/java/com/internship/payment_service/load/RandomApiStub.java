@@ -0,0 +1,70 @@
+package com.internship.payment_service.load;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformerV2;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+// Local random API: log-normal latency around the median, plus a share of 503s and of responses slower than the
+// client timeout, drawn independently per request.
+class RandomApiStub {
+
+    static final String PATH = "/api/v1.0/random";
+
+    private final WireMockServer server;
+
+    RandomApiStub(LoadSettings settings, long clientTimeoutMs) {
+        server = new WireMockServer(options()
+                .dynamicPort()
+                .containerThreads(500)
+                .extensions(new FaultInjector(settings.randomApiErrorRate(), settings.randomApiTimeoutRate(),
+                        clientTimeoutMs * 2)));
+        server.stubFor(get(urlPathEqualTo(PATH)).willReturn(aResponse()
+                .withHeader("Content-Type", "application/json")
+                .withBody("[42]")
+                .withLogNormalRandomDelay(settings.randomApiMedianMs(), settings.randomApiSigma())));
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop();
+    }
+
+    String baseUrl() {
+        return server.baseUrl();
+    }
+
+    private record FaultInjector(double errorRate, double timeoutRate, long timeoutDelayMs)
+            implements ResponseDefinitionTransformerV2 {
+
+        @Override
+        public ResponseDefinition transform(ServeEvent serveEvent) {
+            double roll = ThreadLocalRandom.current().nextDouble();
+            if (roll < errorRate) {
+                return aResponse().withStatus(503).build();
+            }
+            if (roll < errorRate + timeoutRate) {
+                return ResponseDefinitionBuilder.like(serveEvent.getResponseDefinition())
+                        .withFixedDelay((int) timeoutDelayMs)
+                        .build();
+            }
+            return serveEvent.getResponseDefinition();
+        }
+
+        @Override
+        public String getName() {
+            return "random-api-faults";
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.internship.payment_service.outbox;
+
+import com.internship.payment_service.config.KafkaTopicsProperties;
+import com.internship.payment_service.config.OutboxProperties;
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.kafka.PaymentEventsProducer;
+import com.internship.payment_service.kafka.dto.PaymentEvent;
+import com.internship.payment_service.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentOutboxRelayTest {
+
+    @Mock
+    private PaymentRepository repository;
+    @Mock
+    private PaymentEventsProducer producer;
+    @Mock
+    private OutboxLease lease;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        OutboxProperties props = new OutboxProperties();
+        props.setBatchSize(3);
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new PaymentOutboxRelay(repository, producer, lease, props, new KafkaTopicsProperties(), meterRegistry);
+    }
+
+    @Test
+    void relayBatch_ShouldSendInOrderAndMarkOnlyTheAckedPrefix() throws Exception {
+        when(repository.findPendingEvents(3)).thenReturn(List.of(
+                pending("p-1", 1L), pending("p-2", 2L), pending("p-3", 1L)));
+        when(producer.send(any()))
+                .thenReturn(CompletableFuture.completedFuture(null))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(lease.renew(any())).thenReturn(true);
+
+        int sent = relay.relayBatch();
+
+        assertThat(sent).isEqualTo(1);
+        ArgumentCaptor<PaymentEvent> events = ArgumentCaptor.forClass(PaymentEvent.class);
+        verify(producer, times(3)).send(events.capture());
+        assertThat(events.getAllValues()).extracting(PaymentEvent::getPaymentId).containsExactly("p-1", "p-2", "p-3");
+        verify(repository).markEventsSent(List.of("p-1"));
+        assertThat(meterRegistry.counter("payment.outbox.sent").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("payment.outbox.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void relayBatch_ShouldNotMarkAnything_WhenLeaseWasLostWhileSending() throws Exception {
+        when(repository.findPendingEvents(3)).thenReturn(List.of(pending("p-1", 1L)));
+        when(producer.send(any())).thenReturn(CompletableFuture.completedFuture(null));
+        when(lease.renew(any())).thenReturn(false);
+
+        assertThat(relay.relayBatch()).isZero();
+        verify(repository, never()).markEventsSent(any());
+    }
+
+    @Test
+    void constructor_ShouldReject_SendTimeoutNotShorterThanLease() {
+        OutboxProperties props = new OutboxProperties();
+        props.setLease(Duration.ofSeconds(10));
+        props.setSendTimeout(Duration.ofSeconds(30));
+
+        assertThatThrownBy(() -> new PaymentOutboxRelay(repository, producer, lease, props, new KafkaTopicsProperties(),
+                new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void constructor_ShouldReject_ProducerTimeoutsThatOutlastTheLease() {
+        OutboxProperties props = new OutboxProperties();
+        props.setLease(Duration.ofSeconds(10));
+        props.setSendTimeout(Duration.ofSeconds(5));
+        KafkaTopicsProperties topics = new KafkaTopicsProperties();
+        // the Kafka default of 120s
+        topics.getProducer().setDeliveryTimeoutMs(120_000);
+
+        assertThatThrownBy(() -> new PaymentOutboxRelay(repository, producer, lease, props, topics, new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("delivery-timeout-ms");
+    }
+
+    @Test
+    void relayBatch_ShouldStopSending_OnceTheSendTimeoutPassed() throws Exception {
+        OutboxProperties props = new OutboxProperties();
+        props.setBatchSize(3);
+        props.setSendTimeout(Duration.ofMillis(50));
+        relay = new PaymentOutboxRelay(repository, producer, lease, props, new KafkaTopicsProperties(), meterRegistry);
+        when(repository.findPendingEvents(3)).thenReturn(List.of(
+                pending("p-1", 1L), pending("p-2", 2L), pending("p-3", 3L)));
+        // the first send blocks past the deadline, as send() does for max-block-ms without metadata
+        when(producer.send(any())).thenAnswer(inv -> {
+            Thread.sleep(100);
+            return CompletableFuture.completedFuture(null);
+        });
+        when(lease.renew(any())).thenReturn(true);
+
+        assertThat(relay.relayBatch()).isEqualTo(1);
+        verify(producer, times(1)).send(any());
+        verify(repository).markEventsSent(List.of("p-1"));
+    }
+
+    @Test
+    void relayBatch_ShouldDoNothing_WhenOutboxIsEmpty() throws Exception {
+        when(repository.findPendingEvents(3)).thenReturn(List.of());
+
+        assertThat(relay.relayBatch()).isZero();
+        verify(producer, never()).send(any());
+        verify(repository, never()).markEventsSent(any());
+    }
+
+    private Payment pending(String id, Long orderId) {
+        return Payment.builder()
+                .id(id)
+                .eventId("evt-" + id)
+                .orderId(orderId)
+                .status(PaymentStatus.SUCCESS)
+                .timestamp(Instant.now())
+                .eventPending(true)
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.internship.payment_service.rollup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FenwickTimeIndexTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void sum_ShouldMatchBruteForce_ForArbitraryMillisecondRanges() {
+        Random random = new Random(7);
+        FenwickTimeIndex index = new FenwickTimeIndex(1_000, 600, START);
+        List<long[]> added = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            long at = START + random.nextInt(500_000);
+            long amount = random.nextInt(10_000);
+            index.add(at, amount);
+            added.add(new long[]{at, amount});
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            long from = START + random.nextInt(520_000) - 10_000;
+            long to = from + random.nextInt(200_000);
+            if (!index.covers(from)) {
+                continue;
+            }
+            long expected = added.stream()
+                    .filter(e -> e[0] >= from && e[0] <= to)
+                    .mapToLong(e -> e[1])
+                    .sum();
+            assertThat(index.sum(from, to)).as("%d..%d", from, to).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void add_ShouldDropSlotsThatLeaveTheWindow() {
+        FenwickTimeIndex index = new FenwickTimeIndex(1_000, 10, START);
+        index.add(START, 5);
+        index.add(START + 9_999, 7);
+
+        assertThat(index.sum(START, START + 20_000)).isEqualTo(12);
+
+        index.add(START + 10_000, 11);
+
+        assertThat(index.covers(START)).isFalse();
+        assertThat(index.covers(START + 1_000)).isTrue();
+        assertThat(index.sum(START + 1_000, START + 20_000)).isEqualTo(18);
+        assertThat(index.add(START + 500, 1)).isFalse();
+    }
+
+    @Test
+    void sum_ShouldIncludeBothEnds_AndWrapAroundTheRing() {
+        FenwickTimeIndex index = new FenwickTimeIndex(1_000, 4, START);
+        for (int i = 0; i < 7; i++) {
+            index.add(START + i * 1_000L, 1L << i);
+        }
+
+        // slots 3..6 remain; the ring wraps between them
+        assertThat(index.sum(START + 3_000, START + 6_000)).isEqualTo(8 + 16 + 32 + 64);
+        assertThat(index.sum(START + 4_000, START + 4_000)).isEqualTo(16);
+        assertThat(index.sum(START + 4_001, START + 5_999)).isEqualTo(32);
+    }
+}
@@ -0,0 +1,197 @@
+package com.internship.payment_service.rollup;
+
+import com.internship.payment_service.config.RollupProperties;
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentRollup;
+import com.internship.payment_service.entity.PaymentRollupState;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.entity.RollupGranularity;
+import com.internship.payment_service.repository.PaymentRepository;
+import com.internship.payment_service.repository.PaymentRollupRepository;
+import com.internship.payment_service.repository.PaymentRollupRepository.Bucket;
+import com.internship.payment_service.repository.PaymentRollupRepository.BucketRange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentRollupServiceTest {
+
+    private static final Instant WRITES_SINCE = Instant.parse("2024-03-01T00:00:00Z");
+
+    @Mock
+    private PaymentRollupRepository rollups;
+    @Mock
+    private PaymentRepository payments;
+
+    private PaymentRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PaymentRollupService(rollups, payments, new RollupProperties());
+    }
+
+    @Test
+    void cover_ShouldUseCoarsestBucketsAndMinutesAtTheEdges() {
+        List<BucketRange> ranges = new ArrayList<>();
+
+        PaymentRollupService.cover(Instant.parse("2024-03-01T22:58:00Z"), Instant.parse("2024-03-04T01:02:00Z"), 0, ranges);
+
+        assertThat(ranges).containsExactly(
+                new BucketRange(RollupGranularity.MINUTE, Instant.parse("2024-03-01T22:58:00Z"), Instant.parse("2024-03-01T23:00:00Z")),
+                new BucketRange(RollupGranularity.HOUR, Instant.parse("2024-03-01T23:00:00Z"), Instant.parse("2024-03-02T00:00:00Z")),
+                new BucketRange(RollupGranularity.DAY, Instant.parse("2024-03-02T00:00:00Z"), Instant.parse("2024-03-04T00:00:00Z")),
+                new BucketRange(RollupGranularity.HOUR, Instant.parse("2024-03-04T00:00:00Z"), Instant.parse("2024-03-04T01:00:00Z")),
+                new BucketRange(RollupGranularity.MINUTE, Instant.parse("2024-03-04T01:00:00Z"), Instant.parse("2024-03-04T01:02:00Z")));
+    }
+
+    @Test
+    void totalBetween_ShouldAddBucketsAndBothEdges_WhenBackfilled() {
+        when(rollups.findState()).thenReturn(PaymentRollupState.builder().backfilledAt(WRITES_SINCE).build());
+        Instant from = Instant.parse("2024-03-05T10:15:30Z");
+        Instant to = Instant.parse("2024-03-05T10:20:10Z");
+        when(payments.sumSuccessfulFromUntil(from, Instant.parse("2024-03-05T10:16:00Z")))
+                .thenReturn(List.of(() -> new BigDecimal("1.10")));
+        when(payments.sumSuccessfulBetween(Instant.parse("2024-03-05T10:20:00Z"), to))
+                .thenReturn(List.of());
+        when(rollups.findBuckets(List.of(new BucketRange(RollupGranularity.MINUTE,
+                Instant.parse("2024-03-05T10:16:00Z"), Instant.parse("2024-03-05T10:20:00Z")))))
+                .thenReturn(List.of(
+                        PaymentRollup.builder().total(new BigDecimal("10.00")).build(),
+                        PaymentRollup.builder().total(new BigDecimal("2.00")).backfillTotal(new BigDecimal("3.00")).build()));
+
+        assertThat(service.totalBetween(from, to)).hasValueSatisfying(total ->
+                assertThat(total).isEqualByComparingTo("16.10"));
+    }
+
+    @Test
+    void totalBetween_ShouldBeEmpty_UntilBackfilled() {
+        when(rollups.findState()).thenReturn(PaymentRollupState.builder().writesSince(WRITES_SINCE).build());
+
+        assertThat(service.totalBetween(WRITES_SINCE, WRITES_SINCE.plusSeconds(86_400))).isEmpty();
+        verify(rollups, never()).findBuckets(any());
+    }
+
+    @Test
+    void record_ShouldIncrementEveryGranularity_ForSuccessSinceWritesSince() {
+        when(rollups.initState(any())).thenReturn(PaymentRollupState.builder().writesSince(WRITES_SINCE).build());
+        Instant at = Instant.parse("2024-03-05T10:15:30Z");
+
+        service.record(List.of(
+                payment(PaymentStatus.SUCCESS, "5.00", at),
+                payment(PaymentStatus.SUCCESS, "7.00", at.plusSeconds(10)),
+                payment(PaymentStatus.FAILED, "100.00", at),
+                payment(PaymentStatus.SUCCESS, "100.00", WRITES_SINCE.minusSeconds(1))));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Bucket, BigDecimal>> amounts = ArgumentCaptor.forClass(Map.class);
+        verify(rollups).increment(amounts.capture());
+        assertThat(amounts.getValue()).containsOnly(
+                Map.entry(new Bucket(RollupGranularity.MINUTE, Instant.parse("2024-03-05T10:15:00Z")), new BigDecimal("12.00")),
+                Map.entry(new Bucket(RollupGranularity.HOUR, Instant.parse("2024-03-05T10:00:00Z")), new BigDecimal("12.00")),
+                Map.entry(new Bucket(RollupGranularity.DAY, Instant.parse("2024-03-05T00:00:00Z")), new BigDecimal("12.00")));
+    }
+
+    @Test
+    void totalBetween_ShouldBeEmpty_WhenABucketIsDirty() {
+        when(rollups.findState()).thenReturn(PaymentRollupState.builder().backfilledAt(WRITES_SINCE).build());
+        Instant from = Instant.parse("2024-03-05T10:16:00Z");
+        Instant to = Instant.parse("2024-03-05T10:20:00Z");
+        when(payments.sumSuccessfulBetween(to, to)).thenReturn(List.of());
+        when(rollups.findBuckets(any())).thenReturn(List.of(
+                PaymentRollup.builder().total(new BigDecimal("10.00")).build(),
+                PaymentRollup.builder().total(new BigDecimal("2.00")).dirty(1L).build()));
+
+        assertThat(service.totalBetween(from, to)).isEmpty();
+    }
+
+    @Test
+    void record_ShouldKeepBucketsForRepair_WhenIncrementAndMarkingFail() {
+        when(rollups.initState(any())).thenReturn(PaymentRollupState.builder().writesSince(WRITES_SINCE).build());
+        when(rollups.findState()).thenReturn(PaymentRollupState.builder().backfilledAt(WRITES_SINCE).build());
+        doThrow(new DataAccessResourceFailureException("down")).when(rollups).increment(any());
+        doThrow(new DataAccessResourceFailureException("down")).doNothing().when(rollups).markDirty(any());
+        Instant at = Instant.parse("2024-03-05T10:15:30Z");
+
+        service.record(List.of(payment(PaymentStatus.SUCCESS, "5.00", at)));
+
+        assertThat(service.totalBetween(at, at.plusSeconds(3600))).isEmpty();
+        verify(rollups, never()).findBuckets(any());
+
+        service.repair();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Bucket>> marked = ArgumentCaptor.forClass(Collection.class);
+        verify(rollups, times(2)).markDirty(marked.capture());
+        assertThat(marked.getValue()).containsExactlyInAnyOrder(
+                new Bucket(RollupGranularity.MINUTE, Instant.parse("2024-03-05T10:15:00Z")),
+                new Bucket(RollupGranularity.HOUR, Instant.parse("2024-03-05T10:00:00Z")),
+                new Bucket(RollupGranularity.DAY, Instant.parse("2024-03-05T00:00:00Z")));
+    }
+
+    @Test
+    void record_ShouldMarkEveryBucket_WhenWritesSinceCannotBeRead() {
+        when(rollups.initState(any())).thenThrow(new DataAccessResourceFailureException("down"));
+        Instant at = Instant.parse("2024-03-05T10:15:30Z");
+
+        service.record(List.of(payment(PaymentStatus.SUCCESS, "5.00", at)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Bucket>> marked = ArgumentCaptor.forClass(Collection.class);
+        verify(rollups).markDirty(marked.capture());
+        assertThat(marked.getValue()).containsExactlyInAnyOrder(
+                new Bucket(RollupGranularity.MINUTE, Instant.parse("2024-03-05T10:15:00Z")),
+                new Bucket(RollupGranularity.HOUR, Instant.parse("2024-03-05T10:00:00Z")),
+                new Bucket(RollupGranularity.DAY, Instant.parse("2024-03-05T00:00:00Z")));
+        verify(rollups, never()).increment(any());
+    }
+
+    @Test
+    void repair_ShouldRecomputeClosedBucketsFromWritesSince_AndSkipOpenOnes() {
+        when(rollups.initState(any())).thenReturn(PaymentRollupState.builder().writesSince(WRITES_SINCE).build());
+        PaymentRollup closed = PaymentRollup.builder().id("b-1").granularity(RollupGranularity.HOUR)
+                .bucketStart(Instant.parse("2024-03-05T10:00:00Z")).dirty(2L).build();
+        PaymentRollup backfilledOnly = PaymentRollup.builder().id("b-2").granularity(RollupGranularity.DAY)
+                .bucketStart(Instant.parse("2024-02-29T00:00:00Z")).dirty(1L).build();
+        PaymentRollup open = PaymentRollup.builder().id("b-3").granularity(RollupGranularity.DAY)
+                .bucketStart(Instant.now().truncatedTo(ChronoUnit.DAYS)).dirty(1L).build();
+        when(rollups.findDirty(any())).thenReturn(List.of(closed, backfilledOnly, open));
+        when(payments.sumSuccessfulFromUntil(Instant.parse("2024-03-05T10:00:00Z"), Instant.parse("2024-03-05T11:00:00Z")))
+                .thenReturn(List.of(() -> new BigDecimal("7.00")));
+        when(rollups.repair(closed, new BigDecimal("7.00"))).thenReturn(true);
+        when(rollups.repair(backfilledOnly, BigDecimal.ZERO)).thenReturn(true);
+
+        assertThat(service.repair()).isEqualTo(2);
+        verify(rollups, never()).repair(eq(open), any());
+    }
+
+    private Payment payment(PaymentStatus status, String amount, Instant timestamp) {
+        return Payment.builder()
+                .orderId(1L).userId(1L)
+                .status(status)
+                .paymentAmount(new BigDecimal(amount))
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,201 @@
+package com.internship.payment_service.rollup;
+
+import com.internship.payment_service.config.RollupProperties;
+import com.internship.payment_service.dto.UserPaymentSummaryResponse;
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentRollupState;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.entity.UserPaymentSummary;
+import com.internship.payment_service.entity.UserPaymentSummary.StatusTotals;
+import com.internship.payment_service.repository.UserPaymentSummaryRepository;
+import com.internship.payment_service.repository.UserPaymentSummaryRepository.Delta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserPaymentSummaryServiceTest {
+
+    private static final Instant WRITES_SINCE = Instant.parse("2024-03-01T00:00:00Z");
+
+    @Mock
+    private UserPaymentSummaryRepository summaries;
+
+    private UserPaymentSummaryService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserPaymentSummaryService(summaries, new RollupProperties());
+    }
+
+    @Test
+    void record_ShouldIncrementOncePerUserAndStatus_ForPaymentsSinceWritesSince() {
+        when(summaries.initState(any())).thenReturn(PaymentRollupState.builder().writesSince(WRITES_SINCE).build());
+        Instant at = Instant.parse("2024-03-05T10:15:30Z");
+
+        service.record(List.of(
+                payment(1L, PaymentStatus.SUCCESS, "5.00", at),
+                payment(1L, PaymentStatus.SUCCESS, "7.00", at.plusSeconds(10)),
+                payment(1L, PaymentStatus.FAILED, "3.00", at),
+                payment(2L, PaymentStatus.SUCCESS, "1.00", at),
+                payment(2L, PaymentStatus.SUCCESS, "100.00", WRITES_SINCE.minusSeconds(1))));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Delta>> deltas = ArgumentCaptor.forClass(Collection.class);
+        verify(summaries).increment(deltas.capture());
+        assertThat(deltas.getValue()).containsExactlyInAnyOrder(
+                new Delta(1L, PaymentStatus.SUCCESS, 2, new BigDecimal("12.00"), at, at.plusSeconds(10)),
+                new Delta(1L, PaymentStatus.FAILED, 1, new BigDecimal("3.00"), at, at),
+                new Delta(2L, PaymentStatus.SUCCESS, 1, new BigDecimal("1.00"), at, at));
+    }
+
+    @Test
+    void summary_ShouldAddLiveAndBackfilledTotals_WhenBackfilled() {
+        when(summaries.findState()).thenReturn(PaymentRollupState.builder().backfilledAt(WRITES_SINCE).build());
+        Instant first = Instant.parse("2023-01-01T00:00:00Z");
+        Instant last = Instant.parse("2024-03-05T10:15:30Z");
+        when(summaries.findById(1L)).thenReturn(UserPaymentSummary.builder()
+                .userId(1L)
+                .statuses(Map.of(PaymentStatus.SUCCESS, new StatusTotals(2, new BigDecimal("12.00"))))
+                .backfill(Map.of(
+                        PaymentStatus.SUCCESS, new StatusTotals(3, new BigDecimal("30.00")),
+                        PaymentStatus.FAILED, new StatusTotals(1, new BigDecimal("4.50"))))
+                .firstAt(first)
+                .lastAt(last)
+                .build());
+
+        UserPaymentSummaryResponse out = service.summary(1L);
+
+        assertThat(out.getCount()).isEqualTo(6);
+        assertThat(out.getByStatus().get(PaymentStatus.SUCCESS).getCount()).isEqualTo(5);
+        assertThat(out.getByStatus().get(PaymentStatus.SUCCESS).getTotal()).isEqualByComparingTo("42.00");
+        assertThat(out.getByStatus().get(PaymentStatus.FAILED).getTotal()).isEqualByComparingTo("4.50");
+        assertThat(out.getFirstPaymentAt()).isEqualTo(first);
+        assertThat(out.getLastPaymentAt()).isEqualTo(last);
+        verify(summaries, never()).summarize(any());
+    }
+
+    @Test
+    void summary_ShouldAggregatePayments_UntilBackfilled() {
+        when(summaries.findState()).thenReturn(PaymentRollupState.builder().writesSince(WRITES_SINCE).build());
+        when(summaries.summarize(9L)).thenReturn(null);
+
+        UserPaymentSummaryResponse out = service.summary(9L);
+
+        assertThat(out.getCount()).isZero();
+        assertThat(out.getByStatus()).containsOnlyKeys(PaymentStatus.values());
+        assertThat(out.getByStatus().get(PaymentStatus.FAILED).getTotal()).isEqualByComparingTo("0");
+        assertThat(out.getFirstPaymentAt()).isNull();
+        verify(summaries, never()).findById(any());
+    }
+
+    @Test
+    void summary_ShouldAggregatePayments_WhenTheUserIsDirty() {
+        when(summaries.findState()).thenReturn(PaymentRollupState.builder().backfilledAt(WRITES_SINCE).build());
+        when(summaries.findById(1L)).thenReturn(UserPaymentSummary.builder()
+                .userId(1L)
+                .statuses(Map.of(PaymentStatus.SUCCESS, new StatusTotals(1, new BigDecimal("5.00"))))
+                .dirty(1L)
+                .build());
+        when(summaries.summarize(1L)).thenReturn(UserPaymentSummary.builder()
+                .userId(1L)
+                .backfill(Map.of(PaymentStatus.SUCCESS, new StatusTotals(2, new BigDecimal("12.00"))))
+                .build());
+
+        UserPaymentSummaryResponse out = service.summary(1L);
+
+        assertThat(out.getCount()).isEqualTo(2);
+        assertThat(out.getByStatus().get(PaymentStatus.SUCCESS).getTotal()).isEqualByComparingTo("12.00");
+    }
+
+    @Test
+    void record_ShouldKeepUsersForRepair_WhenIncrementAndMarkingFail() {
+        when(summaries.initState(any())).thenReturn(PaymentRollupState.builder().writesSince(WRITES_SINCE).build());
+        when(summaries.findState()).thenReturn(PaymentRollupState.builder().backfilledAt(WRITES_SINCE).build());
+        doThrow(new DataAccessResourceFailureException("down")).when(summaries).increment(any());
+        doThrow(new DataAccessResourceFailureException("down")).doNothing().when(summaries).markDirty(any());
+        Instant at = Instant.parse("2024-03-05T10:15:30Z");
+
+        service.record(List.of(
+                payment(1L, PaymentStatus.SUCCESS, "5.00", at),
+                payment(2L, PaymentStatus.FAILED, "3.00", at)));
+        service.summary(1L);
+
+        verify(summaries).summarize(1L);
+        verify(summaries, never()).findById(any());
+
+        service.repair();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> marked = ArgumentCaptor.forClass(Collection.class);
+        verify(summaries, times(2)).markDirty(marked.capture());
+        assertThat(marked.getValue()).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void record_ShouldMarkEveryUser_WhenWritesSinceCannotBeRead() {
+        when(summaries.initState(any())).thenThrow(new DataAccessResourceFailureException("down"));
+        Instant at = Instant.parse("2024-03-05T10:15:30Z");
+
+        service.record(List.of(
+                payment(1L, PaymentStatus.SUCCESS, "5.00", at),
+                payment(2L, PaymentStatus.FAILED, "3.00", at)));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> marked = ArgumentCaptor.forClass(Collection.class);
+        verify(summaries).markDirty(marked.capture());
+        assertThat(marked.getValue()).containsExactlyInAnyOrder(1L, 2L);
+        verify(summaries, never()).increment(any());
+    }
+
+    @Test
+    void repair_ShouldRebuildUsersFromWritesSince_AndSkipUsersWithARecentPayment() {
+        when(summaries.initState(any())).thenReturn(PaymentRollupState.builder().writesSince(WRITES_SINCE).build());
+        UserPaymentSummary quiet = UserPaymentSummary.builder().userId(1L).dirty(2L).build();
+        UserPaymentSummary noLive = UserPaymentSummary.builder().userId(2L).dirty(1L).build();
+        UserPaymentSummary active = UserPaymentSummary.builder().userId(3L).dirty(1L).build();
+        when(summaries.findDirty()).thenReturn(List.of(quiet, noLive, active));
+        UserPaymentSummary quietLive = UserPaymentSummary.builder().userId(1L)
+                .backfill(Map.of(PaymentStatus.SUCCESS, new StatusTotals(2, new BigDecimal("12.00"))))
+                .lastAt(Instant.parse("2024-03-05T10:15:30Z"))
+                .build();
+        when(summaries.summarizeSince(1L, WRITES_SINCE)).thenReturn(quietLive);
+        when(summaries.summarizeSince(2L, WRITES_SINCE)).thenReturn(null);
+        when(summaries.summarizeSince(3L, WRITES_SINCE)).thenReturn(UserPaymentSummary.builder().userId(3L)
+                .lastAt(Instant.now())
+                .build());
+        when(summaries.rebuild(quiet, quietLive)).thenReturn(true);
+        when(summaries.rebuild(noLive, null)).thenReturn(true);
+
+        assertThat(service.repair()).isEqualTo(2);
+        verify(summaries, never()).rebuild(eq(active), any());
+    }
+
+    private Payment payment(Long userId, PaymentStatus status, String amount, Instant timestamp) {
+        return Payment.builder()
+                .orderId(1L).userId(userId)
+                .status(status)
+                .paymentAmount(new BigDecimal(amount))
+                .timestamp(timestamp)
+                .build();
+    }
+}
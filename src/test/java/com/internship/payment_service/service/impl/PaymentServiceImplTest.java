@@ -1,5 +1,10 @@
 package com.internship.payment_service.service.impl;
 
+import com.internship.payment_service.cache.PaymentReadCache;
+import com.internship.payment_service.config.IdempotencyProperties;
+import com.internship.payment_service.config.PaymentCacheProperties;
+import com.internship.payment_service.dto.PageCursor;
+import com.internship.payment_service.dto.PaymentPageResponse;
 import com.internship.payment_service.dto.PaymentRequest;
 import com.internship.payment_service.dto.PaymentResponse;
 import com.internship.payment_service.dto.PaymentTotalSumResponse;
@@ -7,27 +12,50 @@ import com.internship.payment_service.entity.Payment;
 import com.internship.payment_service.entity.PaymentStatus;
 import com.internship.payment_service.exception.RandomApiUnavailableException;
 import com.internship.payment_service.external.RandomNumberClient;
-import com.internship.payment_service.kafka.PaymentEventsProducer;
-import com.internship.payment_service.kafka.dto.PaymentEvent;
+import com.internship.payment_service.idempotency.IdempotencyFilter;
+import com.internship.payment_service.idempotency.InFlightCreates;
 import com.internship.payment_service.mapper.PaymentMapper;
+import com.internship.payment_service.metrics.PaymentMetrics;
 import com.internship.payment_service.repository.PaymentRepository;
+import com.internship.payment_service.repository.UniqueIndexes;
+import com.internship.payment_service.rollup.PaymentRollupService;
+import com.internship.payment_service.rollup.PaymentTotalsIndex;
+import com.internship.payment_service.rollup.UserPaymentSummaryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -38,10 +66,23 @@ class PaymentServiceImplTest {
     private PaymentRepository repository;
     @Mock
     private PaymentMapper mapper;
-    @Mock
-    private PaymentEventsProducer producer;
     @Mock private
     RandomNumberClient randomNumberClient;
+    @Mock
+    private PaymentRollupService paymentRollups;
+    @Mock
+    private PaymentTotalsIndex paymentTotalsIndex;
+    @Mock
+    private UserPaymentSummaryService userSummaries;
+    @Spy
+    private IdempotencyFilter idempotencyFilter = new IdempotencyFilter(new IdempotencyProperties(), new SimpleMeterRegistry());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private InFlightCreates inFlightCreates = new InFlightCreates(meterRegistry);
+    @Spy
+    private PaymentMetrics metrics = new PaymentMetrics(meterRegistry);
+    @Spy
+    private PaymentReadCache readCache = new PaymentReadCache(new PaymentCacheProperties(), meterRegistry);
 
     @InjectMocks
     private PaymentServiceImpl service;
@@ -60,6 +101,7 @@ class PaymentServiceImplTest {
 
     @Test
     void create_ShouldReturnExisting_WhenEventIdAlreadyProcessed() {
+        idempotencyFilter.warmUp(Stream.of("evt-123"));
         Payment existing = Payment.builder()
                 .id("p-1")
                 .eventId("evt-123")
@@ -83,14 +125,12 @@ class PaymentServiceImplTest {
         PaymentResponse out = service.create(req);
 
         assertThat(out).isEqualTo(expected);
-        verify(repository, never()).save(any());
-        verify(producer, never()).send(any());
+        verify(repository, never()).insert(any(Payment.class));
+        assertThat(meterRegistry.get("payment.create").tag("outcome", "duplicate").timer().count()).isEqualTo(1);
     }
 
     @Test
-    void create_ShouldSaveAndPublishEvent_WhenNewEvent() {
-        when(repository.findByEventId("evt-123")).thenReturn(Optional.empty());
-
+    void create_ShouldStoreEventInOutbox_WhenNewEvent() {
         Payment toSave = Payment.builder()
                 .eventId("evt-123")
                 .orderId(100L)
@@ -108,7 +148,7 @@ class PaymentServiceImplTest {
                 .timestamp(Instant.now())
                 .paymentAmount(new BigDecimal("49.90"))
                 .build();
-        when(repository.save(any(Payment.class))).thenReturn(saved);
+        when(repository.insert(any(Payment.class))).thenReturn(saved);
 
         PaymentResponse expected = PaymentResponse.builder()
                 .id("p-2").orderId(100L).userId(200L)
@@ -123,12 +163,32 @@ class PaymentServiceImplTest {
 
         assertThat(out).isEqualTo(expected);
 
-        ArgumentCaptor<PaymentEvent> evt = ArgumentCaptor.forClass(PaymentEvent.class);
-        verify(producer).send(evt.capture());
-        assertThat(evt.getValue().getEventId()).isEqualTo("evt-123");
-        assertThat(evt.getValue().getOrderId()).isEqualTo(100L);
-        assertThat(evt.getValue().getPaymentId()).isEqualTo("p-2");
-        assertThat(evt.getValue().getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        ArgumentCaptor<Payment> inserted = ArgumentCaptor.forClass(Payment.class);
+        verify(repository).insert(inserted.capture());
+        assertThat(inserted.getValue().getEventPending()).isTrue();
+        assertThat(inserted.getValue().getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        verify(repository, never()).findByEventId(any());
+        verify(paymentRollups).record(List.of(saved));
+        verify(userSummaries).record(List.of(saved));
+        verify(paymentTotalsIndex).record(saved);
+        verify(readCache).invalidate(saved);
+    }
+
+    @Test
+    void create_ShouldNotInsertAgain_WhenBookkeepingAfterTheInsertThrowsDuplicateKey() {
+        Payment toSave = Payment.builder().orderId(100L).userId(200L).paymentAmount(new BigDecimal("49.90")).build();
+        when(mapper.toEntity(any(PaymentRequest.class))).thenReturn(toSave);
+        when(randomNumberClient.get()).thenReturn(42);
+        Payment saved = Payment.builder().id("p-2").orderId(100L).userId(200L).status(PaymentStatus.SUCCESS)
+                .timestamp(Instant.now()).paymentAmount(new BigDecimal("49.90")).build();
+        when(repository.insert(any(Payment.class))).thenReturn(saved);
+        doThrow(duplicateKey("_id_")).when(paymentRollups).record(any());
+        PaymentRequest noEventId = PaymentRequest.builder()
+                .orderId(100L).userId(200L).paymentAmount(new BigDecimal("49.90")).build();
+
+        assertThatThrownBy(() -> service.create(noEventId)).isInstanceOf(DuplicateKeyException.class);
+        verify(repository, times(1)).insert(any(Payment.class));
+        assertThat(toSave.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
     }
 
     @Test
@@ -173,6 +233,94 @@ class PaymentServiceImplTest {
         assertThat(out).containsExactly(r1, r2);
     }
 
+    @Test
+    void create_ShouldSkipEventIdLookup_WhenFilterRulesItOut() {
+        idempotencyFilter.warmUp(Stream.of("evt-other"));
+        Payment entity = Payment.builder().eventId("evt-123").orderId(100L).userId(200L).build();
+
+        when(mapper.toEntity(req)).thenReturn(entity);
+        when(randomNumberClient.get()).thenReturn(41);
+        when(repository.insert(entity)).thenReturn(entity);
+        when(mapper.toResponse(entity)).thenReturn(PaymentResponse.builder().status(PaymentStatus.FAILED).build());
+
+        service.create(req);
+
+        verify(repository, never()).findByEventId(any());
+    }
+
+    @Test
+    void create_ShouldAnswerFromMemory_WhenSameEventIdRepeats() {
+        Payment entity = Payment.builder().eventId("evt-123").orderId(100L).userId(200L).build();
+        PaymentResponse response = PaymentResponse.builder().id("p-1").eventId("evt-123").build();
+
+        when(mapper.toEntity(req)).thenReturn(entity);
+        when(randomNumberClient.get()).thenReturn(41);
+        when(repository.insert(entity)).thenReturn(entity);
+        when(mapper.toResponse(entity)).thenReturn(response);
+
+        PaymentResponse first = service.create(req);
+        PaymentResponse second = service.create(req);
+
+        assertThat(second).isSameAs(first);
+        verify(repository, never()).findByEventId(any());
+        verify(repository, times(1)).insert(any(Payment.class));
+    }
+
+    @Test
+    void create_ShouldReturnWinner_WhenInsertLosesEventIdRace() {
+        idempotencyFilter.warmUp(Stream.empty());
+        Payment entity = Payment.builder().eventId("evt-123").orderId(100L).userId(200L).build();
+        Payment winner = Payment.builder().id("p-9").eventId("evt-123").status(PaymentStatus.SUCCESS).build();
+        PaymentResponse expected = PaymentResponse.builder().id("p-9").build();
+
+        when(mapper.toEntity(req)).thenReturn(entity);
+        when(randomNumberClient.get()).thenReturn(41);
+        when(repository.insert(entity)).thenThrow(duplicateKey(UniqueIndexes.EVENT_ID));
+        when(repository.findByEventId("evt-123")).thenReturn(Optional.of(winner));
+        when(mapper.toResponse(winner)).thenReturn(expected);
+
+        PaymentResponse result = service.create(req);
+
+        assertThat(result).isSameAs(expected);
+    }
+
+    @Test
+    void create_ShouldShareResponse_WhenSameEventIdIsAlreadyInFlight() throws Exception {
+        Payment entity = Payment.builder().eventId("evt-123").orderId(100L).userId(200L).build();
+        PaymentResponse response = PaymentResponse.builder().id("p-1").eventId("evt-123").build();
+        CountDownLatch drawing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(mapper.toEntity(req)).thenReturn(entity);
+        when(randomNumberClient.get()).thenAnswer(inv -> {
+            drawing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 42;
+        });
+        when(repository.insert(entity)).thenReturn(entity);
+        when(mapper.toResponse(entity)).thenReturn(response);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<PaymentResponse> first = pool.submit(() -> service.create(req));
+            assertThat(drawing.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<PaymentResponse> second = pool.submit(() -> service.create(req));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (meterRegistry.get("idempotency.coalesced").counter().count() < 1 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isSameAs(response);
+            assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(response);
+        } finally {
+            pool.shutdownNow();
+        }
+        verify(randomNumberClient, times(1)).get();
+        verify(repository, times(1)).insert(any(Payment.class));
+        assertThat(meterRegistry.get("idempotency.in_flight").gauge().value()).isZero();
+    }
+
     @Test
     void getByUserId_ShouldMapAll() {
         Payment p = Payment.builder()
@@ -200,6 +348,74 @@ class PaymentServiceImplTest {
         assertThat(out).containsExactly(r);
     }
 
+    @Test
+    void getPageByUserId_ShouldReturnNextCursor_WhenMoreRowsThanLimit() {
+        ReflectionTestUtils.setField(service, "maxPageLimit", 100);
+        Instant ts = Instant.parse("2025-03-01T10:00:00Z");
+        Payment p1 = Payment.builder().id("66aa00000000000000000003").userId(7L).timestamp(ts.plusSeconds(2)).build();
+        Payment p2 = Payment.builder().id("66aa00000000000000000002").userId(7L).timestamp(ts).build();
+        Payment p3 = Payment.builder().id("66aa00000000000000000001").userId(7L).timestamp(ts).build();
+        when(repository.findPageByUserId(7L, null, null, 3)).thenReturn(List.of(p1, p2, p3));
+        when(mapper.toResponse(any(Payment.class)))
+                .thenAnswer(inv -> PaymentResponse.builder().id(inv.<Payment>getArgument(0).getId()).build());
+
+        PaymentPageResponse page = service.getPageByUserId(7L, null, 2);
+
+        assertThat(page.getItems()).extracting(PaymentResponse::getId)
+                .containsExactly("66aa00000000000000000003", "66aa00000000000000000002");
+        assertThat(PageCursor.decode(page.getNextCursor()))
+                .isEqualTo(new PageCursor(ts, "66aa00000000000000000002"));
+    }
+
+    @Test
+    void getPageByStatuses_ShouldSeekAfterCursor_AndEndWithoutNextCursor() {
+        ReflectionTestUtils.setField(service, "maxPageLimit", 100);
+        Instant ts = Instant.parse("2025-03-01T10:00:00Z");
+        String cursor = new PageCursor(ts, "66aa00000000000000000002").encode();
+        Payment last = Payment.builder().id("66aa00000000000000000001").timestamp(ts).build();
+        when(repository.findPageByStatusIn(Set.of(PaymentStatus.FAILED), ts, "66aa00000000000000000002", 3))
+                .thenReturn(List.of(last));
+        when(mapper.toResponse(last)).thenReturn(PaymentResponse.builder().id(last.getId()).build());
+
+        PaymentPageResponse page = service.getPageByStatuses(Set.of(PaymentStatus.FAILED), cursor, 2);
+
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getPageByOrderId_ShouldReject_WhenCursorOrLimitInvalid() {
+        ReflectionTestUtils.setField(service, "maxPageLimit", 100);
+
+        assertThatThrownBy(() -> service.getPageByOrderId(1L, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> service.getPageByOrderId(1L, null, 101))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(repository, never()).findPageByOrderId(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void streamByStatuses_ShouldMapLazilyAndCloseCursor() {
+        Payment p1 = Payment.builder().id("p1").status(PaymentStatus.SUCCESS).build();
+        Payment p2 = Payment.builder().id("p2").status(PaymentStatus.SUCCESS).build();
+        AtomicBoolean closed = new AtomicBoolean();
+        when(repository.streamByStatusIn(Set.of(PaymentStatus.SUCCESS)))
+                .thenReturn(Stream.of(p1, p2).onClose(() -> closed.set(true)));
+
+        PaymentResponse r1 = PaymentResponse.builder().id("p1").build();
+        PaymentResponse r2 = PaymentResponse.builder().id("p2").build();
+        when(mapper.toResponse(p1)).thenReturn(r1);
+        when(mapper.toResponse(p2)).thenReturn(r2);
+
+        try (Stream<PaymentResponse> out = service.streamByStatuses(Set.of(PaymentStatus.SUCCESS))) {
+            verify(mapper, never()).toResponse(any());
+            assertThat(out).containsExactly(r1, r2);
+        }
+
+        assertThat(closed).isTrue();
+    }
+
     @Test
     void getByStatuses_ShouldMapAll() {
         Payment p = Payment.builder()
@@ -251,6 +467,31 @@ class PaymentServiceImplTest {
         assertThat(out.getTotal()).isEqualByComparingTo(BigDecimal.ZERO);
     }
 
+    @Test
+    void getTotalBetween_ShouldAnswerFromRollups_WhenBackfilled() {
+        Instant from = Instant.parse("2024-01-01T00:00:00Z");
+        Instant to   = Instant.parse("2024-12-31T23:59:59Z");
+        when(paymentRollups.totalBetween(from, to)).thenReturn(Optional.of(new BigDecimal("77.70")));
+
+        PaymentTotalSumResponse out = service.getTotalBetween(from, to);
+
+        assertThat(out.getTotal()).isEqualByComparingTo(new BigDecimal("77.70"));
+        verify(repository, never()).sumSuccessfulBetween(any(), any());
+    }
+
+    @Test
+    void getTotalBetween_ShouldPreferInMemoryIndex_WhenItCoversTheRange() {
+        Instant from = Instant.parse("2024-01-01T00:00:00Z");
+        Instant to   = Instant.parse("2024-01-01T01:00:00Z");
+        when(paymentTotalsIndex.totalBetween(from, to)).thenReturn(Optional.of(new BigDecimal("5.50")));
+
+        PaymentTotalSumResponse out = service.getTotalBetween(from, to);
+
+        assertThat(out.getTotal()).isEqualByComparingTo(new BigDecimal("5.50"));
+        verify(paymentRollups, never()).totalBetween(any(), any());
+        verify(repository, never()).sumSuccessfulBetween(any(), any());
+    }
+
     @Test
     void getTotalBetween_ShouldReturnValue_WhenProjectionHasTotal() {
         PaymentRepository.TotalAmountProjection row = () -> new BigDecimal("123.45");
@@ -262,7 +503,7 @@ class PaymentServiceImplTest {
     }
 
     @Test
-    void create_ShouldSaveAndPublishEvent_WithFailedStatus_WhenOddNumber() {
+    void create_ShouldStoreFailedPaymentWithPendingEvent_WhenOddNumber() {
 
         PaymentRequest req2 = PaymentRequest.builder()
                 .orderId(101L)
@@ -271,8 +512,6 @@ class PaymentServiceImplTest {
                 .eventId("evt-999")
                 .build();
 
-        when(repository.findByEventId("evt-999")).thenReturn(Optional.empty());
-
         when(randomNumberClient.get()).thenReturn(41);
 
         Payment toSave = Payment.builder()
@@ -292,7 +531,7 @@ class PaymentServiceImplTest {
                 .timestamp(Instant.now())
                 .paymentAmount(new BigDecimal("99.99"))
                 .build();
-        when(repository.save(any(Payment.class))).thenReturn(saved);
+        when(repository.insert(any(Payment.class))).thenReturn(saved);
 
         PaymentResponse expected = PaymentResponse.builder()
                 .id("p-999")
@@ -309,17 +548,13 @@ class PaymentServiceImplTest {
 
         assertThat(out.getStatus()).isEqualTo(PaymentStatus.FAILED);
 
-        ArgumentCaptor<PaymentEvent> evt = ArgumentCaptor.forClass(PaymentEvent.class);
-        verify(producer).send(evt.capture());
-        assertThat(evt.getValue().getStatus()).isEqualTo(PaymentStatus.FAILED);
-        assertThat(evt.getValue().getOrderId()).isEqualTo(101L);
-        assertThat(evt.getValue().getPaymentId()).isEqualTo("p-999");
+        assertThat(toSave.getStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(toSave.getEventPending()).isTrue();
     }
 
     @Test
     void create_ShouldSetFailed_WhenRandomApiUnavailable() {
 
-        when(repository.findByEventId("evt-err")).thenReturn(Optional.empty());
         when(randomNumberClient.get()).thenThrow(new RandomApiUnavailableException("down"));
 
         PaymentRequest reqErr = PaymentRequest.builder()
@@ -346,7 +581,7 @@ class PaymentServiceImplTest {
                 .timestamp(Instant.now())
                 .paymentAmount(new BigDecimal("49.90"))
                 .build();
-        when(repository.save(any(Payment.class))).thenReturn(saved);
+        when(repository.insert(any(Payment.class))).thenReturn(saved);
 
         PaymentResponse expected = PaymentResponse.builder()
                 .id("p-err")
@@ -363,17 +598,16 @@ class PaymentServiceImplTest {
 
         assertThat(out.getStatus()).isEqualTo(PaymentStatus.FAILED);
 
-        ArgumentCaptor<PaymentEvent> evt = ArgumentCaptor.forClass(PaymentEvent.class);
-        verify(producer).send(evt.capture());
-        assertThat(evt.getValue().getStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(toSave.getStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(toSave.getEventPending()).isTrue();
+        assertThat(meterRegistry.get("payment.create").tag("outcome", "fallback_failed").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.create.stage").tag("stage", "random_api").timer().count()).isEqualTo(1);
     }
 
     @Test
     void create_ShouldForceFailed_WhenSuccessAlreadyExistsForOrder() {
 
-        when(repository.findByEventId("evt-dup")).thenReturn(Optional.empty());
         when(randomNumberClient.get()).thenReturn(42);
-        when(repository.existsByOrderIdAndStatus(101L, PaymentStatus.SUCCESS)).thenReturn(true);
 
         PaymentRequest reqDup = PaymentRequest.builder()
                 .orderId(101L)
@@ -399,7 +633,9 @@ class PaymentServiceImplTest {
                 .timestamp(Instant.now())
                 .paymentAmount(new BigDecimal("10.00"))
                 .build();
-        when(repository.save(any(Payment.class))).thenReturn(saved);
+        when(repository.insert(any(Payment.class)))
+                .thenThrow(duplicateKey(UniqueIndexes.ONE_SUCCESS_PER_ORDER))
+                .thenReturn(saved);
 
         PaymentResponse expected = PaymentResponse.builder()
                 .id("p-dup")
@@ -415,9 +651,166 @@ class PaymentServiceImplTest {
         PaymentResponse out = service.create(reqDup);
 
         assertThat(out.getStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(toSave.getStatus()).isEqualTo(PaymentStatus.FAILED);
+        verify(repository, times(2)).insert(any(Payment.class));
+        verify(repository, never()).findByEventId(any());
+        assertThat(toSave.getEventPending()).isTrue();
+    }
+
+    @Test
+    void createBatch_ShouldReturnExistingAndInsertOnlyNew_WithSingleLookup() {
+        idempotencyFilter.warmUp(Stream.of("evt-old"));
+        Payment existing = Payment.builder()
+                .id("p-old")
+                .eventId("evt-old")
+                .orderId(1L)
+                .userId(10L)
+                .status(PaymentStatus.FAILED)
+                .timestamp(Instant.now())
+                .paymentAmount(new BigDecimal("5.00"))
+                .build();
+        when(repository.findByEventIdIn(Set.of("evt-old"))).thenReturn(List.of(existing));
+        when(randomNumberClient.getBatch(1)).thenReturn(new int[]{41});
+        when(repository.insertAllUnordered(anyList())).thenReturn(Map.of());
+        mapRequestsAndResponses();
+
+        List<PaymentResponse> out = service.createBatch(List.of(
+                batchRequest("evt-old", 1L),
+                batchRequest("evt-new", 2L),
+                batchRequest("evt-new", 2L)));
+
+        assertThat(out).hasSize(3);
+        assertThat(out.get(0).getId()).isEqualTo("p-old");
+        assertThat(out.get(1).getId()).isNotNull().isEqualTo(out.get(2).getId());
+        assertThat(out.get(1).getStatus()).isEqualTo(PaymentStatus.FAILED);
+
+        ArgumentCaptor<List<Payment>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(repository).insertAllUnordered(inserted.capture());
+        assertThat(inserted.getValue()).extracting(Payment::getEventId).containsExactly("evt-new");
+        assertThat(inserted.getValue()).extracting(Payment::getEventPending).containsOnly(true);
+        verify(repository, times(1)).findByEventIdIn(any());
+        verify(repository, never()).findByEventId(any());
+        verify(repository, never()).insert(any(Payment.class));
+    }
+
+    @Test
+    void createBatch_ShouldAllowSingleSuccessPerOrder() {
+        when(randomNumberClient.getBatch(3)).thenReturn(new int[]{42, 42, 42});
+        // order 8 was paid before: the index rejects its SUCCESS and the payment is re-inserted as FAILED
+        when(repository.insertAllUnordered(anyList()))
+                .thenReturn(Map.of(2, UniqueIndexes.ONE_SUCCESS_PER_ORDER))
+                .thenReturn(Map.of());
+        mapRequestsAndResponses();
+
+        List<PaymentResponse> out = service.createBatch(List.of(
+                batchRequest("evt-1", 7L),
+                batchRequest("evt-2", 7L),
+                batchRequest("evt-3", 8L)));
+
+        assertThat(out).extracting(PaymentResponse::getStatus)
+                .containsExactly(PaymentStatus.SUCCESS, PaymentStatus.FAILED, PaymentStatus.FAILED);
+        verify(repository, times(2)).insertAllUnordered(anyList());
+        verify(repository, never()).findByEventIdIn(any());
+    }
+
+    @Test
+    void createBatch_ShouldReturnWinner_WhenInsertRejectedAsDuplicate() {
+        Payment winner = Payment.builder()
+                .id("p-winner")
+                .eventId("evt-race")
+                .orderId(3L)
+                .userId(10L)
+                .status(PaymentStatus.FAILED)
+                .timestamp(Instant.now())
+                .paymentAmount(new BigDecimal("5.00"))
+                .build();
+        when(repository.findByEventIdIn(List.of("evt-race"))).thenReturn(List.of(winner));
+        when(randomNumberClient.getBatch(2)).thenReturn(new int[]{41, 41});
+        when(repository.insertAllUnordered(anyList())).thenReturn(Map.of(0, UniqueIndexes.EVENT_ID));
+        mapRequestsAndResponses();
+
+        List<PaymentResponse> out = service.createBatch(List.of(
+                batchRequest("evt-race", 3L),
+                batchRequest("evt-other", 4L)));
+
+        assertThat(out.get(0).getId()).isEqualTo("p-winner");
+        assertThat(out.get(1).getEventId()).isEqualTo("evt-other");
+        verify(repository, times(1)).insertAllUnordered(anyList());
+    }
+
+    @Test
+    void createBatch_ShouldDrawAllStatusesWithOneCall_AndStoreFailed_WhenRandomApiIsDown() {
+        when(randomNumberClient.getBatch(3)).thenThrow(new RandomApiUnavailableException("down"));
+        when(repository.insertAllUnordered(anyList())).thenReturn(Map.of());
+        mapRequestsAndResponses();
+
+        List<PaymentResponse> out = service.createBatch(List.of(
+                batchRequest("evt-1", 1L),
+                batchRequest("evt-2", 2L),
+                batchRequest("evt-3", 3L)));
+
+        assertThat(out).extracting(PaymentResponse::getStatus).containsOnly(PaymentStatus.FAILED);
+        verify(randomNumberClient, times(1)).getBatch(3);
+        verify(randomNumberClient, never()).get();
+    }
+
+    @Test
+    void createBatch_ShouldRecordTheFirstRound_WhenTheSecondRoundThrows() {
+        when(randomNumberClient.getBatch(2)).thenReturn(new int[]{42, 42});
+        when(repository.insertAllUnordered(anyList()))
+                .thenReturn(Map.of(1, UniqueIndexes.ONE_SUCCESS_PER_ORDER))
+                .thenThrow(new DataIntegrityViolationException("Document failed validation"));
+        when(mapper.toEntity(any(PaymentRequest.class))).thenAnswer(inv -> {
+            PaymentRequest r = inv.getArgument(0);
+            return Payment.builder().eventId(r.getEventId()).orderId(r.getOrderId()).userId(r.getUserId()).build();
+        });
+
+        assertThatThrownBy(() -> service.createBatch(List.of(
+                batchRequest("evt-1", 7L),
+                batchRequest("evt-2", 8L))))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        ArgumentCaptor<List<Payment>> recorded = ArgumentCaptor.forClass(List.class);
+        verify(paymentRollups).record(recorded.capture());
+        assertThat(recorded.getValue()).extracting(Payment::getEventId).containsExactly("evt-1");
+        verify(userSummaries).record(recorded.getValue());
+    }
+
+    private DuplicateKeyException duplicateKey(String index) {
+        return new DuplicateKeyException("E11000 duplicate key error collection: payments_db.payments index: "
+                + index + " dup key: { }");
+    }
+
+    private PaymentRequest batchRequest(String eventId, Long orderId) {
+        return PaymentRequest.builder()
+                .orderId(orderId)
+                .userId(10L)
+                .paymentAmount(new BigDecimal("5.00"))
+                .eventId(eventId)
+                .build();
+    }
 
-        ArgumentCaptor<PaymentEvent> evt = ArgumentCaptor.forClass(PaymentEvent.class);
-        verify(producer).send(evt.capture());
-        assertThat(evt.getValue().getStatus()).isEqualTo(PaymentStatus.FAILED);
+    private void mapRequestsAndResponses() {
+        when(mapper.toEntity(any(PaymentRequest.class))).thenAnswer(inv -> {
+            PaymentRequest r = inv.getArgument(0);
+            return Payment.builder()
+                    .eventId(r.getEventId())
+                    .orderId(r.getOrderId())
+                    .userId(r.getUserId())
+                    .paymentAmount(r.getPaymentAmount())
+                    .build();
+        });
+        when(mapper.toResponse(any(Payment.class))).thenAnswer(inv -> {
+            Payment p = inv.getArgument(0);
+            return PaymentResponse.builder()
+                    .id(p.getId())
+                    .eventId(p.getEventId())
+                    .orderId(p.getOrderId())
+                    .userId(p.getUserId())
+                    .status(p.getStatus())
+                    .timestamp(p.getTimestamp())
+                    .paymentAmount(p.getPaymentAmount())
+                    .build();
+        });
     }
-}
\ No newline at end of file
+}
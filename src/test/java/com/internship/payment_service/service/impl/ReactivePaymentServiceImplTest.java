@@ -0,0 +1,178 @@
+package com.internship.payment_service.service.impl;
+
+import com.internship.payment_service.dto.PaymentRequest;
+import com.internship.payment_service.dto.PaymentResponse;
+import com.internship.payment_service.dto.PaymentTotalSumResponse;
+import com.internship.payment_service.entity.Payment;
+import com.internship.payment_service.entity.PaymentStatus;
+import com.internship.payment_service.exception.RandomApiUnavailableException;
+import com.internship.payment_service.external.RandomNumberClient;
+import com.internship.payment_service.mapper.PaymentMapper;
+import com.internship.payment_service.repository.ReactivePaymentRepository;
+import com.internship.payment_service.repository.UniqueIndexes;
+import com.internship.payment_service.rollup.PaymentRollupService;
+import com.internship.payment_service.rollup.UserPaymentSummaryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePaymentServiceImplTest {
+
+    @Mock
+    private ReactivePaymentRepository repository;
+    @Mock
+    private PaymentMapper mapper;
+    @Mock
+    private RandomNumberClient randomNumberClient;
+    @Mock
+    private PaymentRollupService paymentRollups;
+    @Mock
+    private UserPaymentSummaryService userSummaries;
+
+    @InjectMocks
+    private ReactivePaymentServiceImpl service;
+
+    private PaymentRequest req;
+
+    @BeforeEach
+    void setUp() {
+        req = PaymentRequest.builder()
+                .orderId(100L)
+                .userId(200L)
+                .paymentAmount(new BigDecimal("49.90"))
+                .eventId("evt-123")
+                .build();
+    }
+
+    @Test
+    void create_ShouldReturnExisting_WhenEventIdAlreadyProcessed() {
+        Payment existing = Payment.builder().id("p-1").eventId("evt-123").status(PaymentStatus.SUCCESS).build();
+        PaymentResponse expected = PaymentResponse.builder().id("p-1").status(PaymentStatus.SUCCESS).build();
+
+        when(repository.findByEventId("evt-123")).thenReturn(Mono.just(existing));
+        when(mapper.toResponse(existing)).thenReturn(expected);
+
+        PaymentResponse result = service.create(req).block();
+
+        assertThat(result).isSameAs(expected);
+        verify(randomNumberClient, never()).getAsync();
+        verify(repository, never()).insert(any(Payment.class));
+    }
+
+    @Test
+    void create_ShouldInsertSuccessWithPendingEvent_WhenEvenNumber() {
+        Payment entity = Payment.builder().eventId("evt-123").orderId(100L).userId(200L).build();
+
+        when(repository.findByEventId("evt-123")).thenReturn(Mono.empty());
+        when(mapper.toEntity(req)).thenReturn(entity);
+        when(randomNumberClient.getAsync()).thenReturn(Mono.just(42));
+        when(repository.insert(entity)).thenAnswer(inv -> {
+            Payment p = inv.getArgument(0);
+            p.setId("p-2");
+            return Mono.just(p);
+        });
+        when(mapper.toResponse(entity)).thenReturn(PaymentResponse.builder().id("p-2").status(PaymentStatus.SUCCESS).build());
+
+        PaymentResponse result = service.create(req).block();
+
+        assertThat(result.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(entity.getTimestamp()).isNotNull();
+
+        assertThat(entity.getEventPending()).isTrue();
+        verify(paymentRollups).record(List.of(entity));
+        verify(userSummaries).record(List.of(entity));
+    }
+
+    @Test
+    void create_ShouldStoreFailed_WhenSuccessAlreadyExistsForOrder() {
+        Payment entity = Payment.builder().eventId("evt-123").orderId(100L).userId(200L).build();
+        List<PaymentStatus> inserted = new ArrayList<>();
+
+        when(repository.findByEventId("evt-123")).thenReturn(Mono.empty());
+        when(mapper.toEntity(req)).thenReturn(entity);
+        when(randomNumberClient.getAsync()).thenReturn(Mono.just(42));
+        when(repository.insert(entity)).thenAnswer(inv -> {
+            inserted.add(entity.getStatus());
+            return inserted.size() == 1
+                    ? Mono.error(duplicateKey(UniqueIndexes.ONE_SUCCESS_PER_ORDER))
+                    : Mono.just(entity);
+        });
+        when(mapper.toResponse(entity)).thenReturn(PaymentResponse.builder().status(PaymentStatus.FAILED).build());
+
+        service.create(req).block();
+
+        assertThat(inserted).containsExactly(PaymentStatus.SUCCESS, PaymentStatus.FAILED);
+        assertThat(entity.getStatus()).isEqualTo(PaymentStatus.FAILED);
+    }
+
+    @Test
+    void create_ShouldReturnWinner_WhenInsertLosesEventIdRace() {
+        Payment entity = Payment.builder().eventId("evt-123").orderId(100L).userId(200L).build();
+        Payment winner = Payment.builder().id("p-9").eventId("evt-123").status(PaymentStatus.SUCCESS).build();
+        PaymentResponse expected = PaymentResponse.builder().id("p-9").build();
+
+        when(repository.findByEventId("evt-123")).thenReturn(Mono.empty(), Mono.just(winner));
+        when(mapper.toEntity(req)).thenReturn(entity);
+        when(randomNumberClient.getAsync()).thenReturn(Mono.just(41));
+        when(repository.insert(entity)).thenReturn(Mono.error(duplicateKey(UniqueIndexes.EVENT_ID)));
+        when(mapper.toResponse(winner)).thenReturn(expected);
+
+        PaymentResponse result = service.create(req).block();
+
+        assertThat(result).isSameAs(expected);
+        verify(repository, times(1)).insert(any(Payment.class));
+        verify(paymentRollups, never()).record(any());
+        verify(userSummaries, never()).record(any());
+    }
+
+    @Test
+    void create_ShouldSaveFailed_WhenRandomApiUnavailable() {
+        Payment entity = Payment.builder().eventId("evt-123").orderId(100L).userId(200L).build();
+
+        when(repository.findByEventId("evt-123")).thenReturn(Mono.empty());
+        when(mapper.toEntity(req)).thenReturn(entity);
+        when(randomNumberClient.getAsync()).thenReturn(Mono.error(new RandomApiUnavailableException("down")));
+        when(repository.insert(entity)).thenReturn(Mono.just(entity));
+        when(mapper.toResponse(entity)).thenReturn(PaymentResponse.builder().status(PaymentStatus.FAILED).build());
+
+        service.create(req).block();
+
+        assertThat(entity.getStatus()).isEqualTo(PaymentStatus.FAILED);
+    }
+
+    @Test
+    void getTotalBetween_ShouldReturnZero_WhenNoSuccessfulPayments() {
+        Instant from = Instant.parse("2025-01-01T00:00:00Z");
+        Instant to = Instant.parse("2025-02-01T00:00:00Z");
+        when(repository.sumSuccessfulBetween(from, to)).thenReturn(Mono.empty());
+
+        PaymentTotalSumResponse result = service.getTotalBetween(from, to).block();
+
+        assertThat(result.getTotal()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(result.getFrom()).isEqualTo(from);
+        assertThat(result.getTo()).isEqualTo(to);
+    }
+
+    private DuplicateKeyException duplicateKey(String index) {
+        return new DuplicateKeyException("E11000 duplicate key error collection: payments_db.payments index: "
+                + index + " dup key: { }");
+    }
+}